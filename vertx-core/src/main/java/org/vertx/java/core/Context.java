@@ -16,6 +16,8 @@
 
 package org.vertx.java.core;
 
+import org.vertx.java.core.shareddata.LocalMap;
+
 /**
  * Represents the execution context of a Verticle.
  *
@@ -23,4 +25,26 @@ package org.vertx.java.core;
  */
 public interface Context {
   void runOnContext(Handler<Void> action);
+
+  /**
+   * Return the {@link LocalMap} with the specific {@code name} for the event loop of this context. All invocations of
+   * this method with the same {@code name} from contexts on the same event loop return the same instance, which holds
+   * at most {@code maxSize} entries. If the map already exists it is returned with its original maximum size.<p>
+   * Must be called from the event loop of this context, so it cannot be used from worker verticles.
+   *
+   * @throws IllegalStateException if not called from the event loop of this context
+   */
+  <K, V> LocalMap<K, V> localMap(String name, int maxSize);
+
+  /**
+   * Like {@link #localMap(String, int)} but the map is unbounded if it doesn't exist yet.
+   */
+  <K, V> LocalMap<K, V> localMap(String name);
+
+  /**
+   * Remove the {@link LocalMap} with the specific {@code name} from the event loop of this context.
+   *
+   * @throws IllegalStateException if not called from the event loop of this context
+   */
+  boolean removeLocalMap(String name);
 }
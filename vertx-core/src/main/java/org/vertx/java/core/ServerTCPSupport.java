@@ -28,4 +28,18 @@ public interface ServerTCPSupport<T> extends TCPSupport<T> {
    * @return The accept backlog
    */
   int getAcceptBacklog();
+
+  /**
+   * If {@code reusePort} is {@code true} then each event loop serving the server binds its own listening socket with
+   * {@code SO_REUSEPORT}, and the kernel spreads incoming connections across them. This requires the native transport
+   * (Linux only), otherwise it is ignored and a single listening socket is shared by all the event loops.
+   * @return a reference to this so multiple method calls can be chained together
+   */
+  T setReusePort(boolean reusePort);
+
+  /**
+   *
+   * @return the value of reuse port
+   */
+  boolean isReusePort();
 }
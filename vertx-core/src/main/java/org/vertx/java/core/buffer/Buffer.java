@@ -17,10 +17,14 @@ package org.vertx.java.core.buffer;
 
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.util.CharsetUtil;
+import org.vertx.java.core.net.impl.PartialPooledByteBufAllocator;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 import java.nio.charset.Charset;
 
 /**
@@ -34,16 +38,39 @@ import java.nio.charset.Charset;
  * at the end of the buffer.<p>
  * Methods exist to both {@code set} and {@code append} all primitive types, {@link java.lang.String}, {@link java.nio.ByteBuffer} and
  * other instances of Buffer.<p>
+ * Arrays of {@code int}, {@code long} and {@code double} values can be appended, set and read in one go, in either
+ * byte order, with methods such as {@link #appendLongs} and {@link #getDoubles}.<p>
  * Data can be read from a buffer by invoking methods which take the form {@code getXXX}. These methods take a parameter
  * representing the position in the Buffer from where to read data.<p>
  * Once a buffer has been written to a socket or other write stream, the same buffer instance can't be written again to another WriteStream.<p>
- * Instances of this class are not thread-safe.<p>
+ * A view of part of a Buffer which shares its content can be obtained with {@link #slice}, and a Buffer created with
+ * {@link #composite} holds the Buffers appended to it by reference, so neither copies any bytes. Writing a composite
+ * Buffer to a file or socket writes its parts with a gathering write.<p>
+ * A read-only view of a Buffer can be obtained with {@link #asReadOnly}. The {@code setXXX} and {@code appendXXX}
+ * methods of a read-only Buffer throw {@link ReadOnlyBufferException}, but its content can still be changed through the
+ * Buffer it is a view of. A copy whose content can't be changed at all can be obtained with {@link #immutableCopy}.<p>
+ * A Buffer created with {@link #pooled} takes its memory from a pool of direct memory instead of the heap, which
+ * saves allocating, and later copying, a new buffer for each write on hot paths. Its memory must be given back to the
+ * pool: writing it to a {@link org.vertx.java.core.net.NetSocket}, an HTTP request or response, a WebSocket or a
+ * datagram socket hands it over to that stream, which releases it once it has been written. A pooled Buffer which is
+ * not written to one of these must be released with {@link #release}. Either way the Buffer can't be used
+ * afterwards.<p>
+ * A view of a pooled or composite Buffer, taken with {@link #slice} or {@link #asReadOnly}, holds a reference to the
+ * memory of its own. It must be written or released as well as the Buffer it is a view of, and can still be used
+ * after that Buffer has been released. The memory is freed once the Buffer and all of its views have been.<p>
+ * Instances of this class are not thread-safe, except that a read-only Buffer can be read from any number of threads
+ * at once with the {@code getXXX} methods provided nothing else writes to its content.<p>
  *
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
 public class Buffer {
 
   private final ByteBuf buffer;
+  private final boolean readOnly;
+  private final boolean immutable;
+  private final boolean pooled;
+  private final boolean refCounted;
+  private final CompositeByteBuf composite;
 
   /**
    * Create an empty buffer
@@ -61,6 +88,11 @@ public class Buffer {
    */
   public Buffer(int initialSizeHint) {
     buffer = Unpooled.unreleasableBuffer(Unpooled.buffer(initialSizeHint, Integer.MAX_VALUE));
+    readOnly = false;
+    immutable = false;
+    pooled = false;
+    refCounted = false;
+    composite = null;
   }
 
   /**
@@ -68,20 +100,36 @@ public class Buffer {
    */
   public Buffer(byte[] bytes) {
     buffer = Unpooled.unreleasableBuffer(Unpooled.buffer(bytes.length, Integer.MAX_VALUE)).writeBytes(bytes);
+    readOnly = false;
+    immutable = false;
+    pooled = false;
+    refCounted = false;
+    composite = null;
   }
 
   /**
    * Create a new Buffer that contains the contents of a {@code String str} encoded according to the encoding {@code enc}
    */
   public Buffer(String str, String enc) {
-    this(str.getBytes(Charset.forName(enc)));
+    this(str, StringCodec.charset(enc));
   }
 
   /**
    * Create a new Buffer that contains the contents of {@code String str} encoded with UTF-8 encoding
    */
   public Buffer(String str) {
-    this(str, "UTF-8");
+    this(str, CharsetUtil.UTF_8);
+  }
+
+  private Buffer(String str, Charset charset) {
+    int len = StringCodec.encodedLength(str, charset);
+    buffer = Unpooled.unreleasableBuffer(Unpooled.buffer(len < 0 ? str.length() : len, Integer.MAX_VALUE));
+    readOnly = false;
+    immutable = false;
+    pooled = false;
+    refCounted = false;
+    composite = null;
+    append(str, charset);
   }
 
   /**
@@ -90,20 +138,77 @@ public class Buffer {
    */
   public Buffer(ByteBuf buffer) {
     this.buffer = Unpooled.unreleasableBuffer(buffer);
+    this.readOnly = false;
+    this.immutable = false;
+    this.pooled = false;
+    this.refCounted = false;
+    this.composite = null;
+  }
+
+  private Buffer(ByteBuf buffer, boolean readOnly, boolean immutable, boolean pooled, boolean refCounted,
+                 CompositeByteBuf composite) {
+    this.buffer = buffer;
+    this.readOnly = readOnly;
+    this.immutable = immutable;
+    this.pooled = pooled;
+    this.refCounted = refCounted;
+    this.composite = composite;
+  }
+
+  /**
+   * Create a new empty pooled Buffer that is expected to have a size of {@code initialSizeHint} after data has been
+   * written to it. See the class documentation for when its memory is given back to the pool.
+   */
+  public static Buffer pooled(int initialSizeHint) {
+    // Use the same pool as the event loops use for their I/O buffers
+    return new Buffer(PartialPooledByteBufAllocator.INSTANCE.directBuffer(initialSizeHint, Integer.MAX_VALUE), false,
+        false, true, true, null);
+  }
+
+  /**
+   * Create a new empty composite Buffer. A Buffer appended to it with {@link #appendBuffer} is added to it by
+   * reference rather than being copied, so later changes to the bytes of the appended Buffer are seen by the
+   * composite. Any other data appended or set is written to memory owned by the composite. A pooled Buffer which is
+   * appended is handed over to the composite, and is given back to the pool when the composite is released.<p>
+   * A composite Buffer must be released in the same way as a pooled Buffer, see the class documentation.
+   */
+  public static Buffer composite() {
+    CompositeByteBuf composite = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+    return new Buffer(composite, false, false, false, true, composite);
+  }
+
+  /**
+   * Create a new immutable Buffer from a Netty {@code ByteBuf} instance whose content will never be changed.
+   * This method is meant for internal use only.
+   */
+  public static Buffer immutable(ByteBuf buffer) {
+    // It may be shared, so writing it to a stream mustn't release it
+    return new Buffer(Unpooled.unreleasableBuffer(Unpooled.unmodifiableBuffer(buffer)), true, true, false, false,
+        null);
+  }
+
+  /**
+   * Create a new read-only Buffer which takes over a reference to a reference counted Netty {@code ByteBuf}. The
+   * reference is given back when the Buffer is released, or written to a stream which takes it over, in the same way
+   * as for a pooled Buffer.
+   * This method is meant for internal use only.
+   */
+  public static Buffer retained(ByteBuf buffer) {
+    return new Buffer(Unpooled.unmodifiableBuffer(buffer), true, false, false, true, null);
   }
 
   /**
    * Returns a {@code String} representation of the Buffer assuming it contains a {@code String} encoding in UTF-8
    */
   public String toString() {
-    return buffer.toString(Charset.forName("UTF-8"));
+    return StringCodec.decode(buffer, 0, buffer.writerIndex(), CharsetUtil.UTF_8);
   }
 
   /**
    * Returns a {@code String} representation of the Buffer with the encoding specified by {@code enc}
    */
   public String toString(String enc) {
-    return buffer.toString(Charset.forName(enc));
+    return StringCodec.decode(buffer, 0, buffer.writerIndex(), StringCodec.charset(enc));
   }
 
   /**
@@ -160,6 +265,99 @@ public class Buffer {
     return buffer.getShort(pos);
   }
 
+  /**
+   * Reads {@code values.length} big-endian {@code int} values starting at position {@code pos} in the Buffer into
+   * {@code values}, and returns {@code values}.
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code pos} is less than {@code 0} or {@code pos + 4 * values.length} is greater than the length of the Buffer.
+   */
+  public int[] getInts(int pos, int[] values) {
+    return getInts(pos, values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Reads {@code values.length} {@code int} values in byte order {@code order} starting at position {@code pos} in the
+   * Buffer into {@code values}, and returns {@code values}.
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code pos} is less than {@code 0} or {@code pos + 4 * values.length} is greater than the length of the Buffer.
+   */
+  public int[] getInts(int pos, int[] values, ByteOrder order) {
+    checkReadable(pos, values.length * 4);
+    ByteBuffer view = nioView(pos, values.length * 4, order);
+    if (view != null) {
+      view.asIntBuffer().get(values);
+    } else {
+      boolean swap = order != ByteOrder.BIG_ENDIAN;
+      for (int i = 0; i < values.length; i++) {
+        int v = buffer.getInt(pos + i * 4);
+        values[i] = swap ? Integer.reverseBytes(v) : v;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Reads {@code values.length} big-endian {@code long} values starting at position {@code pos} in the Buffer into
+   * {@code values}, and returns {@code values}.
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code pos} is less than {@code 0} or {@code pos + 8 * values.length} is greater than the length of the Buffer.
+   */
+  public long[] getLongs(int pos, long[] values) {
+    return getLongs(pos, values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Reads {@code values.length} {@code long} values in byte order {@code order} starting at position {@code pos} in the
+   * Buffer into {@code values}, and returns {@code values}.
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code pos} is less than {@code 0} or {@code pos + 8 * values.length} is greater than the length of the Buffer.
+   */
+  public long[] getLongs(int pos, long[] values, ByteOrder order) {
+    checkReadable(pos, values.length * 8);
+    ByteBuffer view = nioView(pos, values.length * 8, order);
+    if (view != null) {
+      view.asLongBuffer().get(values);
+    } else {
+      boolean swap = order != ByteOrder.BIG_ENDIAN;
+      for (int i = 0; i < values.length; i++) {
+        long v = buffer.getLong(pos + i * 8);
+        values[i] = swap ? Long.reverseBytes(v) : v;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Reads {@code values.length} big-endian {@code double} values starting at position {@code pos} in the Buffer into
+   * {@code values}, and returns {@code values}.
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code pos} is less than {@code 0} or {@code pos + 8 * values.length} is greater than the length of the Buffer.
+   */
+  public double[] getDoubles(int pos, double[] values) {
+    return getDoubles(pos, values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Reads {@code values.length} {@code double} values in byte order {@code order} starting at position {@code pos} in the
+   * Buffer into {@code values}, and returns {@code values}.
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code pos} is less than {@code 0} or {@code pos + 8 * values.length} is greater than the length of the Buffer.
+   */
+  public double[] getDoubles(int pos, double[] values, ByteOrder order) {
+    checkReadable(pos, values.length * 8);
+    ByteBuffer view = nioView(pos, values.length * 8, order);
+    if (view != null) {
+      view.asDoubleBuffer().get(values);
+    } else {
+      boolean swap = order != ByteOrder.BIG_ENDIAN;
+      for (int i = 0; i < values.length; i++) {
+        long v = buffer.getLong(pos + i * 8);
+        values[i] = Double.longBitsToDouble(swap ? Long.reverseBytes(v) : v);
+      }
+    }
+    return values;
+  }
+
   /**
    * Returns a copy of the entire Buffer as a {@code byte[]}
    */
@@ -187,14 +385,30 @@ public class Buffer {
     return new Buffer(getBytes(start, end));
   }
 
+  /**
+   * Returns a view of the sub-sequence of the Buffer starting at position {@code start} and ending at position
+   * {@code end - 1}. No bytes are copied: the view shares its content with this Buffer, so changes made through
+   * either are seen by the other. The view has a fixed length, so appending to it throws
+   * {@link IndexOutOfBoundsException}.<p>
+   * A view of a pooled or composite Buffer holds a reference to the memory of its own, see the class documentation.
+   */
+  public Buffer slice(int start, int end) {
+    return view(buffer.slice(start, end - start), readOnly);
+  }
+
+  /**
+   * Returns a view of the whole Buffer, as {@link #slice(int, int)} does.
+   */
+  public Buffer slice() {
+    return slice(0, length());
+  }
+
   /**
    * Returns a copy of a sub-sequence the Buffer as a {@code String} starting at position {@code start}
    * and ending at position {@code end - 1} interpreted as a String in the specified encoding
    */
   public String getString(int start, int end, String enc) {
-    byte[] bytes = getBytes(start, end);
-    Charset cs = Charset.forName(enc);
-    return new String(bytes, cs);
+    return StringCodec.decode(buffer, start, end, StringCodec.charset(enc));
   }
 
   /**
@@ -202,9 +416,7 @@ public class Buffer {
    * and ending at position {@code end - 1} interpreted as a String in UTF-8 encoding
    */
   public String getString(int start, int end) {
-    byte[] bytes = getBytes(start, end);
-    Charset cs = Charset.forName("UTF-8");
-    return new String(bytes, cs);
+    return StringCodec.decode(buffer, start, end, CharsetUtil.UTF_8);
   }
 
   /**
@@ -213,6 +425,11 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendBuffer(Buffer buff) {
+    checkWritable();
+    if (composite != null) {
+      addComponent(buff.getByteBuf());
+      return this;
+    }
     ByteBuf cb = buff.getByteBuf();
     buffer.writeBytes(buff.getByteBuf());
     cb.readerIndex(0); // Need to reset readerindex since Netty write modifies readerIndex of source!
@@ -225,6 +442,11 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendBuffer(Buffer buff, int offset,int len) {
+    checkWritable();
+    if (composite != null) {
+      addComponent(buff.getByteBuf().slice(offset, len));
+      return this;
+    }
     buffer.writeBytes(buff.getByteBuf(), offset, len);
     return this;
   }
@@ -234,6 +456,7 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendBytes(byte[] bytes) {
+    checkWritable();
     buffer.writeBytes(bytes);
     return this;
   }
@@ -244,6 +467,7 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendBytes(byte[] bytes, int offset, int len) {
+    checkWritable();
     buffer.writeBytes(bytes, offset, len);
     return this;
   }
@@ -253,6 +477,7 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendByte(byte b) {
+    checkWritable();
     buffer.writeByte(b);
     return this;
   }
@@ -262,6 +487,7 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendInt(int i) {
+    checkWritable();
     buffer.writeInt(i);
     return this;
   }
@@ -271,6 +497,7 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendLong(long l) {
+    checkWritable();
     buffer.writeLong(l);
     return this;
   }
@@ -280,6 +507,7 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendShort(short s) {
+    checkWritable();
     buffer.writeShort(s);
     return this;
   }
@@ -289,6 +517,7 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendFloat(float f) {
+    checkWritable();
     buffer.writeFloat(f);
     return this;
   }
@@ -298,17 +527,91 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together.
    */
   public Buffer appendDouble(double d) {
+    checkWritable();
     buffer.writeDouble(d);
     return this;
   }
 
+  /**
+   * Appends the specified {@code int} values to the end of the Buffer in big-endian byte order. The buffer will expand
+   * as necessary to accommodate any bytes written.<p>
+   * Returns a reference to {@code this} so multiple operations can be appended together.
+   */
+  public Buffer appendInts(int[] values) {
+    return appendInts(values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Appends the specified {@code int} values to the end of the Buffer in byte order {@code order}. The buffer will
+   * expand as necessary to accommodate any bytes written.<p>
+   * Returns a reference to {@code this} so multiple operations can be appended together.
+   */
+  public Buffer appendInts(int[] values, ByteOrder order) {
+    checkWritable();
+    int len = values.length * 4;
+    buffer.ensureWritable(len);
+    int index = buffer.writerIndex();
+    setInts0(index, values, order);
+    buffer.writerIndex(index + len);
+    return this;
+  }
+
+  /**
+   * Appends the specified {@code long} values to the end of the Buffer in big-endian byte order. The buffer will expand
+   * as necessary to accommodate any bytes written.<p>
+   * Returns a reference to {@code this} so multiple operations can be appended together.
+   */
+  public Buffer appendLongs(long[] values) {
+    return appendLongs(values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Appends the specified {@code long} values to the end of the Buffer in byte order {@code order}. The buffer will
+   * expand as necessary to accommodate any bytes written.<p>
+   * Returns a reference to {@code this} so multiple operations can be appended together.
+   */
+  public Buffer appendLongs(long[] values, ByteOrder order) {
+    checkWritable();
+    int len = values.length * 8;
+    buffer.ensureWritable(len);
+    int index = buffer.writerIndex();
+    setLongs0(index, values, order);
+    buffer.writerIndex(index + len);
+    return this;
+  }
+
+  /**
+   * Appends the specified {@code double} values to the end of the Buffer in big-endian byte order. The buffer will expand
+   * as necessary to accommodate any bytes written.<p>
+   * Returns a reference to {@code this} so multiple operations can be appended together.
+   */
+  public Buffer appendDoubles(double[] values) {
+    return appendDoubles(values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Appends the specified {@code double} values to the end of the Buffer in byte order {@code order}. The buffer will
+   * expand as necessary to accommodate any bytes written.<p>
+   * Returns a reference to {@code this} so multiple operations can be appended together.
+   */
+  public Buffer appendDoubles(double[] values, ByteOrder order) {
+    checkWritable();
+    int len = values.length * 8;
+    buffer.ensureWritable(len);
+    int index = buffer.writerIndex();
+    setDoubles0(index, values, order);
+    buffer.writerIndex(index + len);
+    return this;
+  }
+
   /**
    * Appends the specified {@code String} to the end of the Buffer with the encoding as specified by {@code enc}.<p>
    * The buffer will expand as necessary to accommodate any bytes written.<p>
    * Returns a reference to {@code this} so multiple operations can be appended together.<p>
    */
   public Buffer appendString(String str, String enc) {
-    return append(str, Charset.forName(enc));
+    checkWritable();
+    return append(str, StringCodec.charset(enc));
   }
 
   /**
@@ -317,6 +620,7 @@ public class Buffer {
    * Returns a reference to {@code this} so multiple operations can be appended together<p>
    */
   public Buffer appendString(String str) {
+    checkWritable();
     return append(str, CharsetUtil.UTF_8);
   }
 
@@ -325,6 +629,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setByte(int pos, byte b) {
+    checkWritable();
     ensureWritable(pos, 1);
     buffer.setByte(pos, b);
     return this;
@@ -335,6 +640,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setInt(int pos, int i) {
+    checkWritable();
     ensureWritable(pos, 4);
     buffer.setInt(pos, i);
     return this;
@@ -345,6 +651,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setLong(int pos, long l) {
+    checkWritable();
     ensureWritable(pos, 8);
     buffer.setLong(pos, l);
     return this;
@@ -355,16 +662,81 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setDouble(int pos, double d) {
+    checkWritable();
     ensureWritable(pos, 8);
     buffer.setDouble(pos, d);
     return this;
   }
 
+  /**
+   * Sets the bytes starting at position {@code pos} in the Buffer to the specified {@code int} values in big-endian
+   * byte order.<p>
+   * The buffer will expand as necessary to accommodate any value written.
+   */
+  public Buffer setInts(int pos, int[] values) {
+    return setInts(pos, values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Sets the bytes starting at position {@code pos} in the Buffer to the specified {@code int} values in byte order
+   * {@code order}.<p>
+   * The buffer will expand as necessary to accommodate any value written.
+   */
+  public Buffer setInts(int pos, int[] values, ByteOrder order) {
+    checkWritable();
+    ensureWritable(pos, values.length * 4);
+    setInts0(pos, values, order);
+    return this;
+  }
+
+  /**
+   * Sets the bytes starting at position {@code pos} in the Buffer to the specified {@code long} values in big-endian
+   * byte order.<p>
+   * The buffer will expand as necessary to accommodate any value written.
+   */
+  public Buffer setLongs(int pos, long[] values) {
+    return setLongs(pos, values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Sets the bytes starting at position {@code pos} in the Buffer to the specified {@code long} values in byte order
+   * {@code order}.<p>
+   * The buffer will expand as necessary to accommodate any value written.
+   */
+  public Buffer setLongs(int pos, long[] values, ByteOrder order) {
+    checkWritable();
+    ensureWritable(pos, values.length * 8);
+    setLongs0(pos, values, order);
+    return this;
+  }
+
+  /**
+   * Sets the bytes starting at position {@code pos} in the Buffer to the specified {@code double} values in big-endian
+   * byte order.<p>
+   * The buffer will expand as necessary to accommodate any value written.
+   */
+  public Buffer setDoubles(int pos, double[] values) {
+    return setDoubles(pos, values, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Sets the bytes starting at position {@code pos} in the Buffer to the specified {@code double} values in byte order
+   * {@code order}.<p>
+   * The buffer will expand as necessary to accommodate any value written.
+   */
+  public Buffer setDoubles(int pos, double[] values, ByteOrder order) {
+    checkWritable();
+    ensureWritable(pos, values.length * 8);
+    setDoubles0(pos, values, order);
+    return this;
+  }
+
   /**
    * Sets the {@code float} at position {@code pos} in the Buffer to the value {@code f}.<p>
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setFloat(int pos, float f) {
+    checkWritable();
     ensureWritable(pos, 4);
     buffer.setFloat(pos, f);
     return this;
@@ -375,6 +747,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setShort(int pos, short s) {
+    checkWritable();
     ensureWritable(pos, 2);
     buffer.setShort(pos, s);
     return this;
@@ -385,6 +758,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setBuffer(int pos, Buffer b) {
+    checkWritable();
     ensureWritable(pos, b.length());
     buffer.setBytes(pos, b.getByteBuf());
     return this;
@@ -395,6 +769,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setBuffer(int pos, Buffer b, int offset, int len) {
+    checkWritable();
     ensureWritable(pos, len);
     buffer.setBytes(pos, b.getByteBuf(), offset, len);
     return this;
@@ -405,6 +780,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setBytes(int pos, ByteBuffer b) {
+    checkWritable();
     ensureWritable(pos, b.limit());
     buffer.setBytes(pos, b);
     return this;
@@ -415,6 +791,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setBytes(int pos, byte[] b) {
+    checkWritable();
     ensureWritable(pos, b.length);
     buffer.setBytes(pos, b);
     return this;
@@ -426,6 +803,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setBytes(int pos, byte[] b, int offset, int len) {
+    checkWritable();
     ensureWritable(pos, len);
     buffer.setBytes(pos, b, offset, len);
     return this;
@@ -436,6 +814,7 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setString(int pos, String str) {
+    checkWritable();
     return setBytes(pos, str, CharsetUtil.UTF_8);
   }
 
@@ -444,7 +823,8 @@ public class Buffer {
    * The buffer will expand as necessary to accommodate any value written.
    */
   public Buffer setString(int pos, String str, String enc) {
-    return setBytes(pos, str, Charset.forName(enc));
+    checkWritable();
+    return setBytes(pos, str, StringCodec.charset(enc));
   }
 
   /**
@@ -459,7 +839,72 @@ public class Buffer {
    * Returns a copy of the entire Buffer.
    */
   public Buffer copy() {
-    return new Buffer(buffer.copy());
+    // Always copy to the heap, as a copy made by the allocator of a pooled Buffer would come from the pool as well
+    int len = buffer.readableBytes();
+    return new Buffer(Unpooled.buffer(len, Integer.MAX_VALUE).writeBytes(buffer, buffer.readerIndex(), len));
+  }
+
+  /**
+   * Returns a read-only view of this Buffer which shares its content, so no bytes are copied. The view has the
+   * length this Buffer has now, and sees any later changes to those bytes made through this Buffer.<p>
+   * A view of a pooled or composite Buffer holds a reference to the memory of its own, see the class documentation.
+   * If this Buffer is already read-only it is returned itself.
+   */
+  public Buffer asReadOnly() {
+    return readOnly ? this : view(Unpooled.unmodifiableBuffer(buffer.duplicate()), true);
+  }
+
+  /**
+   * Returns a read-only copy of this Buffer. Unlike the content of a view from {@link #asReadOnly}, the content of
+   * the copy can't be changed through any other Buffer, so it can be shared between threads without being copied
+   * again. If this Buffer is already such a copy, or a slice of one, it is returned itself.
+   */
+  public Buffer immutableCopy() {
+    if (immutable) {
+      return this;
+    }
+    int len = buffer.readableBytes();
+    return immutable(Unpooled.buffer(len, len).writeBytes(buffer, buffer.readerIndex(), len));
+  }
+
+  /**
+   * Returns {@code true} if this Buffer is read-only.
+   */
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  /**
+   * Returns {@code true} if this Buffer was created with {@link #immutableCopy} or {@link #immutable}, or is a slice
+   * of such a Buffer.
+   */
+  public boolean isImmutable() {
+    return immutable;
+  }
+
+  /**
+   * Returns {@code true} if this Buffer was created with {@link #composite}.
+   */
+  public boolean isComposite() {
+    return composite != null;
+  }
+
+  /**
+   * Returns {@code true} if this Buffer was created with {@link #pooled}, or is a view of such a Buffer.
+   */
+  public boolean isPooled() {
+    return pooled;
+  }
+
+  /**
+   * Release a pooled or composite Buffer, or a view of one. This must be called exactly once for such a Buffer that is
+   * not written to a stream which takes it over, and never for one that is. Any pooled memory is given back to the
+   * pool once the Buffer and all of its views have been released. It has no effect on any other Buffer.
+   *
+   * @return {@code true} if this was the last reference to the memory, so it has been freed
+   */
+  public boolean release() {
+    return refCounted && buffer.release();
   }
 
   /**
@@ -472,19 +917,113 @@ public class Buffer {
     return buffer.duplicate();
   }
 
+  // A view of a reference counted Buffer takes a reference of its own, so writing the view to a stream, which
+  // releases it, doesn't free the memory while this Buffer is still in use
+  private Buffer view(ByteBuf view, boolean readOnly) {
+    if (refCounted) {
+      view.retain();
+    }
+    return new Buffer(view, readOnly, immutable, pooled, refCounted, null);
+  }
+
   private Buffer append(String str, Charset charset) {
-    byte[] bytes = str.getBytes(charset);
-    buffer.writeBytes(bytes);
+    int len = StringCodec.encodedLength(str, charset);
+    if (len < 0) {
+      buffer.writeBytes(str.getBytes(charset));
+    } else {
+      buffer.ensureWritable(len);
+      int index = buffer.writerIndex();
+      StringCodec.encode(buffer, index, str, charset);
+      buffer.writerIndex(index + len);
+    }
     return this;
   }
 
   private Buffer setBytes(int pos, String str, Charset charset) {
-    byte[] bytes = str.getBytes(charset);
-    ensureWritable(pos, bytes.length);
-    buffer.setBytes(pos, bytes);
+    int len = StringCodec.encodedLength(str, charset);
+    if (len < 0) {
+      byte[] bytes = str.getBytes(charset);
+      ensureWritable(pos, bytes.length);
+      buffer.setBytes(pos, bytes);
+    } else {
+      ensureWritable(pos, len);
+      StringCodec.encode(buffer, pos, str, charset);
+    }
     return this;
   }
 
+  // Returns a view of the bytes at index in the given byte order, through which arrays of values can be read or written
+  // in bulk. The bytes must be in a single NIO buffer which shares the memory of this Buffer, otherwise null is
+  // returned and the values have to be accessed one at a time
+  private ByteBuffer nioView(int index, int len, ByteOrder order) {
+    if (buffer.nioBufferCount() != 1) {
+      return null;
+    }
+    return buffer.nioBuffer(index, len).order(order);
+  }
+
+  private void setInts0(int index, int[] values, ByteOrder order) {
+    ByteBuffer view = nioView(index, values.length * 4, order);
+    if (view != null) {
+      view.asIntBuffer().put(values);
+    } else {
+      boolean swap = order != ByteOrder.BIG_ENDIAN;
+      for (int i = 0; i < values.length; i++) {
+        int v = values[i];
+        buffer.setInt(index + i * 4, swap ? Integer.reverseBytes(v) : v);
+      }
+    }
+  }
+
+  private void setLongs0(int index, long[] values, ByteOrder order) {
+    ByteBuffer view = nioView(index, values.length * 8, order);
+    if (view != null) {
+      view.asLongBuffer().put(values);
+    } else {
+      boolean swap = order != ByteOrder.BIG_ENDIAN;
+      for (int i = 0; i < values.length; i++) {
+        long v = values[i];
+        buffer.setLong(index + i * 8, swap ? Long.reverseBytes(v) : v);
+      }
+    }
+  }
+
+  private void setDoubles0(int index, double[] values, ByteOrder order) {
+    ByteBuffer view = nioView(index, values.length * 8, order);
+    if (view != null) {
+      view.asDoubleBuffer().put(values);
+    } else {
+      boolean swap = order != ByteOrder.BIG_ENDIAN;
+      for (int i = 0; i < values.length; i++) {
+        long v = Double.doubleToRawLongBits(values[i]);
+        buffer.setLong(index + i * 8, swap ? Long.reverseBytes(v) : v);
+      }
+    }
+  }
+
+  private void addComponent(ByteBuf buf) {
+    int len = buf.readableBytes();
+    if (len == 0) {
+      return;
+    }
+    // Trim any spare capacity left by earlier writes first, otherwise the component would be added after it
+    composite.capacity(composite.writerIndex());
+    composite.addComponent(buf);
+    composite.writerIndex(composite.writerIndex() + len);
+  }
+
+  private void checkReadable(int pos, int len) {
+    if (pos < 0 || pos + len > buffer.writerIndex()) {
+      throw new IndexOutOfBoundsException("pos: " + pos + ", length: " + len + " (buffer length: " + buffer.writerIndex() + ')');
+    }
+  }
+
+  private void checkWritable() {
+    if (readOnly) {
+      throw new ReadOnlyBufferException();
+    }
+  }
+
   private void ensureWritable(int pos, int len) {
     int ni = pos + len;
     int cap = buffer.capacity();
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.CharsetUtil;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Encodes Strings into, and decodes them from, the {@code ByteBuf} of a {@link Buffer}.
+ *
+ * UTF-8, US-ASCII and ISO-8859-1 are encoded straight into the {@code ByteBuf}, rather than into a temporary
+ * {@code byte[]} which is then copied. Unmappable and malformed characters are replaced in the same way as
+ * {@link String#getBytes(Charset)} does. Other charsets go through {@code String.getBytes}.
+ *
+ * When decoding, a heap {@code ByteBuf} is decoded straight from its backing array. Direct and composite ones are
+ * decoded byte by byte into a per thread scratch array as long as they only hold single byte characters, and
+ * otherwise by Netty.
+ */
+final class StringCodec {
+
+  private static final ConcurrentMap<String, Charset> charsets = new ConcurrentHashMap<>();
+
+  private static final int MAX_SCRATCH_SIZE = 1024;
+  private static final ThreadLocal<char[]> scratch = new ThreadLocal<char[]>() {
+    protected char[] initialValue() {
+      return new char[MAX_SCRATCH_SIZE];
+    }
+  };
+
+  private StringCodec() {
+  }
+
+  /**
+   * Look up a charset by name, without going through {@link Charset#forName} each time.
+   */
+  static Charset charset(String enc) {
+    Charset cs = charsets.get(enc);
+    if (cs == null) {
+      cs = Charset.forName(enc);
+      charsets.putIfAbsent(enc, cs);
+    }
+    return cs;
+  }
+
+  /**
+   * @return the number of bytes {@code str} encodes to, or -1 if it can only be found by encoding it
+   */
+  static int encodedLength(String str, Charset cs) {
+    if (CharsetUtil.UTF_8.equals(cs)) {
+      return utf8Length(str);
+    } else if (CharsetUtil.US_ASCII.equals(cs) || CharsetUtil.ISO_8859_1.equals(cs)) {
+      return singleByteLength(str);
+    } else {
+      return -1;
+    }
+  }
+
+  /**
+   * Encode {@code str} into {@code buf} at {@code index}, which must have room for the number of bytes returned by
+   * {@link #encodedLength}.
+   */
+  static void encode(ByteBuf buf, int index, String str, Charset cs) {
+    if (CharsetUtil.UTF_8.equals(cs)) {
+      if (buf.hasArray()) {
+        encodeUtf8(buf.array(), buf.arrayOffset() + index, str);
+      } else {
+        encodeUtf8(buf, index, str);
+      }
+    } else {
+      char max = CharsetUtil.US_ASCII.equals(cs) ? (char) 0x7F : (char) 0xFF;
+      if (buf.hasArray()) {
+        encodeSingleByte(buf.array(), buf.arrayOffset() + index, str, max);
+      } else {
+        encodeSingleByte(buf, index, str, max);
+      }
+    }
+  }
+
+  static String decode(ByteBuf buf, int start, int end, Charset cs) {
+    int len = end - start;
+    if (start < 0 || len < 0 || end > buf.capacity()) {
+      throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + " (capacity: " + buf.capacity() + ')');
+    }
+    if (len == 0) {
+      return "";
+    }
+    if (buf.hasArray()) {
+      return new String(buf.array(), buf.arrayOffset() + start, len, cs);
+    }
+    if (len <= MAX_SCRATCH_SIZE) {
+      boolean latin1 = CharsetUtil.ISO_8859_1.equals(cs);
+      if (latin1 || CharsetUtil.UTF_8.equals(cs) || CharsetUtil.US_ASCII.equals(cs)) {
+        char[] chars = scratch.get();
+        int i = 0;
+        for (; i < len; i++) {
+          byte b = buf.getByte(start + i);
+          if (b < 0 && !latin1) {
+            // Not a single byte character, so leave it to Netty
+            break;
+          }
+          chars[i] = (char) (b & 0xFF);
+        }
+        if (i == len) {
+          return new String(chars, 0, len);
+        }
+      }
+    }
+    return buf.toString(start, len, cs);
+  }
+
+  private static int utf8Length(String str) {
+    int len = str.length();
+    int bytes = len;
+    for (int i = 0; i < len; i++) {
+      char c = str.charAt(i);
+      if (c < 0x80) {
+        continue;
+      }
+      if (c < 0x800) {
+        bytes += 1;
+      } else if (Character.isSurrogate(c)) {
+        if (isSurrogatePair(str, i)) {
+          // Two chars encode to four bytes
+          bytes += 2;
+          i++;
+        }
+        // Otherwise it is replaced by a single '?'
+      } else {
+        bytes += 2;
+      }
+    }
+    return bytes;
+  }
+
+  private static int singleByteLength(String str) {
+    int len = str.length();
+    int bytes = len;
+    for (int i = 0; i < len; i++) {
+      if (isSurrogatePair(str, i)) {
+        // A pair is replaced by a single '?'
+        bytes--;
+        i++;
+      }
+    }
+    return bytes;
+  }
+
+  private static boolean isSurrogatePair(String str, int i) {
+    return Character.isHighSurrogate(str.charAt(i)) && i + 1 < str.length() &&
+        Character.isLowSurrogate(str.charAt(i + 1));
+  }
+
+  private static void encodeUtf8(byte[] arr, int pos, String str) {
+    int len = str.length();
+    for (int i = 0; i < len; i++) {
+      char c = str.charAt(i);
+      if (c < 0x80) {
+        arr[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        arr[pos++] = (byte) (0xC0 | (c >> 6));
+        arr[pos++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        if (isSurrogatePair(str, i)) {
+          int cp = Character.toCodePoint(c, str.charAt(++i));
+          arr[pos++] = (byte) (0xF0 | (cp >> 18));
+          arr[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+          arr[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+          arr[pos++] = (byte) (0x80 | (cp & 0x3F));
+        } else {
+          arr[pos++] = '?';
+        }
+      } else {
+        arr[pos++] = (byte) (0xE0 | (c >> 12));
+        arr[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        arr[pos++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  private static void encodeUtf8(ByteBuf buf, int pos, String str) {
+    int len = str.length();
+    for (int i = 0; i < len; i++) {
+      char c = str.charAt(i);
+      if (c < 0x80) {
+        buf.setByte(pos++, c);
+      } else if (c < 0x800) {
+        buf.setByte(pos++, 0xC0 | (c >> 6));
+        buf.setByte(pos++, 0x80 | (c & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        if (isSurrogatePair(str, i)) {
+          int cp = Character.toCodePoint(c, str.charAt(++i));
+          buf.setByte(pos++, 0xF0 | (cp >> 18));
+          buf.setByte(pos++, 0x80 | ((cp >> 12) & 0x3F));
+          buf.setByte(pos++, 0x80 | ((cp >> 6) & 0x3F));
+          buf.setByte(pos++, 0x80 | (cp & 0x3F));
+        } else {
+          buf.setByte(pos++, '?');
+        }
+      } else {
+        buf.setByte(pos++, 0xE0 | (c >> 12));
+        buf.setByte(pos++, 0x80 | ((c >> 6) & 0x3F));
+        buf.setByte(pos++, 0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  private static void encodeSingleByte(byte[] arr, int pos, String str, char max) {
+    int len = str.length();
+    for (int i = 0; i < len; i++) {
+      char c = str.charAt(i);
+      if (c <= max) {
+        arr[pos++] = (byte) c;
+      } else {
+        if (isSurrogatePair(str, i)) {
+          i++;
+        }
+        arr[pos++] = '?';
+      }
+    }
+  }
+
+  private static void encodeSingleByte(ByteBuf buf, int pos, String str, char max) {
+    int len = str.length();
+    for (int i = 0; i < len; i++) {
+      char c = str.charAt(i);
+      if (c <= max) {
+        buf.setByte(pos++, c);
+      } else {
+        if (isSurrogatePair(str, i)) {
+          i++;
+        }
+        buf.setByte(pos++, '?');
+      }
+    }
+  }
+}
@@ -48,11 +48,14 @@ final class DatagramServerHandler extends VertxHandler<DefaultDatagramSocket> {
   @Override
   protected void channelRead(final DefaultDatagramSocket server, final DefaultContext context, ChannelHandlerContext chctx, final Object msg) throws Exception {
     if (context.isOnCorrectWorker(chctx.channel().eventLoop())) {
+      long token = context.startTask();
       try {
         vertx.setContext(context);
         server.handleMessage((org.vertx.java.core.datagram.DatagramPacket) msg);
       } catch (Throwable t) {
         context.reportException(t);
+      } finally {
+        context.endTask(token);
       }
     } else {
       context.execute(new Runnable() {
@@ -20,7 +20,6 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.channel.socket.InternetProtocolFamily;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import org.vertx.java.core.AsyncResult;
 import org.vertx.java.core.Handler;
 import org.vertx.java.core.buffer.Buffer;
@@ -28,6 +27,7 @@ import org.vertx.java.core.datagram.DatagramSocket;
 import org.vertx.java.core.impl.DefaultFutureResult;
 import org.vertx.java.core.impl.VertxInternal;
 import org.vertx.java.core.net.impl.ConnectionBase;
+import org.vertx.java.core.net.impl.NativeTransport;
 
 import java.net.*;
 
@@ -379,28 +379,31 @@ public class DefaultDatagramSocket extends ConnectionBase
     return (DatagramChannel) channel;
   }
 
-  private static NioDatagramChannel createChannel(org.vertx.java.core.datagram.InternetProtocolFamily family) {
+  private static DatagramChannel createChannel(org.vertx.java.core.datagram.InternetProtocolFamily family) {
     if (family == null) {
-      return new NioDatagramChannel();
+      return NativeTransport.datagramChannel(null);
     }
     switch (family) {
       case IPv4:
-        return new NioDatagramChannel(InternetProtocolFamily.IPv4);
+        return NativeTransport.datagramChannel(InternetProtocolFamily.IPv4);
       case IPv6:
-        return new NioDatagramChannel(InternetProtocolFamily.IPv6);
+        return NativeTransport.datagramChannel(InternetProtocolFamily.IPv6);
       default:
-        return new NioDatagramChannel();
+        return NativeTransport.datagramChannel(null);
     }
   }
 
 
   private void notifyException(final Handler<AsyncResult<DatagramSocket>> handler, final Throwable cause) {
     if (context.isOnCorrectWorker(channel().eventLoop())) {
+      long token = context.startTask();
       try {
         vertx.setContext(context);
         handler.handle(new DefaultFutureResult<DatagramSocket>(cause));
       } catch (Throwable t) {
         context.reportException(t);
+      } finally {
+        context.endTask(token);
       }
     } else {
       context.execute(new Runnable() {
@@ -18,7 +18,6 @@ package org.vertx.java.core.dns.impl;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
 import io.netty.channel.socket.DatagramChannel;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import org.vertx.java.core.AsyncResult;
 import org.vertx.java.core.Handler;
 import org.vertx.java.core.dns.*;
@@ -30,6 +29,7 @@ import org.vertx.java.core.dns.impl.netty.decoder.record.ServiceRecord;
 import org.vertx.java.core.impl.DefaultContext;
 import org.vertx.java.core.impl.DefaultFutureResult;
 import org.vertx.java.core.impl.VertxInternal;
+import org.vertx.java.core.net.impl.NativeTransport;
 import org.vertx.java.core.net.impl.PartialPooledByteBufAllocator;
 
 import java.net.*;
@@ -58,7 +58,7 @@ public final class DefaultDnsClient implements DnsClient {
     this.vertx = vertx;
     bootstrap = new Bootstrap();
     bootstrap.group(actualCtx.getEventLoop());
-    bootstrap.channel(NioDatagramChannel.class);
+    bootstrap.channel(NativeTransport.datagramChannelType());
     bootstrap.option(ChannelOption.ALLOCATOR, PartialPooledByteBufAllocator.INSTANCE);
     bootstrap.handler(new ChannelInitializer<DatagramChannel>() {
       @Override
@@ -276,6 +276,7 @@ public final class DefaultDnsClient implements DnsClient {
       return;
     }
     if (actualCtx.isOnCorrectWorker(loop)) {
+      long token = actualCtx.startTask();
       try {
         vertx.setContext(actualCtx);
         if (result instanceof Throwable) {
@@ -285,6 +286,8 @@ public final class DefaultDnsClient implements DnsClient {
         }
       } catch (Throwable t) {
         actualCtx.reportException(t);
+      } finally {
+        actualCtx.endTask(token);
       }
     } else {
       actualCtx.execute(new Runnable() {
@@ -28,6 +28,7 @@ import org.vertx.java.core.eventbus.ReplyFailure;
 import org.vertx.java.core.impl.Closeable;
 import org.vertx.java.core.impl.DefaultContext;
 import org.vertx.java.core.impl.DefaultFutureResult;
+import org.vertx.java.core.impl.ResourceUsage;
 import org.vertx.java.core.impl.VertxInternal;
 import org.vertx.java.core.impl.management.ManagementRegistry;
 import org.vertx.java.core.json.JsonArray;
@@ -940,6 +941,10 @@ public class DefaultEventBus implements EventBus {
         // before it was received
         try {
           if (!holder.removed) {
+            ResourceUsage usage = holder.context.getResourceUsage();
+            if (usage != null) {
+              usage.eventBusMessageHandled();
+            }
             holder.handler.handle(copied);
           }
         } finally {
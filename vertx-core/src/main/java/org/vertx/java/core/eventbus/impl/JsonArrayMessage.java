@@ -16,7 +16,6 @@
 
 package org.vertx.java.core.eventbus.impl;
 
-import io.netty.util.CharsetUtil;
 import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.eventbus.Message;
 import org.vertx.java.core.json.JsonArray;
@@ -26,7 +25,7 @@ import org.vertx.java.core.json.JsonArray;
  */
 class JsonArrayMessage extends BaseMessage<JsonArray> {
 
-  private byte[] encoded;
+  private Buffer encoded;
 
   JsonArrayMessage(boolean send, String address, JsonArray body) {
     super(send, address, body);
@@ -50,9 +49,7 @@ class JsonArrayMessage extends BaseMessage<JsonArray> {
       pos++;
       int strLength = readBuff.getInt(pos);
       pos += 4;
-      byte[] bytes = readBuff.getBytes(pos, pos + strLength);
-      String str = new String(bytes, CharsetUtil.UTF_8);
-      body = new JsonArray(str);
+      body = new JsonArray(readBuff.slice(pos, pos + strLength));
     }
   }
 
@@ -62,8 +59,8 @@ class JsonArrayMessage extends BaseMessage<JsonArray> {
       buff.appendByte((byte)0);
     } else {
       buff.appendByte((byte)1);
-      buff.appendInt(encoded.length);
-      buff.appendBytes(encoded);
+      buff.appendInt(encoded.length());
+      buff.appendBuffer(encoded);
     }
   }
 
@@ -72,9 +69,8 @@ class JsonArrayMessage extends BaseMessage<JsonArray> {
     if (body == null) {
       return 1;
     } else {
-      String strJson = body.encode();
-      encoded = strJson.getBytes(CharsetUtil.UTF_8);
-      return 1 + 4 + encoded.length;
+      encoded = body.encodeToBuffer();
+      return 1 + 4 + encoded.length();
     }
   }
 
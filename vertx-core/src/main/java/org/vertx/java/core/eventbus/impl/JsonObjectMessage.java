@@ -16,7 +16,6 @@
 
 package org.vertx.java.core.eventbus.impl;
 
-import io.netty.util.CharsetUtil;
 import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.eventbus.Message;
 import org.vertx.java.core.json.JsonObject;
@@ -26,7 +25,7 @@ import org.vertx.java.core.json.JsonObject;
  */
 public class JsonObjectMessage extends BaseMessage<JsonObject> {
 
-  private byte[] encoded;
+  private Buffer encoded;
 
   public JsonObjectMessage(boolean send, String address, JsonObject body) {
     super(send, address, body);
@@ -50,9 +49,8 @@ public class JsonObjectMessage extends BaseMessage<JsonObject> {
       pos++;
       int strLength = readBuff.getInt(pos);
       pos += 4;
-      byte[] bytes = readBuff.getBytes(pos, pos + strLength);
-      String str = new String(bytes, CharsetUtil.UTF_8);
-      body = new JsonObject(str);
+      // Decode lazily, so a message which is just passed on is never fully decoded
+      body = new JsonObject(readBuff.slice(pos, pos + strLength), true);
     }
   }
 
@@ -62,8 +60,8 @@ public class JsonObjectMessage extends BaseMessage<JsonObject> {
       buff.appendByte((byte)0);
     } else {
       buff.appendByte((byte)1);
-      buff.appendInt(encoded.length);
-      buff.appendBytes(encoded);
+      buff.appendInt(encoded.length());
+      buff.appendBuffer(encoded);
     }
   }
 
@@ -72,9 +70,8 @@ public class JsonObjectMessage extends BaseMessage<JsonObject> {
     if (body == null) {
       return 1;
     } else {
-      String strJson = body.encode();
-      encoded = strJson.getBytes(CharsetUtil.UTF_8);
-      return 1 + 4 + encoded.length;
+      encoded = body.encodeToBuffer();
+      return 1 + 4 + encoded.length();
     }
   }
 
@@ -119,4 +119,16 @@ public interface HttpServer extends ServerSSLSupport<HttpServer>, ServerTCPSuppo
    * Get the  maximum websocket frame size in bytes.
    */
   int getMaxWebSocketFrameSize();
+
+  /**
+   * Responses written while requests are being read from a connection are flushed together once the read is done.
+   * Sets the number of bytes after which they are flushed anyway. Default is 65536 bytes.
+   * @param bytes The number of bytes
+   */
+  HttpServer setFlushThreshold(int bytes);
+
+  /**
+   * Get the number of bytes after which responses are flushed before a read is done.
+   */
+  int getFlushThreshold();
 }
@@ -35,21 +35,27 @@ import java.util.regex.Pattern;
  * parameters do not have a name, so they are put into the HTTP request with names of param0, param1, param2 etc.<p>
  * Multiple matches can be specified for each HTTP verb. In the case there are more than one matching patterns for
  * a particular request, the first matching one will be used.<p>
+ * Simple patterns whose parameters are whole path segments, and whose other segments have no regular expression
+ * characters in them, are looked up in a tree of path segments, so the time taken to find them doesn't grow with the
+ * number of routes. Other patterns, and regular expressions, are matched one by one.<p>
  * Instances of this class are not thread-safe<p>
  *
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
 public class RouteMatcher implements Handler<HttpServerRequest> {
 
-  private final List<PatternBinding> getBindings = new ArrayList<>();
-  private final List<PatternBinding> putBindings = new ArrayList<>();
-  private final List<PatternBinding> postBindings = new ArrayList<>();
-  private final List<PatternBinding> deleteBindings = new ArrayList<>();
-  private final List<PatternBinding> optionsBindings = new ArrayList<>();
-  private final List<PatternBinding> headBindings = new ArrayList<>();
-  private final List<PatternBinding> traceBindings = new ArrayList<>();
-  private final List<PatternBinding> connectBindings = new ArrayList<>();
-  private final List<PatternBinding> patchBindings = new ArrayList<>();
+  private static final Pattern PARAM_SEGMENT = Pattern.compile(":[A-Za-z][A-Za-z0-9_]*");
+  private static final String REGEX_CHARS = "\\^$.|?*+()[]{}";
+
+  private final Bindings getBindings = new Bindings();
+  private final Bindings putBindings = new Bindings();
+  private final Bindings postBindings = new Bindings();
+  private final Bindings deleteBindings = new Bindings();
+  private final Bindings optionsBindings = new Bindings();
+  private final Bindings headBindings = new Bindings();
+  private final Bindings traceBindings = new Bindings();
+  private final Bindings connectBindings = new Bindings();
+  private final Bindings patchBindings = new Bindings();
   private Handler<HttpServerRequest> noMatchHandler;
 
   @Override
@@ -311,7 +317,7 @@ public class RouteMatcher implements Handler<HttpServerRequest> {
   }
 
 
-  private static void addPattern(String input, Handler<HttpServerRequest> handler, List<PatternBinding> bindings) {
+  private static void addPattern(String input, Handler<HttpServerRequest> handler, Bindings bindings) {
     // We need to search for any :<token name> tokens in the String and replace them with named capture groups
     Matcher m =  Pattern.compile(":([A-Za-z][A-Za-z0-9_]*)").matcher(input);
     StringBuffer sb = new StringBuffer();
@@ -325,19 +331,52 @@ public class RouteMatcher implements Handler<HttpServerRequest> {
       groups.add(group);
     }
     m.appendTail(sb);
-    String regex = sb.toString();
-    PatternBinding binding = new PatternBinding(Pattern.compile(regex), groups, handler);
-    bindings.add(binding);
+    String[] segments = input.split("/", -1);
+    if (isSimple(segments)) {
+      bindings.addToTree(segments, handler);
+    } else {
+      String regex = sb.toString();
+      bindings.add(new PatternBinding(Pattern.compile(regex), groups, handler));
+    }
   }
 
-  private static void addRegEx(String input, Handler<HttpServerRequest> handler, List<PatternBinding> bindings) {
+  private static void addRegEx(String input, Handler<HttpServerRequest> handler, Bindings bindings) {
     PatternBinding binding = new PatternBinding(Pattern.compile(input), null, handler);
     bindings.add(binding);
   }
 
-  private void route(HttpServerRequest request, List<PatternBinding> bindings) {
-    for (PatternBinding binding: bindings) {
-      Matcher m = binding.pattern.matcher(request.path());
+  /*
+  Whether each segment of a pattern is either a parameter or literal text, so it can go in the tree
+   */
+  private static boolean isSimple(String[] segments) {
+    for (String segment : segments) {
+      if (PARAM_SEGMENT.matcher(segment).matches()) {
+        continue;
+      }
+      for (int i = 0; i < segment.length(); i++) {
+        char c = segment.charAt(i);
+        if (REGEX_CHARS.indexOf(c) != -1 || (c == ':' && i + 1 < segment.length() &&
+            isLetter(segment.charAt(i + 1)))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+
+  private void route(HttpServerRequest request, Bindings bindings) {
+    String path = request.path();
+    TreeBinding treeBinding = bindings.findInTree(path);
+    // A regular expression registered before the route found in the tree takes precedence
+    for (PatternBinding binding: bindings.bindings) {
+      if (treeBinding != null && binding.order > treeBinding.order) {
+        break;
+      }
+      Matcher m = binding.pattern.matcher(path);
       if (m.matches()) {
         Map<String, String> params = new HashMap<>(m.groupCount());
         if (binding.paramNames != null) {
@@ -356,6 +395,20 @@ public class RouteMatcher implements Handler<HttpServerRequest> {
         return;
       }
     }
+    if (treeBinding != null) {
+      if (treeBinding.paramNames != null) {
+        String[] segments = path.split("/", -1);
+        Map<String, String> params = new HashMap<>(treeBinding.paramNames.length);
+        for (int i = 0; i < segments.length; i++) {
+          if (treeBinding.paramNames[i] != null) {
+            params.put(treeBinding.paramNames[i], segments[i]);
+          }
+        }
+        request.params().add(params);
+      }
+      treeBinding.handler.handle(request);
+      return;
+    }
     if (noMatchHandler != null) {
       noMatchHandler.handle(request);
     } else {
@@ -365,10 +418,104 @@ public class RouteMatcher implements Handler<HttpServerRequest> {
     }
   }
 
+  /*
+  The routes for an HTTP method. Simple patterns go in a tree of path segments, everything else in a list, and the
+  order they were added in is kept so the first one which matches can be found.
+   */
+  private static class Bindings {
+    final List<PatternBinding> bindings = new ArrayList<>();
+    final Node root = new Node();
+    int order;
+
+    void add(PatternBinding binding) {
+      binding.order = order++;
+      bindings.add(binding);
+    }
+
+    void addToTree(String[] segments, Handler<HttpServerRequest> handler) {
+      String[] paramNames = new String[segments.length];
+      boolean hasParams = false;
+      Node node = root;
+      for (int i = 0; i < segments.length; i++) {
+        String segment = segments[i];
+        if (PARAM_SEGMENT.matcher(segment).matches()) {
+          paramNames[i] = segment.substring(1);
+          hasParams = true;
+          if (node.param == null) {
+            node.param = new Node();
+          }
+          node = node.param;
+        } else {
+          if (node.literals == null) {
+            node.literals = new HashMap<>();
+          }
+          Node child = node.literals.get(segment);
+          if (child == null) {
+            child = new Node();
+            node.literals.put(segment, child);
+          }
+          node = child;
+        }
+      }
+      int bindingOrder = order++;
+      if (node.binding == null) {
+        // Otherwise an earlier route with the same pattern always matches first
+        node.binding = new TreeBinding(hasParams ? paramNames : null, handler, bindingOrder);
+      }
+    }
+
+    TreeBinding findInTree(String path) {
+      if (root.literals == null && root.param == null) {
+        return null;
+      }
+      return find(root, path.split("/", -1), 0, null);
+    }
+
+    /*
+    Both a literal segment and a parameter can match, so both have to be searched for the earliest route
+     */
+    private static TreeBinding find(Node node, String[] segments, int pos, TreeBinding best) {
+      if (pos == segments.length) {
+        TreeBinding binding = node.binding;
+        return binding != null && (best == null || binding.order < best.order) ? binding : best;
+      }
+      String segment = segments[pos];
+      if (node.literals != null) {
+        Node child = node.literals.get(segment);
+        if (child != null) {
+          best = find(child, segments, pos + 1, best);
+        }
+      }
+      if (node.param != null && !segment.isEmpty()) {
+        best = find(node.param, segments, pos + 1, best);
+      }
+      return best;
+    }
+  }
+
+  private static class Node {
+    Map<String, Node> literals;
+    Node param;
+    TreeBinding binding;
+  }
+
+  private static class TreeBinding {
+    final String[] paramNames;      // The parameter for each segment, or null if it's literal, or no array if none are
+    final Handler<HttpServerRequest> handler;
+    final int order;
+
+    private TreeBinding(String[] paramNames, Handler<HttpServerRequest> handler, int order) {
+      this.paramNames = paramNames;
+      this.handler = handler;
+      this.order = order;
+    }
+  }
+
   private static class PatternBinding {
     final Pattern pattern;
     final Handler<HttpServerRequest> handler;
     final Set<String> paramNames;
+    int order;
 
     private PatternBinding(Pattern pattern, Set<String> paramNames, Handler<HttpServerRequest> handler) {
       this.pattern = pattern;
@@ -0,0 +1,529 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.MultiMap;
+import org.vertx.java.core.Vertx;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.file.FileSystemException;
+import org.vertx.java.core.file.impl.PathAdjuster;
+import org.vertx.java.core.http.impl.MimeMapping;
+import org.vertx.java.core.impl.BlockingAction;
+import org.vertx.java.core.impl.VertxInternal;
+import org.vertx.java.core.logging.Logger;
+import org.vertx.java.core.logging.impl.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class serves static files from a directory, keeping small files which are requested often in memory.<p>
+ * Each file is served with an {@code ETag} and a {@code Last-Modified} header, and requests with matching
+ * {@code If-None-Match} or {@code If-Modified-Since} headers get a 304 response. If a file has a sibling with the same
+ * name plus {@code .gz}, that is served instead to clients which accept gzip encoding.<p>
+ * Files up to {@link #setMaxCachedFileSize(int)} bytes are cached in direct buffers, up to a total of
+ * {@link #setMaxCacheSize(long)} bytes, beyond which the least recently used ones are dropped. Cached files, and
+ * conditional requests for them, are served without touching the disk. Files which aren't cached yet are read on
+ * a worker thread, so the event loop doesn't wait for the disk. Larger files are sent with
+ * {@link HttpServerResponse#sendFile(String)}. The directories of the files are watched, so files which are changed
+ * on disk are read again. Requests for files which don't exist are remembered for a second, so repeating them doesn't
+ * touch the disk either.<p>
+ * A request for a directory is served its index page, which is {@code index.html} by default. Only GET and HEAD
+ * requests are served.<p>
+ * Instances of this class are not thread-safe, apart from {@link #close()}<p>
+ */
+public class StaticFileHandler implements Handler<HttpServerRequest> {
+
+  private static final Logger log = LoggerFactory.getLogger(StaticFileHandler.class);
+
+  public static final long DEFAULT_MAX_CACHE_SIZE = 16 * 1024 * 1024;
+  public static final int DEFAULT_MAX_CACHED_FILE_SIZE = 256 * 1024;
+
+  // Stands for all paths, when the watcher has missed some changes
+  private static final Path ALL = Paths.get("");
+  // How long a path which wasn't found is remembered for, and how many are
+  private static final long MISSING_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+  private static final int MAX_MISSING = 1024;
+
+  private final VertxInternal vertx;
+  private final Path root;
+  private final Map<Path, CachedFile> cache = new LinkedHashMap<>(16, 0.75f, true);   // Least recently used first
+  private final Map<Path, Long> missing = new LinkedHashMap<Path, Long>() {   // Path to when it was looked for
+    protected boolean removeEldestEntry(Map.Entry<Path, Long> eldest) {
+      return size() > MAX_MISSING;
+    }
+  };
+  private final Set<Path> watchedDirs = new HashSet<>();
+  private final Queue<Path> changes = new ConcurrentLinkedQueue<>();
+  private final SimpleDateFormat dateFormat;
+  private long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+  private int maxCachedFileSize = DEFAULT_MAX_CACHED_FILE_SIZE;
+  private String indexPage = "index.html";
+  private long cacheSize;
+  private long changesSeen;
+  private WatchService watcher;
+  private volatile boolean closed;
+
+  /**
+   * @param webRoot The directory to serve files from
+   */
+  public StaticFileHandler(Vertx vertx, String webRoot) {
+    this.vertx = (VertxInternal) vertx;
+    this.root = Paths.get(PathAdjuster.adjust(this.vertx, webRoot)).toAbsolutePath().normalize();
+    dateFormat = dateFormat();
+  }
+
+  private static SimpleDateFormat dateFormat() {
+    SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+    format.setTimeZone(TimeZone.getTimeZone("GMT"));
+    return format;
+  }
+
+  /**
+   * Set the maximum number of bytes of files to keep in memory. Default is 16MB.
+   */
+  public StaticFileHandler setMaxCacheSize(long maxCacheSize) {
+    if (maxCacheSize < 0) {
+      throw new IllegalArgumentException("Max cache size must be >= 0");
+    }
+    this.maxCacheSize = maxCacheSize;
+    return this;
+  }
+
+  /**
+   * Set the size in bytes of the largest file to keep in memory. Default is 256KB.
+   */
+  public StaticFileHandler setMaxCachedFileSize(int maxCachedFileSize) {
+    if (maxCachedFileSize < 0) {
+      throw new IllegalArgumentException("Max cached file size must be >= 0");
+    }
+    this.maxCachedFileSize = maxCachedFileSize;
+    return this;
+  }
+
+  /**
+   * Set the name of the file which is served for a directory. Default is {@code index.html}.
+   */
+  public StaticFileHandler setIndexPage(String indexPage) {
+    this.indexPage = indexPage;
+    return this;
+  }
+
+  @Override
+  public void handle(final HttpServerRequest req) {
+    applyChanges();
+    HttpServerResponse resp = req.response();
+    boolean head = "HEAD".equals(req.method());
+    if (!head && !"GET".equals(req.method())) {
+      resp.setStatusCode(HttpResponseStatus.METHOD_NOT_ALLOWED.code());
+      resp.putHeader(HttpHeaders.ALLOW, "GET, HEAD");
+      resp.end();
+      return;
+    }
+    final Path path = resolve(req.path());
+    CachedFile file = path == null ? null : cache.get(path);
+    if (file != null) {
+      send(req, file);
+    } else if (path == null || isMissing(path)) {
+      notFound(resp);
+    } else {
+      // Read the file on a worker, so a slow disk doesn't hold up the event loop
+      final long changesBefore = changesSeen;
+      new BlockingAction<CachedFile>(vertx, new Handler<AsyncResult<CachedFile>>() {
+        public void handle(AsyncResult<CachedFile> ar) {
+          loaded(req, path, ar, changesBefore);
+        }
+      }) {
+        public CachedFile action() {
+          try {
+            return load(path);
+          } catch (IOException e) {
+            throw new FileSystemException(e);
+          }
+        }
+      }.run();
+    }
+  }
+
+  /**
+   * Stop watching for changes to files, and drop the cached files.
+   */
+  public void close() {
+    closed = true;
+    synchronized (this) {
+      if (watcher != null) {
+        try {
+          watcher.close();
+        } catch (IOException ignore) {
+        }
+      }
+    }
+    changes.add(ALL);
+  }
+
+  /*
+  The file for a request path, as long as it's under the root
+   */
+  private Path resolve(String requestPath) {
+    try {
+      String decoded = QueryStringDecoder.decodeComponent(requestPath);
+      while (decoded.startsWith("/")) {
+        decoded = decoded.substring(1);
+      }
+      Path path = root.resolve(decoded).normalize();
+      return path.startsWith(root) ? path : null;
+    } catch (IllegalArgumentException e) {
+      // Either badly encoded or not a valid path
+      return null;
+    }
+  }
+
+  private void loaded(HttpServerRequest req, Path path, AsyncResult<CachedFile> ar, long changesBefore) {
+    applyChanges();
+    if (ar.failed()) {
+      Throwable cause = ar.cause().getCause();
+      if (cause instanceof NoSuchFileException || cause instanceof NotDirectoryException) {
+        // Deleted while it was being read
+        missing.put(path, System.nanoTime());
+        notFound(req.response());
+      } else {
+        log.error("Failed to read " + path, ar.cause());
+        req.response().setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code());
+        req.response().end();
+      }
+      return;
+    }
+    CachedFile file = ar.result();
+    CachedFile cached = cache.get(path);
+    if (file == null) {
+      missing.put(path, System.nanoTime());
+      notFound(req.response());
+    } else if (cached != null) {
+      // Another request loaded it first
+      file.release();
+      send(req, cached);
+    } else if (closed || changesSeen != changesBefore) {
+      // It might have changed after it was read, so it's only used for this request
+      send(req, file);
+      file.release();
+    } else {
+      send(req, cache(path, file));
+    }
+  }
+
+  private void send(HttpServerRequest req, CachedFile file) {
+    HttpServerResponse resp = req.response();
+    Variant variant = file.gzip != null && acceptsGzip(req.headers().get(HttpHeaders.ACCEPT_ENCODING)) ?
+        file.gzip : file.plain;
+    resp.putHeader(HttpHeaders.ETAG, variant.etag);
+    resp.putHeader(HttpHeaders.LAST_MODIFIED, variant.lastModifiedHeader);
+    if (file.gzip != null) {
+      resp.putHeader("Vary", "Accept-Encoding");
+    }
+    if (notModified(req.headers(), variant)) {
+      resp.setStatusCode(HttpResponseStatus.NOT_MODIFIED.code());
+      resp.end();
+      return;
+    }
+    if (file.contentType != null) {
+      resp.putHeader(HttpHeaders.CONTENT_TYPE, file.contentType);
+    }
+    if (variant == file.gzip) {
+      resp.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    if ("HEAD".equals(req.method())) {
+      resp.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(variant.length));
+      resp.end();
+    } else if (variant.content != null) {
+      // The write gives back a reference of its own once it's done, so the content stays valid until then even if
+      // it's dropped from the cache
+      resp.end(Buffer.retained(variant.content.duplicate().retain()));
+    } else {
+      resp.sendFile(variant.path.toString());
+    }
+  }
+
+  private static void notFound(HttpServerResponse resp) {
+    resp.setStatusCode(HttpResponseStatus.NOT_FOUND.code());
+    resp.end();
+  }
+
+  private boolean isMissing(Path path) {
+    Long time = missing.get(path);
+    if (time == null) {
+      return false;
+    }
+    if (System.nanoTime() - time < MISSING_TIMEOUT) {
+      return true;
+    }
+    missing.remove(path);
+    return false;
+  }
+
+  /*
+  Runs on a worker
+   */
+  private CachedFile load(Path path) throws IOException {
+    Path file = path;
+    if (Files.isDirectory(file)) {
+      file = file.resolve(indexPage);
+    }
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    // Watch before reading, so a change made while reading isn't missed
+    watch(file.getParent());
+    Variant plain = loadVariant(file);
+    if (plain == null) {
+      return null;
+    }
+    Variant gzip = loadVariant(file.resolveSibling(file.getFileName() + ".gz"));
+    String name = file.getFileName().toString();
+    int li = name.lastIndexOf('.');
+    String contentType = li != -1 && li != name.length() - 1 ?
+        MimeMapping.getMimeTypeForExtension(name.substring(li + 1)) : null;
+    return new CachedFile(file, contentType, plain, gzip);
+  }
+
+  private CachedFile cache(Path path, CachedFile cached) {
+    long size = cached.size();
+    if (size <= maxCacheSize) {
+      Iterator<CachedFile> iter = cache.values().iterator();
+      while (cacheSize + size > maxCacheSize && iter.hasNext()) {
+        CachedFile evicted = iter.next();
+        iter.remove();
+        release(evicted);
+      }
+      cache.put(path, cached);
+      cacheSize += size;
+    } else {
+      cached.release();
+      cached = new CachedFile(cached.file, cached.contentType, cached.plain.withoutContent(),
+          cached.gzip == null ? null : cached.gzip.withoutContent());
+      cache.put(path, cached);
+    }
+    return cached;
+  }
+
+  private Variant loadVariant(Path file) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    long lastModified = Files.getLastModifiedTime(file).toMillis();
+    long length = Files.size(file);
+    ByteBuf content = null;
+    if (length <= maxCachedFileSize) {
+      byte[] bytes = Files.readAllBytes(file);
+      length = bytes.length;
+      content = Unpooled.directBuffer(bytes.length).writeBytes(bytes);
+    }
+    String etag = '"' + Long.toHexString(lastModified) + '-' + Long.toHexString(length) + '"';
+    // Not the handler's format, which is only used on the event loop
+    String lastModifiedHeader = dateFormat().format(new Date(lastModified));
+    return new Variant(file, length, lastModified, etag, lastModifiedHeader, content);
+  }
+
+  private boolean notModified(MultiMap headers, Variant variant) {
+    String ifNoneMatch = headers.get(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch != null) {
+      for (String etag : ifNoneMatch.split(",")) {
+        etag = etag.trim();
+        if (etag.equals("*") || etag.equals(variant.etag) || etag.equals("W/" + variant.etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    String ifModifiedSince = headers.get(HttpHeaders.IF_MODIFIED_SINCE);
+    if (ifModifiedSince != null) {
+      try {
+        // Dates in headers are only accurate to the second
+        return variant.lastModified / 1000 <= dateFormat.parse(ifModifiedSince).getTime() / 1000;
+      } catch (ParseException e) {
+        // Ignore it
+      }
+    }
+    return false;
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+        for (int i = 1; i < parts.length; i++) {
+          String param = parts[i].trim();
+          if (param.startsWith("q=")) {
+            try {
+              return Float.parseFloat(param.substring(2)) > 0;
+            } catch (NumberFormatException e) {
+              return false;
+            }
+          }
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private synchronized void watch(Path dir) throws IOException {
+    if (closed || watchedDirs.contains(dir)) {
+      return;
+    }
+    if (watcher == null) {
+      watcher = dir.getFileSystem().newWatchService();
+      Thread thread = new Thread(new Watcher(watcher), "vert.x-static-file-watcher");
+      thread.setDaemon(true);
+      thread.start();
+    }
+    dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+        StandardWatchEventKinds.ENTRY_MODIFY);
+    watchedDirs.add(dir);
+  }
+
+  /*
+  Drop the cached files which have changed, so they are read again when they're next requested
+   */
+  private void applyChanges() {
+    Path changed;
+    while ((changed = changes.poll()) != null) {
+      changesSeen++;
+      if (changed == ALL) {
+        missing.clear();
+      } else {
+        missing.remove(changed);
+      }
+      Iterator<CachedFile> iter = cache.values().iterator();
+      while (iter.hasNext()) {
+        CachedFile file = iter.next();
+        if (changed == ALL || file.isAffectedBy(changed)) {
+          iter.remove();
+          release(file);
+        }
+      }
+    }
+  }
+
+  private void release(CachedFile file) {
+    cacheSize -= file.size();
+    file.release();
+  }
+
+  private class Watcher implements Runnable {
+    private final WatchService watcher;
+
+    Watcher(WatchService watcher) {
+      this.watcher = watcher;
+    }
+
+    public void run() {
+      try {
+        while (!closed) {
+          WatchKey key = watcher.take();
+          Path dir = (Path) key.watchable();
+          for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+              changes.add(ALL);
+            } else {
+              changes.add(dir.resolve((Path) event.context()));
+            }
+          }
+          key.reset();
+        }
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        // We're done
+      }
+    }
+  }
+
+  private static class CachedFile {
+    final Path file;
+    final String contentType;
+    final Variant plain;
+    final Variant gzip;
+
+    CachedFile(Path file, String contentType, Variant plain, Variant gzip) {
+      this.file = file;
+      this.contentType = contentType;
+      this.plain = plain;
+      this.gzip = gzip;
+    }
+
+    long size() {
+      return plain.size() + (gzip == null ? 0 : gzip.size());
+    }
+
+    boolean isAffectedBy(Path changed) {
+      // A .gz sibling might have been added as well as changed
+      return changed.equals(file) || changed.equals(file.resolveSibling(file.getFileName() + ".gz"));
+    }
+
+    void release() {
+      plain.release();
+      if (gzip != null) {
+        gzip.release();
+      }
+    }
+  }
+
+  private static class Variant {
+    final Path path;
+    final long length;
+    final long lastModified;
+    final String etag;
+    final String lastModifiedHeader;
+    final ByteBuf content;        // Or null if it's not cached
+
+    Variant(Path path, long length, long lastModified, String etag, String lastModifiedHeader, ByteBuf content) {
+      this.path = path;
+      this.length = length;
+      this.lastModified = lastModified;
+      this.etag = etag;
+      this.lastModifiedHeader = lastModifiedHeader;
+      this.content = content;
+    }
+
+    long size() {
+      return content == null ? 0 : content.capacity();
+    }
+
+    Variant withoutContent() {
+      return new Variant(path, length, lastModified, etag, lastModifiedHeader, null);
+    }
+
+    void release() {
+      if (content != null) {
+        content.release();
+      }
+    }
+  }
+}
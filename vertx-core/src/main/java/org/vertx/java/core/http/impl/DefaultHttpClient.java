@@ -18,7 +18,6 @@ package org.vertx.java.core.http.impl;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.concurrent.Future;
@@ -36,6 +35,7 @@ import org.vertx.java.core.impl.DefaultContext;
 import org.vertx.java.core.impl.DefaultFutureResult;
 import org.vertx.java.core.impl.VertxInternal;
 import org.vertx.java.core.net.NetSocket;
+import org.vertx.java.core.net.impl.NativeTransport;
 import org.vertx.java.core.net.impl.TCPSSLHelper;
 import org.vertx.java.core.net.impl.VertxEventLoopGroup;
 
@@ -646,7 +646,7 @@ public class DefaultHttpClient implements HttpClient {
       pool.addWorker(actualCtx.getEventLoop());
       bootstrap = new Bootstrap();
       bootstrap.group(pool);
-      bootstrap.channel(NioSocketChannel.class);
+      bootstrap.channel(NativeTransport.socketChannelType());
       tcpHelper.checkSSL(vertx);
 
       bootstrap.handler(new ChannelInitializer<Channel>() {
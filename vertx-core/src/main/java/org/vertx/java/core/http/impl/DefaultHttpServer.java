@@ -22,7 +22,6 @@ import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.ChannelGroupFuture;
 import io.netty.channel.group.ChannelGroupFutureListener;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.codec.http.websocketx.WebSocketServerHandshaker;
 import io.netty.handler.codec.http.websocketx.WebSocketServerHandshakerFactory;
@@ -79,16 +78,21 @@ public class DefaultHttpServer implements HttpServer, Closeable {
   private String serverOrigin;
   private boolean compressionSupported;
   private int maxWebSocketFrameSize = 65536;
+  private int flushThreshold = ConnectionBase.DEFAULT_FLUSH_THRESHOLD;
 
   private ChannelFuture bindFuture;
   private ServerID id;
   private DefaultHttpServer actualServer;
-  private final VertxEventLoopGroup availableWorkers = new VertxEventLoopGroup();
-  private HandlerManager<HttpServerRequest> reqHandlerManager = new HandlerManager<>(availableWorkers);
-  private HandlerManager<ServerWebSocket> wsHandlerManager = new HandlerManager<>(availableWorkers);
+  private ReusePortAcceptors reusePortAcceptors;
+  private final VertxEventLoopGroup availableWorkers;
+  private final HandlerManager<HttpServerRequest> reqHandlerManager;
+  private final HandlerManager<ServerWebSocket> wsHandlerManager;
 
   public DefaultHttpServer(VertxInternal vertx) {
     this.vertx = vertx;
+    availableWorkers = new VertxEventLoopGroup(vertx.eventLoopSelector());
+    reqHandlerManager = new HandlerManager<>(availableWorkers);
+    wsHandlerManager = new HandlerManager<>(availableWorkers);
     actualCtx = vertx.getOrCreateContext();
     actualCtx.addCloseHook(this);
     tcpHelper.setReuseAddress(true);
@@ -155,8 +159,11 @@ public class DefaultHttpServer implements HttpServer, Closeable {
       if (shared == null) {
         serverChannelGroup = new DefaultChannelGroup("vertx-acceptor-channels", GlobalEventExecutor.INSTANCE);
         ServerBootstrap bootstrap = new ServerBootstrap();
-        bootstrap.group(availableWorkers);
-        bootstrap.channel(NioServerSocketChannel.class);
+        boolean reusePort = useReusePort();
+        if (!reusePort) {
+          bootstrap.group(availableWorkers);
+        }
+        bootstrap.channel(NativeTransport.serverSocketChannelType());
         tcpHelper.applyConnectionOptions(bootstrap);
         tcpHelper.checkSSL(vertx);
         bootstrap.childHandler(new ChannelInitializer<Channel>() {
@@ -198,7 +205,14 @@ public class DefaultHttpServer implements HttpServer, Closeable {
 
         addHandlers(this);
         try {
-          bindFuture = bootstrap.bind(new InetSocketAddress(InetAddress.getByName(host), port));
+          InetSocketAddress addr = new InetSocketAddress(InetAddress.getByName(host), port);
+          if (reusePort) {
+            // Each event loop gets its own acceptor, this is the first one
+            reusePortAcceptors = new ReusePortAcceptors(bootstrap, serverChannelGroup);
+            bindFuture = reusePortAcceptors.bind(actualCtx.getEventLoop(), addr);
+          } else {
+            bindFuture = bootstrap.bind(addr);
+          }
           Channel serverChannel = bindFuture.channel();
           serverChannelGroup.add(serverChannel);
           bindFuture.addListener(new ChannelFutureListener() {
@@ -232,6 +246,9 @@ public class DefaultHttpServer implements HttpServer, Closeable {
         // Server already exists with that host/port - we will use that
         actualServer = shared;
         addHandlers(actualServer);
+        if (actualServer.reusePortAcceptors != null) {
+          actualServer.bindReusePortAcceptor(actualCtx.getEventLoop());
+        }
       }
       actualServer.bindFuture.addListener(new ChannelFutureListener() {
         @Override
@@ -261,6 +278,37 @@ public class DefaultHttpServer implements HttpServer, Closeable {
     return this;
   }
 
+  private boolean useReusePort() {
+    if (tcpHelper.isReusePort() && !NativeTransport.isNative()) {
+      log.warn("SO_REUSEPORT requires the native transport, the event loops will share a single acceptor");
+      return false;
+    }
+    return tcpHelper.isReusePort();
+  }
+
+  // Once the server is bound on its actual port, bind another acceptor on the same port for the event loop
+  private void bindReusePortAcceptor(final EventLoop eventLoop) {
+    bindFuture.addListener(new ChannelFutureListener() {
+      @Override
+      public void operationComplete(ChannelFuture future) throws Exception {
+        // The handler might have been removed in the meantime
+        if (future.isSuccess() && availableWorkers.contains(eventLoop)) {
+          ChannelFuture fut = reusePortAcceptors.bind(eventLoop, future.channel().localAddress());
+          if (fut != null) {
+            fut.addListener(new ChannelFutureListener() {
+              @Override
+              public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                  log.error("Failed to bind acceptor for " + id, future.cause());
+                }
+              }
+            });
+          }
+        }
+      }
+    });
+  }
+
   private void addHandlers(DefaultHttpServer server) {
     if (requestHandler != null) {
       server.reqHandlerManager.addHandler(requestHandler, actualCtx);
@@ -296,6 +344,11 @@ public class DefaultHttpServer implements HttpServer, Closeable {
 
         if (actualServer.reqHandlerManager.hasHandlers() || actualServer.wsHandlerManager.hasHandlers()) {
           // The actual server still has handlers so we don't actually close it
+          EventLoop eventLoop = actualCtx.getEventLoop();
+          if (actualServer.reusePortAcceptors != null && !actualServer.availableWorkers.contains(eventLoop)) {
+            // But nothing is left to handle the connections accepted on this event loop
+            actualServer.reusePortAcceptors.close(eventLoop);
+          }
           if (done != null) {
             executeCloseDone(actualCtx, done, null);
           }
@@ -410,6 +463,13 @@ public class DefaultHttpServer implements HttpServer, Closeable {
     return this;
   }
 
+  @Override
+  public HttpServer setReusePort(boolean reusePort) {
+    checkListening();
+    tcpHelper.setReusePort(reusePort);
+    return this;
+  }
+
   @Override
   public boolean isTCPNoDelay() {
     return tcpHelper.isTCPNoDelay();
@@ -451,6 +511,11 @@ public class DefaultHttpServer implements HttpServer, Closeable {
     return tcpHelper.getAcceptBacklog();
   }
 
+  @Override
+  public boolean isReusePort() {
+    return tcpHelper.isReusePort();
+  }
+
   @Override
   public boolean isSSL() {
     return tcpHelper.isSSL();
@@ -516,6 +581,21 @@ public class DefaultHttpServer implements HttpServer, Closeable {
     return maxWebSocketFrameSize;
   }
 
+  @Override
+  public HttpServer setFlushThreshold(int bytes) {
+    checkListening();
+    if (bytes < 1) {
+      throw new IllegalArgumentException("Flush threshold must be >= 1");
+    }
+    flushThreshold = bytes;
+    return this;
+  }
+
+  @Override
+  public int getFlushThreshold() {
+    return flushThreshold;
+  }
+
   private void actualClose(final DefaultContext closeContext, final Handler<AsyncResult<Void>> done) {
     if (id != null) {
       vertx.sharedHttpServers().remove(id);
@@ -633,7 +713,13 @@ public class DefaultHttpServer implements HttpServer, Closeable {
               conn = new ServerConnection(DefaultHttpServer.this, ch, reqHandler.context, serverOrigin);
               conn.requestHandler(reqHandler.handler);
               connectionMap.put(ch, conn);
-              conn.handleMessage(msg);
+              // There was no connection to charge when the message was read, so charge it now
+              long token = reqHandler.context.startTask();
+              try {
+                conn.handleMessage(msg);
+              } finally {
+                reqHandler.context.endTask(token);
+              }
             }
           } else {
             conn.handleMessage(msg);
@@ -732,7 +818,12 @@ public class DefaultHttpServer implements HttpServer, Closeable {
 
         final DefaultServerWebSocket ws = new DefaultServerWebSocket(vertx, theURI.toString(), theURI.getPath(),
             theURI.getQuery(), new HttpHeadersAdapter(request.headers()), wsConn, connectRunnable);
-        wsConn.handleWebsocketConnect(ws);
+        long token = wsHandler.context.startTask();
+        try {
+          wsConn.handleWebsocketConnect(ws);
+        } finally {
+          wsHandler.context.endTask(token);
+        }
         if (ws.isRejected()) {
           if (firstHandler == null) {
             firstHandler = wsHandler;
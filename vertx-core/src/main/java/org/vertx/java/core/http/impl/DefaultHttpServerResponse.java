@@ -266,7 +266,7 @@ public class DefaultHttpServerResponse implements HttpServerResponse {
   }
 
   private void end0(ByteBuf data) {
-    checkWritten();
+    checkWritten(data);
 
     if (!headWritten) {
       // if the head was not written yet we can write out everything in on go
@@ -282,6 +282,8 @@ public class DefaultHttpServerResponse implements HttpServerResponse {
       headWritten = true;
     } else {
       if (!data.isReadable()) {
+        // Nothing is left to write, but the data may still need to be given back to the pool
+        data.release();
         if (trailing == null) {
           channelFuture = conn.write(LastHttpContent.EMPTY_LAST_CONTENT);
         } else {
@@ -443,6 +445,14 @@ public class DefaultHttpServerResponse implements HttpServerResponse {
     }
   }
 
+  // Data passed to a write has been handed over to the response, so it is released even when it can't be written
+  private void checkWritten(ByteBuf data) {
+    if (written) {
+      data.release();
+      checkWritten();
+    }
+  }
+
   private void prepareHeaders() {
     if (version == HttpVersion.HTTP_1_0 && keepAlive) {
       response.headers().set(org.vertx.java.core.http.HttpHeaders.CONNECTION, org.vertx.java.core.http.HttpHeaders.KEEP_ALIVE);
@@ -456,8 +466,9 @@ public class DefaultHttpServerResponse implements HttpServerResponse {
 
 
   private DefaultHttpServerResponse write(ByteBuf chunk, final Handler<AsyncResult<Void>> doneHandler) {
-    checkWritten();
+    checkWritten(chunk);
     if (!headWritten && version != HttpVersion.HTTP_1_0 && !chunked && !contentLengthSet()) {
+      chunk.release();
       throw new IllegalStateException("You must set the Content-Length header to be the total size of the message "
                                               + "body BEFORE sending any data if you are not using HTTP chunked encoding.");
     }
@@ -65,6 +65,8 @@ class ServerConnection extends ConnectionBase {
     super(server.vertx, channel, context);
     this.serverOrigin = serverOrigin;
     this.server = server;
+    setFlushThreshold(server.getFlushThreshold());
+    deferFlushes();
   }
 
   public void pause() {
@@ -56,11 +56,14 @@ public abstract class VertxHttpHandler<C extends ConnectionBase> extends VertxHa
       Channel ch = chctx.channel();
       // We need to do this since it's possible the server is being used from a worker context
       if (context.isOnCorrectWorker(ch.eventLoop())) {
+        long token = context.startTask();
         try {
           vertx.setContext(context);
           doMessageReceived(connection, chctx, msg);
         } catch (Throwable t) {
           context.reportException(t);
+        } finally {
+          context.endTask(token);
         }
       } else {
         context.execute(new Runnable() {
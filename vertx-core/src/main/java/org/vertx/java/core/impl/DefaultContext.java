@@ -25,6 +25,7 @@ import org.vertx.java.core.Handler;
 import org.vertx.java.core.file.impl.PathResolver;
 import org.vertx.java.core.logging.Logger;
 import org.vertx.java.core.logging.impl.LoggerFactory;
+import org.vertx.java.core.shareddata.LocalMap;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -37,6 +38,9 @@ public abstract class DefaultContext implements Context {
 
   private static final Logger log = LoggerFactory.getLogger(DefaultContext.class);
 
+  // Returned by startTask when there is no deployment to charge
+  private static final long NOT_CHARGED = Long.MIN_VALUE;
+
   protected final VertxInternal vertx;
   private DeploymentHandle deploymentContext;
   private PathResolver pathResolver;
@@ -47,11 +51,18 @@ public abstract class DefaultContext implements Context {
   protected final Executor orderedBgExec;
 
   protected DefaultContext(VertxInternal vertx, Executor orderedBgExec) {
+    this(vertx, orderedBgExec, null);
+  }
+
+  /**
+   * @param eventLoop the event loop to assign this context to, or null to let the event loop selector choose one
+   */
+  protected DefaultContext(VertxInternal vertx, Executor orderedBgExec, EventLoop eventLoop) {
     this.vertx = vertx;
     this.orderedBgExec = orderedBgExec;
     EventLoopGroup group = vertx.getEventLoopGroup();
     if (group != null) {
-      this.eventLoop = group.next();
+      this.eventLoop = eventLoop != null ? eventLoop : vertx.eventLoopSelector().next();
       this.tccl = Thread.currentThread().getContextClassLoader();
     } else {
       this.eventLoop = null;
@@ -71,6 +82,13 @@ public abstract class DefaultContext implements Context {
     return deploymentContext;
   }
 
+  /**
+   * @return the resource usage of the deployment this context belongs to, or null if it doesn't belong to one
+   */
+  public ResourceUsage getResourceUsage() {
+    return deploymentContext == null ? null : deploymentContext.getResourceUsage();
+  }
+
   public PathResolver getPathResolver() {
     return pathResolver;
   }
@@ -150,6 +168,26 @@ public abstract class DefaultContext implements Context {
     return eventLoop;
   }
 
+  public <K, V> LocalMap<K, V> localMap(String name, int maxSize) {
+    return eventLoopThread().localMap(name, maxSize);
+  }
+
+  public <K, V> LocalMap<K, V> localMap(String name) {
+    return localMap(name, Integer.MAX_VALUE);
+  }
+
+  public boolean removeLocalMap(String name) {
+    return eventLoopThread().removeLocalMap(name);
+  }
+
+  private VertxThread eventLoopThread() {
+    Thread thread = Thread.currentThread();
+    if (eventLoop == null || !eventLoop.inEventLoop() || !(thread instanceof VertxThread)) {
+      throw new IllegalStateException("Local maps can only be used from the event loop of the context");
+    }
+    return (VertxThread) thread;
+  }
+
   // This executes the task in the worker pool using the ordered executor of the context
   // It's used e.g. from BlockingActions
   protected void executeOnOrderedWorkerExec(final Runnable task) {
@@ -165,11 +203,38 @@ public abstract class DefaultContext implements Context {
     vertx.setContext(null);
   }
 
+  /**
+   * Charge the work done on the current thread from now until {@link #endTask} to this context's deployment. This is
+   * for handlers which are called directly on the event loop, rather than through {@link #execute}.
+   *
+   * @return the token to pass to {@link #endTask}
+   */
+  public long startTask() {
+    ResourceUsage usage = getResourceUsage();
+    if (usage == null) {
+      return NOT_CHARGED;
+    }
+    Thread currentThread = Thread.currentThread();
+    boolean outermost = currentThread instanceof VertxThread && ((VertxThread) currentThread).enterTask();
+    return outermost ? usage.taskStarted() : -1;
+  }
+
+  public void endTask(long token) {
+    if (token != NOT_CHARGED) {
+      Thread currentThread = Thread.currentThread();
+      if (currentThread instanceof VertxThread) {
+        ((VertxThread) currentThread).exitTask();
+      }
+      getResourceUsage().taskCompleted(token);
+    }
+  }
+
   protected Runnable wrapTask(final Runnable task) {
     return new Runnable() {
       public void run() {
         Thread currentThread = Thread.currentThread();
         String threadName = currentThread.getName();
+        long token = startTask();
         try {
           vertx.setContext(DefaultContext.this);
           task.run();
@@ -179,6 +244,7 @@ public abstract class DefaultContext implements Context {
           if (!threadName.equals(currentThread.getName())) {
             currentThread.setName(threadName);
           }
+          endTask(token);
         }
         if (closed) {
           // We allow tasks to be run after the context is closed but we make sure we unset the context afterwards
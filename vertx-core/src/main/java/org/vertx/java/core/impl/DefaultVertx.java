@@ -73,11 +73,12 @@ public class DefaultVertx implements VertxInternal {
 
   private final FileSystem fileSystem = getFileSystem();
   private final EventBus eventBus;
-  private final SharedData sharedData = new SharedData();
+  private final SharedData sharedData;
 
   private ExecutorService backgroundPool = VertxExecutorFactory.workerPool("vert.x-worker-thread-");
   private final OrderedExecutorFactory orderedFact = new OrderedExecutorFactory(backgroundPool);
   private EventLoopGroup eventLoopGroup = VertxExecutorFactory.eventLoopGroup("vert.x-eventloop-thread-");
+  private final EventLoopSelector eventLoopSelector = VertxExecutorFactory.eventLoopSelector(eventLoopGroup);
 
   private Map<ServerID, DefaultHttpServer> sharedHttpServers = new HashMap<>();
   private Map<ServerID, DefaultNetServer> sharedNetServers = new HashMap<>();
@@ -89,6 +90,7 @@ public class DefaultVertx implements VertxInternal {
   public DefaultVertx() {
     this.eventBus = new DefaultEventBus(this);
     this.clusterManager = null;
+    this.sharedData = new SharedData();
   }
 
   public DefaultVertx(String hostname) {
@@ -115,6 +117,7 @@ public class DefaultVertx implements VertxInternal {
     }
     this.clusterManager = factory.createClusterManager(this);
     this.clusterManager.join();
+    this.sharedData = new SharedData(this, clusterManager);
     final Vertx inst = this;
     this.eventBus = new DefaultEventBus(this, port, hostname, clusterManager, new AsyncResultHandler<Void>() {
       @Override
@@ -182,6 +185,12 @@ public class DefaultVertx implements VertxInternal {
     return context;
   }
 
+  public DefaultContext startOnEventLoop(final Runnable runnable, EventLoop eventLoop) {
+    DefaultContext context  = new EventLoopContext(this, orderedFact.getExecutor(), eventLoop);
+    context.execute(runnable);
+    return context;
+  }
+
   public DefaultContext startInBackground(final Runnable runnable, final boolean multiThreaded) {
     DefaultContext context  = createWorkerContext(multiThreaded);
     context.execute(runnable);
@@ -230,6 +239,10 @@ public class DefaultVertx implements VertxInternal {
     return eventLoopGroup;
   }
 
+  public EventLoopSelector eventLoopSelector() {
+    return eventLoopSelector;
+  }
+
   public DefaultContext getOrCreateContext() {
     DefaultContext ctx = getContext();
     if (ctx == null) {
@@ -259,6 +272,7 @@ public class DefaultVertx implements VertxInternal {
   public boolean cancelTimer(long id) {
     InternalTimerHandler handler = timeouts.remove(id);
     if (handler != null) {
+      handler.stopped();
       handler.context.removeCloseHook(handler);
       return handler.cancel();
     } else {
@@ -304,6 +318,9 @@ public class DefaultVertx implements VertxInternal {
     }
     task.future = future;
     timeouts.put(timerId, task);
+    if (task.usage != null) {
+      task.usage.timerStarted();
+    }
     context.addCloseHook(task);
     return timerId;
   }
@@ -411,6 +428,7 @@ public class DefaultVertx implements VertxInternal {
     final boolean periodic;
     final long timerID;
     final DefaultContext context;
+    final ResourceUsage usage;
     volatile Future<?> future;
     boolean cancelled;
 
@@ -421,6 +439,7 @@ public class DefaultVertx implements VertxInternal {
 
     InternalTimerHandler(long timerID, Handler<Long> runnable, boolean periodic, DefaultContext context) {
       this.context = context;
+      this.usage = context.getResourceUsage();
       this.timerID = timerID;
       this.handler = runnable;
       this.periodic = periodic;
@@ -439,15 +458,25 @@ public class DefaultVertx implements VertxInternal {
       }
     }
 
+    void stopped() {
+      if (usage != null) {
+        usage.timerStopped();
+      }
+    }
+
     private void cleanupNonPeriodic() {
-      DefaultVertx.this.timeouts.remove(timerID);
+      if (DefaultVertx.this.timeouts.remove(timerID) != null) {
+        stopped();
+      }
       DefaultContext context = getContext();
       context.removeCloseHook(this);
     }
 
     // Called via Context close hook when Verticle is undeployed
     public void close(Handler<AsyncResult<Void>> doneHandler) {
-      DefaultVertx.this.timeouts.remove(timerID);
+      if (DefaultVertx.this.timeouts.remove(timerID) != null) {
+        stopped();
+      }
       cancel();
       doneHandler.handle(new DefaultFutureResult<>((Void)null));
     }
@@ -22,4 +22,6 @@ package org.vertx.java.core.impl;
 public interface DeploymentHandle {
 
   void reportException(Throwable t);
+
+  ResourceUsage getResourceUsage();
 }
@@ -33,6 +33,10 @@ public class EventLoopContext extends DefaultContext {
     super(vertx, bgExec);
   }
 
+  public EventLoopContext(VertxInternal vertx, Executor bgExec, EventLoop eventLoop) {
+    super(vertx, bgExec, eventLoop);
+  }
+
   public void execute(Runnable task) {
     getEventLoop().execute(wrapTask(task));
   }
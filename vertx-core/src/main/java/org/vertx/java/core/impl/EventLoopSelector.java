@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.impl;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Chooses the event loop that a new context or connection is assigned to.
+ *
+ * The set of event loops is fixed when the selector is created so selection never takes a lock. Per loop we keep
+ * a count of the channels currently registered with it, which is maintained by the {@code VertxHandler}s.
+ *
+ * Ties are always broken by rotating the starting position, so with no load information the selector degrades to
+ * plain round-robin.
+ */
+public class EventLoopSelector {
+
+  public enum Strategy {
+    /**
+     * Rotate through the event loops regardless of load. This is the default.
+     */
+    ROUND_ROBIN,
+    /**
+     * Choose the event loop with the fewest channels currently registered.
+     */
+    LEAST_CHANNELS,
+    /**
+     * Choose the event loop with the fewest tasks waiting to be executed, i.e. the one which has been least busy
+     * recently.
+     */
+    LEAST_PENDING_TASKS
+  }
+
+  private final EventLoop[] loops;
+  private final Map<EventLoop, Integer> indexes = new IdentityHashMap<>();
+  private final AtomicIntegerArray channels;
+  private final AtomicInteger pos = new AtomicInteger();
+  private final Strategy strategy;
+
+  public EventLoopSelector(EventLoopGroup group, Strategy strategy) {
+    List<EventLoop> list = new ArrayList<>();
+    for (EventExecutor executor : group) {
+      list.add((EventLoop) executor);
+    }
+    this.loops = list.toArray(new EventLoop[list.size()]);
+    for (int i = 0; i < loops.length; i++) {
+      indexes.put(loops[i], i);
+    }
+    this.channels = new AtomicIntegerArray(loops.length);
+    this.strategy = strategy;
+  }
+
+  public Strategy strategy() {
+    return strategy;
+  }
+
+  public EventLoop next() {
+    return loops[select(null)];
+  }
+
+  /**
+   * Choose {@code count} event loops, using each loop at most once until all of them have been used. This is used to
+   * spread the instances of a deployment across different event loops.
+   */
+  public EventLoop[] nextDistinct(int count) {
+    EventLoop[] chosen = new EventLoop[count];
+    boolean[] used = new boolean[loops.length];
+    int usedCount = 0;
+    for (int i = 0; i < count; i++) {
+      if (usedCount == loops.length) {
+        used = new boolean[loops.length];
+        usedCount = 0;
+      }
+      int index = select(used);
+      used[index] = true;
+      usedCount++;
+      chosen[i] = loops[index];
+    }
+    return chosen;
+  }
+
+  /**
+   * Choose the least loaded of the given event loops, which must be a subset of the loops of this selector.
+   */
+  public EventLoop next(EventLoop[] candidates, int start) {
+    EventLoop best = null;
+    int bestLoad = Integer.MAX_VALUE;
+    for (int i = 0; i < candidates.length; i++) {
+      EventLoop loop = candidates[(start + i) % candidates.length];
+      int load = load(loop);
+      if (load < bestLoad) {
+        best = loop;
+        bestLoad = load;
+      }
+    }
+    return best;
+  }
+
+  public void channelRegistered(EventLoop loop) {
+    Integer index = indexes.get(loop);
+    if (index != null) {
+      channels.incrementAndGet(index);
+    }
+  }
+
+  public void channelUnregistered(EventLoop loop) {
+    Integer index = indexes.get(loop);
+    if (index != null) {
+      channels.decrementAndGet(index);
+    }
+  }
+
+  public int channelCount(EventLoop loop) {
+    Integer index = indexes.get(loop);
+    return index == null ? 0 : channels.get(index);
+  }
+
+  /**
+   * @return the number of channels currently registered with each event loop, keyed by event loop
+   */
+  public Map<EventLoop, Integer> channelCounts() {
+    Map<EventLoop, Integer> counts = new LinkedHashMap<>();
+    for (int i = 0; i < loops.length; i++) {
+      counts.put(loops[i], channels.get(i));
+    }
+    return counts;
+  }
+
+  public Collection<EventLoop> eventLoops() {
+    List<EventLoop> list = new ArrayList<>(loops.length);
+    for (EventLoop loop : loops) {
+      list.add(loop);
+    }
+    return list;
+  }
+
+  private int select(boolean[] exclude) {
+    int start = (pos.getAndIncrement() & Integer.MAX_VALUE) % loops.length;
+    if (strategy == Strategy.ROUND_ROBIN) {
+      for (int i = 0; i < loops.length; i++) {
+        int index = (start + i) % loops.length;
+        if (exclude == null || !exclude[index]) {
+          return index;
+        }
+      }
+    }
+    int best = -1;
+    int bestLoad = Integer.MAX_VALUE;
+    for (int i = 0; i < loops.length; i++) {
+      int index = (start + i) % loops.length;
+      if (exclude != null && exclude[index]) {
+        continue;
+      }
+      int load = load(index);
+      if (load < bestLoad) {
+        best = index;
+        bestLoad = load;
+      }
+    }
+    return best;
+  }
+
+  private int load(EventLoop loop) {
+    Integer index = indexes.get(loop);
+    return index == null ? 0 : load(index);
+  }
+
+  private int load(int index) {
+    switch (strategy) {
+      case LEAST_CHANNELS:
+        return channels.get(index);
+      case LEAST_PENDING_TASKS:
+        EventLoop loop = loops[index];
+        return loop instanceof SingleThreadEventExecutor ? ((SingleThreadEventExecutor) loop).pendingTasks() : 0;
+      default:
+        return 0;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.impl;
+
+import org.vertx.java.core.json.JsonObject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The resources used by a deployment, as attributed through the contexts of its verticles.<p>
+ * CPU time is the thread CPU time spent running tasks on the deployment's contexts, if the JVM supports measuring
+ * it. A task which is run synchronously from within another task is charged to the outer task's deployment.
+ */
+public class ResourceUsage {
+
+  private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU_TIME_ENABLED = threadMXBean.isCurrentThreadCpuTimeSupported() &&
+      threadMXBean.isThreadCpuTimeEnabled();
+
+  private final AtomicLong cpuTime = new AtomicLong();
+  private final AtomicLong tasks = new AtomicLong();
+  private final AtomicLong eventBusMessages = new AtomicLong();
+  private final AtomicInteger openSockets = new AtomicInteger();
+  private final AtomicInteger activeTimers = new AtomicInteger();
+
+  /**
+   * @return the CPU time of the current thread in nanoseconds, to be passed to {@link #taskCompleted}, or -1 if
+   * CPU time is not measured
+   */
+  long taskStarted() {
+    return CPU_TIME_ENABLED ? threadMXBean.getCurrentThreadCpuTime() : -1;
+  }
+
+  void taskCompleted(long cpuStart) {
+    tasks.incrementAndGet();
+    if (cpuStart != -1) {
+      cpuTime.addAndGet(threadMXBean.getCurrentThreadCpuTime() - cpuStart);
+    }
+  }
+
+  public void eventBusMessageHandled() {
+    eventBusMessages.incrementAndGet();
+  }
+
+  public void socketOpened() {
+    openSockets.incrementAndGet();
+  }
+
+  public void socketClosed() {
+    openSockets.decrementAndGet();
+  }
+
+  public void timerStarted() {
+    activeTimers.incrementAndGet();
+  }
+
+  public void timerStopped() {
+    activeTimers.decrementAndGet();
+  }
+
+  /**
+   * @return the CPU time used in nanoseconds
+   */
+  public long getCpuTime() {
+    return cpuTime.get();
+  }
+
+  public long getTasks() {
+    return tasks.get();
+  }
+
+  public long getEventBusMessages() {
+    return eventBusMessages.get();
+  }
+
+  public int getOpenSockets() {
+    return openSockets.get();
+  }
+
+  public int getActiveTimers() {
+    return activeTimers.get();
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+        .putNumber("cpuTime", getCpuTime())
+        .putNumber("tasks", getTasks())
+        .putNumber("eventBusMessages", getEventBusMessages())
+        .putNumber("openSockets", getOpenSockets())
+        .putNumber("activeTimers", getActiveTimers());
+  }
+}
@@ -16,8 +16,8 @@
 package org.vertx.java.core.impl;
 
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import org.vertx.java.core.impl.management.ManagementRegistry;
+import org.vertx.java.core.net.impl.NativeTransport;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -49,10 +49,18 @@ public class VertxExecutorFactory {
   // The acceptor pools need to be fixed with a backing queue
 
   public static EventLoopGroup eventLoopGroup(String poolName) {
-    return new NioEventLoopGroup(eventLoopSize(), new VertxThreadFactory(poolName));
+    return NativeTransport.eventLoopGroup(eventLoopSize(), new VertxThreadFactory(poolName));
   }
 
   public static int eventLoopSize() {
       return Integer.getInteger("vertx.pool.eventloop.size", 2 * Runtime.getRuntime().availableProcessors());
   }
+
+  // How new contexts and accepted connections are assigned to event loops, see EventLoopSelector.Strategy
+  public static EventLoopSelector eventLoopSelector(EventLoopGroup group) {
+    String strategy = System.getProperty("vertx.pool.eventloop.strategy", EventLoopSelector.Strategy.ROUND_ROBIN.name());
+    EventLoopSelector selector = new EventLoopSelector(group, EventLoopSelector.Strategy.valueOf(strategy.toUpperCase()));
+    ManagementRegistry.registerEventLoops(selector);
+    return selector;
+  }
 }
@@ -17,6 +17,7 @@
 package org.vertx.java.core.impl;
 
 
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import org.vertx.java.core.http.impl.DefaultHttpServer;
 import org.vertx.java.core.net.impl.DefaultNetServer;
@@ -38,10 +39,17 @@ public interface VertxInternal extends VertxSPI {
 
   EventLoopGroup getEventLoopGroup();
 
+  EventLoopSelector eventLoopSelector();
+
   ExecutorService getBackgroundPool();
 
   DefaultContext startOnEventLoop(Runnable runnable);
 
+  /**
+   * Start the runnable on a new context assigned to the given event loop
+   */
+  DefaultContext startOnEventLoop(Runnable runnable, EventLoop eventLoop);
+
   DefaultContext startInBackground(Runnable runnable, boolean multiThreaded);
 
   DefaultContext getOrCreateContext();
@@ -16,12 +16,20 @@
 
 package org.vertx.java.core.impl;
 
+import org.vertx.java.core.shareddata.LocalMap;
+import org.vertx.java.core.shareddata.impl.DefaultLocalMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
 final class VertxThread extends Thread {
 
     private DefaultContext context;
+    private Map<String, LocalMap<?, ?>> localMaps;
+    private int taskDepth;
 
     public VertxThread(Runnable target, String name) {
         super(target, name);
@@ -34,4 +42,30 @@ final class VertxThread extends Thread {
     void setContext(DefaultContext context) {
         this.context = context;
     }
+
+    // Returns true if this is the outermost task running on this thread
+    boolean enterTask() {
+        return taskDepth++ == 0;
+    }
+
+    void exitTask() {
+        taskDepth--;
+    }
+
+    // Only ever called from this thread so no synchronization is needed
+    <K, V> LocalMap<K, V> localMap(String name, int maxSize) {
+        if (localMaps == null) {
+            localMaps = new HashMap<>();
+        }
+        LocalMap<K, V> map = (LocalMap<K, V>) localMaps.get(name);
+        if (map == null) {
+            map = new DefaultLocalMap<>(this, maxSize);
+            localMaps.put(name, map);
+        }
+        return map;
+    }
+
+    boolean removeLocalMap(String name) {
+        return localMaps != null && localMaps.remove(name) != null;
+    }
 }
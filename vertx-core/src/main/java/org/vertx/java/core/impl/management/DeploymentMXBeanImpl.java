@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.impl.management;
+
+import org.vertx.java.core.impl.ResourceUsage;
+
+public class DeploymentMXBeanImpl implements DeploymentMXBean {
+
+  private final ResourceUsage usage;
+
+  public DeploymentMXBeanImpl(ResourceUsage usage) {
+    this.usage = usage;
+  }
+
+  @Override
+  public long getCpuTime() {
+    return usage.getCpuTime();
+  }
+
+  @Override
+  public long getTasks() {
+    return usage.getTasks();
+  }
+
+  @Override
+  public long getEventBusMessages() {
+    return usage.getEventBusMessages();
+  }
+
+  @Override
+  public int getOpenSockets() {
+    return usage.getOpenSockets();
+  }
+
+  @Override
+  public int getActiveTimers() {
+    return usage.getActiveTimers();
+  }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+package org.vertx.java.core.impl.management;
+
+import io.netty.channel.EventLoop;
+import org.vertx.java.core.impl.EventLoopSelector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class EventLoopsMXBeanImpl implements EventLoopsMXBean {
+
+  private final EventLoopSelector selector;
+
+  public EventLoopsMXBeanImpl(EventLoopSelector selector) {
+    this.selector = selector;
+  }
+
+  @Override
+  public String getStrategy() {
+    return selector.strategy().name();
+  }
+
+  @Override
+  public int getEventLoopCount() {
+    return selector.eventLoops().size();
+  }
+
+  @Override
+  public Map<String, Integer> getChannelCounts() {
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    int i = 0;
+    for (Map.Entry<EventLoop, Integer> entry : selector.channelCounts().entrySet()) {
+      counts.put("eventloop-" + i++, entry.getValue());
+    }
+    return counts;
+  }
+
+}
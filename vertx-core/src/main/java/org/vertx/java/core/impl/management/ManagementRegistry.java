@@ -15,6 +15,8 @@
  */
 package org.vertx.java.core.impl.management;
 
+import org.vertx.java.core.impl.EventLoopSelector;
+import org.vertx.java.core.impl.ResourceUsage;
 import org.vertx.java.core.net.impl.ServerID;
 
 import javax.management.*;
@@ -50,6 +52,56 @@ public class ManagementRegistry {
     }
   }
 
+  public static void registerEventLoops(EventLoopSelector selector) {
+    if (!MANAGEMENT_ENABLED) return;
+
+    try {
+      ObjectName eventLoopsName = ObjectName.getInstance(DOMAIN, "Name", "EventLoops");
+      if (!platformMBeanServer.isRegistered(eventLoopsName)) {
+        EventLoopsMXBean eventLoopsMXBean = new EventLoopsMXBeanImpl(selector);
+        platformMBeanServer.registerMBean(eventLoopsMXBean, eventLoopsName);
+      }
+    } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+        | MBeanRegistrationException | NotCompliantMBeanException e) {
+      throw new VertxManagementException(e);
+    }
+  }
+
+  public static void registerDeployment(String deploymentID, ResourceUsage usage) {
+    if (!MANAGEMENT_ENABLED) return;
+
+    try {
+      ObjectName deploymentName = deploymentName(deploymentID);
+      if (!platformMBeanServer.isRegistered(deploymentName)) {
+        DeploymentMXBean deploymentMXBean = new DeploymentMXBeanImpl(usage);
+        platformMBeanServer.registerMBean(deploymentMXBean, deploymentName);
+      }
+    } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+        | MBeanRegistrationException | NotCompliantMBeanException e) {
+      throw new VertxManagementException(e);
+    }
+  }
+
+  public static void unregisterDeployment(String deploymentID) {
+    if (!MANAGEMENT_ENABLED) return;
+
+    try {
+      ObjectName deploymentName = deploymentName(deploymentID);
+      if (platformMBeanServer.isRegistered(deploymentName)) {
+        platformMBeanServer.unregisterMBean(deploymentName);
+      }
+    } catch (MalformedObjectNameException | InstanceNotFoundException | MBeanRegistrationException e) {
+      throw new VertxManagementException(e);
+    }
+  }
+
+  private static ObjectName deploymentName(String deploymentID) throws MalformedObjectNameException {
+    Hashtable<String, String> table = new Hashtable<>();
+    table.put("type", "Deployment");
+    table.put("name", ObjectName.quote(deploymentID));
+    return ObjectName.getInstance(DOMAIN, table);
+  }
+
   public static void registerThreadPool(String name, ExecutorService service) {
     if (!MANAGEMENT_ENABLED) return;
 
@@ -17,6 +17,9 @@
 package org.vertx.java.core.json;
 
 import org.vertx.java.core.VertxException;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.json.impl.CopyOnWriteJsonList;
+import org.vertx.java.core.json.impl.CopyOnWriteJsonMap;
 import org.vertx.java.core.json.impl.Json;
 
 import java.util.*;
@@ -51,18 +54,25 @@ public class JsonArray extends JsonElement implements Iterable<Object> {
     list = Json.decodeValue(jsonString, List.class);
   }
 
+  /**
+   * Create a JSON array from the UTF-8 encoded bytes of a JSON array, without first converting them to a String
+   */
+  public JsonArray(Buffer buff) {
+    list = Json.decodeValue(buff, List.class);
+  }
+
   public JsonArray addString(String str) {
     list.add(str);
     return this;
   }
 
   public JsonArray addObject(JsonObject value) {
-    list.add(value.map);
+    list.add(value.shareableMap());
     return this;
   }
 
   public JsonArray addArray(JsonArray value) {
-    list.add(value.list);
+    list.add(value.shareableList());
     return this;
   }
 
@@ -113,14 +123,23 @@ public class JsonArray extends JsonElement implements Iterable<Object> {
   }
 
   public <T> T get(final int index) {
-    return convertObject(list.get(index));
+    if (list instanceof CopyOnWriteJsonList) {
+      // Doesn't copy our list if it's shared
+      return convertObject(((CopyOnWriteJsonList) list).changeableValue(index));
+    }
+    Object obj = list.get(index);
+    Object changeable = CopyOnWriteJsonMap.changeable(obj);
+    if (changeable != obj) {
+      list.set(index, changeable);
+    }
+    return convertObject(changeable);
   }
 
   @Override
   public Iterator<Object> iterator() {
     return new Iterator<Object>() {
 
-      Iterator<Object> iter = list.iterator();
+      ListIterator<Object> iter = list.listIterator();
 
       @Override
       public boolean hasNext() {
@@ -129,7 +148,15 @@ public class JsonArray extends JsonElement implements Iterable<Object> {
 
       @Override
       public Object next() {
-        return convertObject(iter.next());
+        Object obj = iter.next();
+        if (list instanceof CopyOnWriteJsonList) {
+          return convertObject(((CopyOnWriteJsonList) list).changeableValue(iter.previousIndex()));
+        }
+        Object changeable = CopyOnWriteJsonMap.changeable(obj);
+        if (changeable != obj) {
+          iter.set(changeable);
+        }
+        return convertObject(changeable);
       }
 
       @Override
@@ -147,6 +174,14 @@ public class JsonArray extends JsonElement implements Iterable<Object> {
     return Json.encode(this.list);
   }
 
+  /**
+   * Encode this JSON array as UTF-8 straight into a new {@link Buffer}, which is cheaper than encoding it to a
+   * String and converting that to bytes.
+   */
+  public Buffer encodeToBuffer() throws EncodeException {
+    return Json.encodeToBuffer(this.list);
+  }
+
   public String encodePrettily() throws EncodeException {
     return Json.encodePrettily(this.list);
   }
@@ -155,8 +190,20 @@ public class JsonArray extends JsonElement implements Iterable<Object> {
    *
    * @return a copy of the JsonArray
    */
+  @SuppressWarnings("unchecked")
   public JsonArray copy() {
-    return new JsonArray(list, true);
+    // As for JsonObject, the copy shares whatever hasn't been changed with this array
+    return new JsonArray((List<Object>) CopyOnWriteJsonMap.copyOf(shareableList()), false);
+  }
+
+  /*
+  Our list, as one which can be shared with copies of it
+   */
+  List<Object> shareableList() {
+    if (!(list instanceof CopyOnWriteJsonList)) {
+      list = new CopyOnWriteJsonList(list, true);
+    }
+    return list;
   }
 
   @Override
@@ -18,8 +18,13 @@ package org.vertx.java.core.json;
 
 
 import org.vertx.java.core.VertxException;
+import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.json.impl.Base64;
+import org.vertx.java.core.json.impl.CompactJsonMap;
+import org.vertx.java.core.json.impl.CopyOnWriteJsonList;
+import org.vertx.java.core.json.impl.CopyOnWriteJsonMap;
 import org.vertx.java.core.json.impl.Json;
+import org.vertx.java.core.json.impl.LazyJsonMap;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -67,18 +72,50 @@ public class JsonObject extends JsonElement {
     map = Json.decodeValue(jsonString, Map.class);
   }
 
+  /**
+   * Create a JSON object from the UTF-8 encoded bytes of a JSON object, without first converting them to a String
+   *
+   * @param buff
+   *          The bytes of a JSON object
+   */
+  public JsonObject(Buffer buff) {
+    map = Json.decodeValue(buff, Map.class);
+  }
+
+  /**
+   * Create a JSON object from the UTF-8 encoded bytes of a JSON object, optionally decoding it lazily.<p>
+   * A lazy JSON object only decodes a field when it is first read, and nested objects are lazy too. This is much
+   * cheaper when only a few fields of a large object are used. As long as the object is not changed, encoding it
+   * reuses the bytes it was created from, rather than encoding it again, so it is also cheap to pass on. Reading an
+   * array field stops the bytes from being reused, since the array could then be changed.<p>
+   * Unlike other JSON objects, invalid JSON is only reported, with a {@link DecodeException}, when the invalid part
+   * of it is accessed.
+   *
+   * @param buff
+   *          The bytes of a JSON object, which are copied
+   * @param lazy
+   *          Whether to decode lazily
+   */
+  public JsonObject(Buffer buff, boolean lazy) {
+    if (lazy) {
+      map = new LazyJsonMap(buff.getBytes());
+    } else {
+      map = Json.decodeValue(buff, Map.class);
+    }
+  }
+
   public JsonObject putString(String fieldName, String value) {
     map.put(fieldName, value);
     return this;
   }
 
   public JsonObject putObject(String fieldName, JsonObject value) {
-    map.put(fieldName, value == null ? null : value.map);
+    map.put(fieldName, value == null ? null : value.shareableMap());
     return this;
   }
 
   public JsonObject putArray(String fieldName, JsonArray value) {
-    map.put(fieldName, value == null ? null : value.list);
+    map.put(fieldName, value == null ? null : value.shareableList());
     return this;
   }
 
@@ -135,13 +172,13 @@ public class JsonObject extends JsonElement {
 
   @SuppressWarnings("unchecked")
   public JsonObject getObject(String fieldName) {
-    Map<String, Object> m = (Map<String, Object>) map.get(fieldName);
+    Map<String, Object> m = (Map<String, Object>) changeableField(fieldName);
     return m == null ? null : new JsonObject(m, false);
   }
 
   @SuppressWarnings("unchecked")
   public JsonArray getArray(String fieldName) {
-    List<Object> l = (List<Object>) map.get(fieldName);
+    List<Object> l = (List<Object>) changeableField(fieldName);
     return l == null ? null : new JsonArray(l, false);
   }
 
@@ -237,7 +274,7 @@ public class JsonObject extends JsonElement {
 
   @SuppressWarnings("unchecked")
   public <T> T getField(String fieldName) {
-    Object obj = map.get(fieldName);
+    Object obj = changeableField(fieldName);
     if (obj instanceof Map) {
       obj = new JsonObject((Map)obj, false);
     } else if (obj instanceof List) {
@@ -263,15 +300,46 @@ public class JsonObject extends JsonElement {
     return map.size();
   }
 
+  /**
+   * Copy the fields of {@code other} into this object, replacing any with the same names. Objects and arrays in the
+   * fields are copied as {@link #copy()} copies them, so later changes to them through either object aren't seen by
+   * the other.
+   */
   public JsonObject mergeIn(JsonObject other) {
-    map.putAll(other.map);
+    for (Map.Entry<String, Object> entry : other.map.entrySet()) {
+      map.put(entry.getKey(), CopyOnWriteJsonMap.copyOf(entry.getValue()));
+    }
     return this;
   }
 
+  /**
+   * Convert this object to an instance of {@code clazz}, in the same way as decoding its encoded form with Jackson
+   * would, but without encoding and parsing it.
+   */
+  public <T> T mapTo(Class<T> clazz) {
+    return Json.mapTo(map, clazz);
+  }
+
+  /**
+   * Convert a Java object, such as a bean, to a JsonObject, in the same way as encoding it with Jackson and decoding
+   * the result would, but without going through its encoded form.
+   */
+  public static JsonObject mapFrom(Object obj) {
+    return new JsonObject(Json.mapFrom(obj), false);
+  }
+
   public String encode() {
     return Json.encode(this.map);
   }
 
+  /**
+   * Encode this JSON object as UTF-8 straight into a new {@link Buffer}, which is cheaper than encoding it to a
+   * String and converting that to bytes.
+   */
+  public Buffer encodeToBuffer() {
+    return Json.encodeToBuffer(this.map);
+  }
+
   public String encodePrettily() {
     return Json.encodePrettily(this.map);
   }
@@ -280,8 +348,46 @@ public class JsonObject extends JsonElement {
    * @return a copy of this JsonObject such that changes in the original are not reflected in the copy, and
    * vice versa
    */
+  @SuppressWarnings("unchecked")
   public JsonObject copy() {
-    return new JsonObject(map, true);
+    // The copy shares whatever hasn't been changed with this object, and each of them only copies a level of it once
+    // they change it
+    return new JsonObject((Map<String, Object>) CopyOnWriteJsonMap.copyOf(shareableMap()), false);
+  }
+
+  /**
+   * @return a copy of this JsonObject which takes less memory, for when a lot of objects with the same fields are
+   * kept, such as in caches. Field names are shared between such objects and numbers aren't boxed. It can be used
+   * in the same way as any other JsonObject.
+   */
+  public JsonObject compact() {
+    return new JsonObject(CompactJsonMap.compact(map), false);
+  }
+
+  /*
+  Our map, as one which can be shared with copies of it
+   */
+  Map<String, Object> shareableMap() {
+    if (!(map instanceof CopyOnWriteJsonMap) && !(map instanceof LazyJsonMap)) {
+      map = new CopyOnWriteJsonMap(map, true);
+    }
+    return map;
+  }
+
+  /*
+  A nested map or list which might be shared with a copy is replaced by a copy on write one before it's handed out
+   */
+  private Object changeableField(String fieldName) {
+    if (map instanceof CopyOnWriteJsonMap) {
+      // Doesn't copy our map if it's shared
+      return ((CopyOnWriteJsonMap) map).changeableValue(fieldName);
+    }
+    Object obj = map.get(fieldName);
+    Object changeable = CopyOnWriteJsonMap.changeable(obj);
+    if (changeable != obj) {
+      map.put(fieldName, changeable);
+    }
+    return changeable;
   }
 
   @Override
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.json.impl;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The map of a JSON object which takes less memory than a {@code LinkedHashMap}, for when a lot of objects with the
+ * same fields are kept around.<p>
+ * The field names are held by a {@link Shape}, which is shared by all the maps with the same fields in the same order,
+ * so each map only holds one instance of each name, and an array of values. Integers, longs and doubles are held in
+ * an array of longs rather than being boxed, and are boxed again when they are read.<p>
+ * Adding a field moves the map to the next shape, but removing one has to find the shape of the remaining fields, so
+ * is slower than for an ordinary map. Shapes with a lot of fields aren't shared, so these maps are only meant for
+ * objects with a fixed set of fields.<p>
+ * Shared shapes are never freed, so there is a limit on how many there can be. Once it has been reached
+ * {@link #compact} makes ordinary maps for objects whose fields don't have a shape already.<p>
+ *
+ * Instances of this class are not thread-safe, but the shapes are.<p>
+ */
+public class CompactJsonMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final Object[] NO_VALUES = new Object[0];
+
+  // Markers for values held in prims
+  private static final Object INT = new Object();
+  private static final Object LONG = new Object();
+  private static final Object DOUBLE = new Object();
+
+  private Shape shape;
+  private Object[] values;
+  private long[] prims;         // Only allocated once there is a number to store
+
+  public CompactJsonMap() {
+    this.shape = Shape.EMPTY;
+    this.values = NO_VALUES;
+  }
+
+  private CompactJsonMap(Shape shape, Object[] values, long[] prims) {
+    this.shape = shape;
+    this.values = values;
+    this.prims = prims;
+  }
+
+  /**
+   * @return a compact copy of the map, in which nested maps are compact too. Maps with more fields than are worth
+   * sharing a shape for, or for which there are no shapes left, are copied into ordinary maps instead.
+   */
+  public static Map<String, Object> compact(Map<String, Object> map) {
+    Map<String, Object> compact = map.size() > Shape.MAX_SHARED_FIELDS ?
+        new LinkedHashMap<String, Object>(map.size()) : new CompactJsonMap();
+    for (Entry<String, Object> entry : map.entrySet()) {
+      compact.put(entry.getKey(), compactValue(entry.getValue()));
+    }
+    if (compact instanceof CompactJsonMap) {
+      CompactJsonMap cmap = (CompactJsonMap) compact;
+      if (!cmap.shape.shared) {
+        return new LinkedHashMap<>(cmap);
+      }
+      cmap.trim();
+    }
+    return compact;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object compactValue(Object value) {
+    if (value instanceof Map) {
+      return compact((Map<String, Object>) value);
+    } else if (value instanceof List) {
+      List<Object> list = (List<Object>) value;
+      List<Object> compacted = new ArrayList<>(list.size());
+      for (Object val : list) {
+        compacted.add(compactValue(val));
+      }
+      return compacted;
+    }
+    return value;
+  }
+
+  /**
+   * @return a copy of this map, which shares its shape and nested values with it
+   */
+  public CompactJsonMap copy() {
+    return new CompactJsonMap(shape, values.clone(), prims == null ? null : prims.clone());
+  }
+
+  @Override
+  public Object get(Object key) {
+    int index = shape.indexOf(key);
+    return index < 0 ? null : value(index);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return shape.indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return shape.keys.length;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    int index = shape.indexOf(key);
+    Object previous = null;
+    if (index < 0) {
+      shape = shape.with(key);
+      index = shape.keys.length - 1;
+      if (index == values.length) {
+        values = Arrays.copyOf(values, Math.max(4, index * 2));
+        if (prims != null) {
+          prims = Arrays.copyOf(prims, values.length);
+        }
+      }
+    } else {
+      previous = value(index);
+    }
+    store(index, value);
+    return previous;
+  }
+
+  @Override
+  public Object remove(Object key) {
+    int index = shape.indexOf(key);
+    if (index < 0) {
+      return null;
+    }
+    Object previous = value(index);
+    removeAt(index);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    shape = Shape.EMPTY;
+    values = NO_VALUES;
+    prims = null;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new Iterator<Entry<String, Object>>() {
+          int next;
+          int last = -1;
+
+          @Override
+          public boolean hasNext() {
+            return next < shape.keys.length;
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            last = next++;
+            return new SimpleImmutableEntry<>(shape.keys[last], value(last));
+          }
+
+          @Override
+          public void remove() {
+            if (last < 0) {
+              throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return shape.keys.length;
+      }
+    };
+  }
+
+  private Object value(int index) {
+    Object value = values[index];
+    if (value == INT) {
+      return (int) prims[index];
+    } else if (value == LONG) {
+      return prims[index];
+    } else if (value == DOUBLE) {
+      return Double.longBitsToDouble(prims[index]);
+    }
+    return value;
+  }
+
+  private void store(int index, Object value) {
+    if (value instanceof Integer) {
+      prims()[index] = (Integer) value;
+      values[index] = INT;
+    } else if (value instanceof Long) {
+      prims()[index] = (Long) value;
+      values[index] = LONG;
+    } else if (value instanceof Double) {
+      prims()[index] = Double.doubleToRawLongBits((Double) value);
+      values[index] = DOUBLE;
+    } else {
+      values[index] = value;
+    }
+  }
+
+  private void trim() {
+    int size = shape.keys.length;
+    if (values.length > size) {
+      values = Arrays.copyOf(values, size);
+      if (prims != null) {
+        prims = Arrays.copyOf(prims, size);
+      }
+    }
+  }
+
+  private long[] prims() {
+    if (prims == null) {
+      prims = new long[values.length];
+    }
+    return prims;
+  }
+
+  private void removeAt(int index) {
+    String[] keys = shape.keys;
+    Shape newShape = Shape.EMPTY;
+    for (int i = 0; i < keys.length; i++) {
+      if (i != index) {
+        newShape = newShape.with(keys[i]);
+      }
+    }
+    int moved = keys.length - index - 1;
+    System.arraycopy(values, index + 1, values, index, moved);
+    values[keys.length - 1] = null;
+    if (prims != null) {
+      System.arraycopy(prims, index + 1, prims, index, moved);
+    }
+    shape = newShape;
+  }
+
+  /*
+  Serialize as an ordinary map
+   */
+  private Object writeReplace() {
+    return new LinkedHashMap<>(this);
+  }
+
+  /**
+   * The field names of a compact map, in order. Shapes are immutable and are shared between all the maps which have
+   * the same fields, so the names are only held once.
+   */
+  static final class Shape {
+
+    static final Shape EMPTY = new Shape(new String[0], true);
+
+    // Shapes with more fields than this are not shared, since those are probably maps used as dictionaries
+    private static final int MAX_SHARED_FIELDS = 64;
+    // Nor are those which would have more next shapes than this
+    private static final int MAX_TRANSITIONS = 256;
+    // Nor any more once there are this many shared shapes, since they are never freed
+    private static final int MAX_SHARED_SHAPES = 16384;
+
+    private static final AtomicInteger sharedShapes = new AtomicInteger();
+
+    private final String[] keys;
+    private final Map<String, Integer> index;
+    private final boolean shared;
+    // Only shared shapes have shared next shapes
+    private final ConcurrentMap<String, Shape> transitions;
+
+    private Shape(String[] keys, boolean shared) {
+      this.keys = keys;
+      this.shared = shared;
+      this.transitions = shared ? new ConcurrentHashMap<String, Shape>() : null;
+      Map<String, Integer> idx = new HashMap<>(keys.length * 2);
+      for (int i = 0; i < keys.length; i++) {
+        idx.put(keys[i], i);
+      }
+      this.index = idx;
+    }
+
+    int indexOf(Object key) {
+      Integer i = index.get(key);
+      return i == null ? -1 : i;
+    }
+
+    /**
+     * @return the shape with the field names of this one followed by {@code key}
+     */
+    Shape with(String key) {
+      Shape next = shared ? transitions.get(key) : null;
+      if (next != null) {
+        return next;
+      }
+      String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+      newKeys[keys.length] = key;
+      if (!shared || newKeys.length > MAX_SHARED_FIELDS || transitions.size() >= MAX_TRANSITIONS || !reserve()) {
+        return new Shape(newKeys, false);
+      }
+      next = new Shape(newKeys, true);
+      Shape prev = transitions.putIfAbsent(key, next);
+      if (prev != null) {
+        sharedShapes.decrementAndGet();
+        next = prev;
+      }
+      return next;
+    }
+
+    private static boolean reserve() {
+      if (sharedShapes.incrementAndGet() <= MAX_SHARED_SHAPES) {
+        return true;
+      }
+      sharedShapes.decrementAndGet();
+      return false;
+    }
+  }
+}
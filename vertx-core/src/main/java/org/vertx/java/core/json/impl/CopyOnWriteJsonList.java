@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.json.impl;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * The list of a JSON array which can share its contents with copies of it, and only copies them when it is changed.
+ * See {@link CopyOnWriteJsonMap}.<p>
+ *
+ * Instances of this class are not thread-safe, but copies of them can be used on other threads.<p>
+ */
+public class CopyOnWriteJsonList extends AbstractList<Object>
+    implements RandomAccess, Serializable, CopyOnWriteJsonParent {
+
+  private List<Object> list;
+  private boolean owned;
+  // Views of nested values handed out while this list is shared
+  private Map<Integer, Object> views;
+  // The shared map or list this is a view of a value of, until this is changed
+  private CopyOnWriteJsonParent parent;
+  private Object key;
+
+  /**
+   * @param owned whether the list is only used by this instance, so can be changed in place
+   */
+  public CopyOnWriteJsonList(List<Object> list, boolean owned) {
+    this.list = list;
+    this.owned = owned;
+  }
+
+  /**
+   * @return a copy of this list which shares as much as it can with it
+   */
+  public CopyOnWriteJsonList copy() {
+    if (owned) {
+      for (Object value : list) {
+        if (CopyOnWriteJsonMap.isMutable(value)) {
+          // Values which can change in place have to be copied, so this level has to be copied too
+          List<Object> copy = new ArrayList<>(list.size());
+          for (Object val : list) {
+            copy.add(CopyOnWriteJsonMap.copyOf(val));
+          }
+          return new CopyOnWriteJsonList(copy, true);
+        }
+      }
+      owned = false;
+    }
+    return new CopyOnWriteJsonList(list, false);
+  }
+
+  @Override
+  public Object get(int index) {
+    if (views != null) {
+      Object view = views.get(index);
+      if (view != null) {
+        return view;
+      }
+    }
+    return list.get(index);
+  }
+
+  /**
+   * @return the value at {@code index}, which is made {@link CopyOnWriteJsonMap#changeable changeable} first
+   */
+  public Object changeableValue(int index) {
+    Object value = get(index);
+    Object changeable = CopyOnWriteJsonMap.changeable(value);
+    if (changeable != value) {
+      if (owned) {
+        list.set(index, changeable);
+      } else {
+        if (views == null) {
+          views = new HashMap<>();
+        }
+        views.put(index, changeable);
+        CopyOnWriteJsonMap.attach(changeable, this, index);
+      }
+    }
+    return changeable;
+  }
+
+  @Override
+  public int size() {
+    return list.size();
+  }
+
+  @Override
+  public Object set(int index, Object element) {
+    return own().set(index, element);
+  }
+
+  @Override
+  public void add(int index, Object element) {
+    own().add(index, element);
+  }
+
+  @Override
+  public Object remove(int index) {
+    return own().remove(index);
+  }
+
+  @Override
+  public void clear() {
+    own().clear();
+  }
+
+  public void install(Object index, Object view) {
+    own().set((Integer) index, view);
+  }
+
+  void attach(CopyOnWriteJsonParent parent, Object key) {
+    this.parent = parent;
+    this.key = key;
+  }
+
+  private List<Object> own() {
+    if (!owned) {
+      // A shared list only holds values which are never changed in place, so they can still be shared
+      list = new ArrayList<>(list);
+      owned = true;
+      if (views != null) {
+        // Nothing can have moved while the list was shared
+        for (Map.Entry<Integer, Object> entry : views.entrySet()) {
+          list.set(entry.getKey(), entry.getValue());
+          CopyOnWriteJsonMap.attach(entry.getValue(), null, null);
+        }
+        views = null;
+      }
+      if (parent != null) {
+        CopyOnWriteJsonParent p = parent;
+        parent = null;
+        p.install(key, this);
+      }
+    }
+    return list;
+  }
+
+  /*
+  Serialize as an ordinary list
+   */
+  private Object writeReplace() {
+    return new ArrayList<>(this);
+  }
+}
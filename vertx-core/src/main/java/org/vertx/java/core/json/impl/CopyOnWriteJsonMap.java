@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.json.impl;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The map of a JSON object which can share its contents with copies of it, and only copies them when it is changed.<p>
+ * While a map is shared it is never changed in place. The first change copies it, but only this level of it: nested
+ * maps and lists which aren't copy on write themselves are still shared, and are replaced by copy on write ones when
+ * they are handed out by {@code JsonObject} or {@code JsonArray}, so they are copied in turn if they are changed.<p>
+ * Handing out a nested value doesn't copy a shared map: the copy on write view of the value is kept aside, and only
+ * put into the map, copying it, once the view itself is changed. Reading the keys doesn't copy it either.<p>
+ * {@link #copy()} only has to copy the levels which hold copy on write maps or lists, or lazy maps, since those can
+ * be changed in place. Everything else is shared.<p>
+ *
+ * Instances of this class are not thread-safe, but copies of them can be used on other threads.<p>
+ */
+public class CopyOnWriteJsonMap extends AbstractMap<String, Object> implements Serializable,
+    CopyOnWriteJsonParent {
+
+  private Map<String, Object> map;
+  private boolean owned;
+  // Views of nested values handed out while this map is shared
+  private Map<String, Object> views;
+  // The shared map or list this is a view of a value of, until this is changed
+  private CopyOnWriteJsonParent parent;
+  private Object key;
+
+  /**
+   * @param owned whether the map is only used by this instance, so can be changed in place
+   */
+  public CopyOnWriteJsonMap(Map<String, Object> map, boolean owned) {
+    this.map = map;
+    this.owned = owned;
+  }
+
+  /**
+   * @return a copy of this map which shares as much as it can with it
+   */
+  public CopyOnWriteJsonMap copy() {
+    if (owned) {
+      for (Object value : map.values()) {
+        if (isMutable(value)) {
+          // Values which can change in place have to be copied, so this level has to be copied too
+          Map<String, Object> copy = map instanceof CompactJsonMap ?
+              new CompactJsonMap() : new LinkedHashMap<String, Object>(map.size());
+          for (Entry<String, Object> entry : map.entrySet()) {
+            copy.put(entry.getKey(), copyOf(entry.getValue()));
+          }
+          return new CopyOnWriteJsonMap(copy, true);
+        }
+      }
+      owned = false;
+    }
+    return new CopyOnWriteJsonMap(map, false);
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (views != null) {
+      Object view = views.get(key);
+      if (view != null) {
+        return view;
+      }
+    }
+    return map.get(key);
+  }
+
+  /**
+   * @return the value for {@code key}, which is made {@link #changeable} first
+   */
+  public Object changeableValue(String key) {
+    Object value = get(key);
+    Object changeable = changeable(value);
+    if (changeable != value) {
+      if (owned) {
+        map.put(key, changeable);
+      } else {
+        if (views == null) {
+          views = new HashMap<>();
+        }
+        views.put(key, changeable);
+        attach(changeable, this, key);
+      }
+    }
+    return changeable;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    return own().put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    return own().remove(key);
+  }
+
+  @Override
+  public void clear() {
+    own().clear();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    if (owned) {
+      return map.keySet();
+    }
+    // Only removing a key through the set copies the map
+    return new AbstractSet<String>() {
+      public Iterator<String> iterator() {
+        final Iterator<String> iter = map.keySet().iterator();
+        return new Iterator<String>() {
+          String last;
+
+          public boolean hasNext() {
+            return iter.hasNext();
+          }
+
+          public String next() {
+            return last = iter.next();
+          }
+
+          public void remove() {
+            if (last == null) {
+              throw new IllegalStateException();
+            }
+            CopyOnWriteJsonMap.this.remove(last);
+            last = null;
+          }
+        };
+      }
+
+      public int size() {
+        return CopyOnWriteJsonMap.this.size();
+      }
+
+      public boolean contains(Object o) {
+        return containsKey(o);
+      }
+
+      public boolean remove(Object o) {
+        if (containsKey(o)) {
+          CopyOnWriteJsonMap.this.remove(o);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    // Iterating doesn't need a copy, as long as nothing can be changed through the entries
+    return owned ? map.entrySet() : Collections.unmodifiableMap(map).entrySet();
+  }
+
+  public void install(Object key, Object view) {
+    own().put((String) key, view);
+  }
+
+  private Map<String, Object> own() {
+    if (!owned) {
+      // A shared map only holds values which are never changed in place, so they can still be shared
+      map = map instanceof CompactJsonMap ? ((CompactJsonMap) map).copy() : new LinkedHashMap<>(map);
+      owned = true;
+      if (views != null) {
+        for (Entry<String, Object> entry : views.entrySet()) {
+          map.put(entry.getKey(), entry.getValue());
+          attach(entry.getValue(), null, null);
+        }
+        views = null;
+      }
+      if (parent != null) {
+        CopyOnWriteJsonParent p = parent;
+        parent = null;
+        p.install(key, this);
+      }
+    }
+    return map;
+  }
+
+  /**
+   * @return a copy of a JSON value which shares as much as it can with it
+   */
+  @SuppressWarnings("unchecked")
+  public static Object copyOf(Object value) {
+    if (value instanceof CopyOnWriteJsonMap) {
+      return ((CopyOnWriteJsonMap) value).copy();
+    } else if (value instanceof CopyOnWriteJsonList) {
+      return ((CopyOnWriteJsonList) value).copy();
+    } else if (value instanceof LazyJsonMap) {
+      LazyJsonMap lazy = (LazyJsonMap) value;
+      if (lazy.isUnmodified()) {
+        // The bytes are never changed, so can be shared
+        return lazy.copy();
+      }
+      return new CopyOnWriteJsonMap(new LinkedHashMap<>(lazy), true).copy();
+    }
+    // Other maps and lists are never changed in place
+    return value;
+  }
+
+  /**
+   * Plain maps and lists in JSON might be shared with copies, so they are replaced by copy on write ones before they
+   * are handed out, where they could be changed.
+   */
+  @SuppressWarnings("unchecked")
+  public static Object changeable(Object value) {
+    if (value instanceof Map && !(value instanceof CopyOnWriteJsonMap) && !(value instanceof LazyJsonMap)) {
+      return new CopyOnWriteJsonMap((Map<String, Object>) value, false);
+    } else if (value instanceof List && !(value instanceof CopyOnWriteJsonList)) {
+      return new CopyOnWriteJsonList((List<Object>) value, false);
+    }
+    return value;
+  }
+
+  /*
+  Make a view report its first change to the shared map or list it came from, or stop doing so
+   */
+  static void attach(Object view, CopyOnWriteJsonParent parent, Object key) {
+    if (view instanceof CopyOnWriteJsonMap) {
+      CopyOnWriteJsonMap m = (CopyOnWriteJsonMap) view;
+      m.parent = parent;
+      m.key = key;
+    } else {
+      ((CopyOnWriteJsonList) view).attach(parent, key);
+    }
+  }
+
+  static boolean isMutable(Object value) {
+    return value instanceof CopyOnWriteJsonMap || value instanceof CopyOnWriteJsonList || value instanceof LazyJsonMap;
+  }
+
+  /*
+  Serialize as an ordinary map
+   */
+  private Object writeReplace() {
+    return new LinkedHashMap<>(this);
+  }
+}
@@ -18,12 +18,30 @@ package org.vertx.java.core.json.impl;
 
 
 
+import com.fasterxml.jackson.core.Base64Variants;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.json.DecodeException;
 import org.vertx.java.core.json.EncodeException;
 
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
@@ -37,7 +55,15 @@ public class Json {
     mapper.configure(JsonParser.Feature.ALLOW_COMMENTS, true);
   }
 
+  // Readers and writers look up their (de)serializers once, when they're created
+  private final static ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+  private final static ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+  private final static ObjectReader mapReader = mapper.reader(Map.class);
+
   public static String encode(Object obj) throws EncodeException {
+    if (obj instanceof LazyJsonMap && ((LazyJsonMap) obj).isUnmodified()) {
+      return ((LazyJsonMap) obj).toJsonString();
+    }
     try {
       return mapper.writeValueAsString(obj);
     }
@@ -46,6 +72,22 @@ public class Json {
     }
   }
 
+  /**
+   * Encode as UTF-8 straight into a {@link Buffer}, without going through a String.
+   */
+  public static Buffer encodeToBuffer(Object obj) throws EncodeException {
+    if (obj instanceof LazyJsonMap && ((LazyJsonMap) obj).isUnmodified()) {
+      return ((LazyJsonMap) obj).toBuffer();
+    }
+    ByteBuf buf = Unpooled.buffer();
+    try {
+      mapper.writeValue(new ByteBufOutputStream(buf), obj);
+      return new Buffer(buf);
+    } catch (Exception e) {
+      throw new EncodeException("Failed to encode as JSON: " + e.getMessage());
+    }
+  }
+
   public static String encodePrettily(Object obj) throws EncodeException {
     try {
       return prettyMapper.writeValueAsString(obj);
@@ -64,6 +106,136 @@ public class Json {
     }
   }
 
+  /**
+   * Decode straight from the bytes of a {@link Buffer}, without going through a String.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T decodeValue(Buffer buff, Class<?> clazz) throws DecodeException {
+    ByteBuf buf = buff.getByteBuf();
+    try {
+      if (buf.hasArray()) {
+        return decodeValue(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes(), clazz);
+      }
+      return (T)mapper.readValue(new ByteBufInputStream(buf), clazz);
+    }
+    catch (DecodeException e) {
+      throw e;
+    }
+    catch (Exception e) {
+      throw new DecodeException("Failed to decode:" + e.getMessage());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> T decodeValue(byte[] bytes, int offset, int length, Class<?> clazz) throws DecodeException {
+    try {
+      return (T)mapper.readValue(bytes, offset, length, clazz);
+    }
+    catch (Exception e) {
+      throw new DecodeException("Failed to decode:" + e.getMessage());
+    }
+  }
+
+  /**
+   * Convert a decoded JSON value, such as the map of a JSON object, to an instance of {@code clazz}, without encoding
+   * it as text and parsing it again.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T mapTo(Object value, Class<T> clazz) throws DecodeException {
+    try {
+      TokenBuffer tokens = new TokenBuffer(mapper);
+      mapper.writeValue(tokens, value);
+      return (T) reader(clazz).readValue(tokens.asParser());
+    }
+    catch (Exception e) {
+      throw new DecodeException("Failed to decode:" + e.getMessage());
+    }
+  }
+
+  /**
+   * Convert an object to the map of a JSON object, without encoding it as text and parsing it again. The values are
+   * the same as parsing would give: whole numbers are the narrowest of Integer, Long and BigInteger, other numbers are
+   * Doubles, and binary is a base64 String.
+   */
+  public static Map<String, Object> mapFrom(Object obj) throws EncodeException {
+    Map<String, Object> map;
+    try {
+      TokenBuffer tokens = new TokenBuffer(mapper);
+      writer(obj.getClass()).writeValue(tokens, obj);
+      map = mapReader.readValue(new JsonParserDelegate(tokens.asParser()) {
+        @Override
+        public double getDoubleValue() throws IOException {
+          // A float is written as its own shortest representation, which isn't the same as the widened double's
+          Number n = getNumberValue();
+          return n instanceof Float ? Double.parseDouble(n.toString()) : n.doubleValue();
+        }
+      });
+    }
+    catch (Exception e) {
+      throw new EncodeException("Failed to encode as JSON: " + e.getMessage());
+    }
+    normalizeMap(map);
+    return map;
+  }
+
+  /*
+  The token buffer hands back the values the serializers wrote, rather than what their text would be parsed as
+   */
+  @SuppressWarnings("unchecked")
+  private static Object normalize(Object value) {
+    if (value instanceof Map) {
+      normalizeMap((Map<String, Object>) value);
+    } else if (value instanceof List) {
+      ListIterator<Object> iter = ((List<Object>) value).listIterator();
+      while (iter.hasNext()) {
+        iter.set(normalize(iter.next()));
+      }
+    } else if (value instanceof Long || value instanceof Short || value instanceof Byte) {
+      long l = ((Number) value).longValue();
+      return l == (int) l ? (Object) (int) l : value;
+    } else if (value instanceof BigInteger) {
+      BigInteger big = (BigInteger) value;
+      return big.bitLength() < 64 ? normalize(big.longValue()) : big;
+    } else if (value instanceof byte[]) {
+      return Base64Variants.getDefaultVariant().encode((byte[]) value);
+    }
+    return value;
+  }
+
+  private static void normalizeMap(Map<String, Object> map) {
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      Object value = entry.getValue();
+      Object normalized = normalize(value);
+      if (normalized != value) {
+        entry.setValue(normalized);
+      }
+    }
+  }
+
+  private static ObjectReader reader(Class<?> clazz) {
+    ObjectReader reader = readers.get(clazz);
+    if (reader == null) {
+      reader = mapper.reader(clazz);
+      ObjectReader prev = readers.putIfAbsent(clazz, reader);
+      if (prev != null) {
+        reader = prev;
+      }
+    }
+    return reader;
+  }
+
+  private static ObjectWriter writer(Class<?> clazz) {
+    ObjectWriter writer = writers.get(clazz);
+    if (writer == null) {
+      writer = mapper.writerWithType(clazz);
+      ObjectWriter prev = writers.putIfAbsent(clazz, writer);
+      if (prev != null) {
+        writer = prev;
+      }
+    }
+    return writer;
+  }
+
   static {
  	 	prettyMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
   }
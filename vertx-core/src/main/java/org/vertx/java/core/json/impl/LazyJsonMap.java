@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.json.impl;
+
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.json.DecodeException;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The map of a JSON object which is backed by the UTF-8 encoded bytes of the object, and only decodes the value of a
+ * field when it is read.<p>
+ * The first access scans the bytes to find where the value of each field is, without decoding the values. A value is
+ * decoded the first time it is read, and a nested object becomes another {@code LazyJsonMap} over its part of the
+ * bytes. Anything other than reading single fields, such as iterating over the map or changing it, turns it into an
+ * ordinary {@code LinkedHashMap}, whose nested objects are still lazy.<p>
+ * While nothing has been changed the original bytes are used when the map is encoded, see {@link #isUnmodified()}.
+ * Arrays are decoded as ordinary lists, which could be changed without us knowing, so once an array has been handed
+ * out, by reading it or iterating over the map, the bytes are no longer used.<p>
+ * Invalid JSON is only reported when the part of it which is invalid is accessed.<p>
+ *
+ * Instances of this class are not thread-safe.<p>
+ */
+public class LazyJsonMap extends AbstractMap<String, Object> implements Serializable {
+
+  private final byte[] bytes;
+  private final int offset;
+  private final int length;
+
+  private Map<String, Long> index;              // Start and end of the value of each field
+  private final Map<String, Object> decoded = new HashMap<>();
+  private Map<String, Object> map;              // Once materialized
+  private boolean arrayExposed;
+
+  public LazyJsonMap(byte[] bytes) {
+    this(bytes, 0, bytes.length);
+  }
+
+  public LazyJsonMap(byte[] bytes, int offset, int length) {
+    this.bytes = bytes;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * @return true if the original bytes are still an encoding of this map, and any maps nested in it
+   */
+  public boolean isUnmodified() {
+    if (arrayExposed) {
+      return false;
+    }
+    if (map != null) {
+      if (map.size() != index.size()) {
+        return false;
+      }
+      for (Map.Entry<String, Object> entry : map.entrySet()) {
+        Object value = entry.getValue();
+        if (value != decoded.get(entry.getKey()) || (value == null && !index.containsKey(entry.getKey()))) {
+          return false;
+        }
+      }
+    }
+    for (Object value : decoded.values()) {
+      if (value instanceof LazyJsonMap && !((LazyJsonMap) value).isUnmodified()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the original bytes, which are only an encoding of the map if it {@link #isUnmodified()}
+   */
+  public Buffer toBuffer() {
+    return new Buffer(Unpooled.copiedBuffer(bytes, offset, length));
+  }
+
+  /**
+   * @return the original bytes as a String, which is only an encoding of the map if it {@link #isUnmodified()}
+   */
+  public String toJsonString() {
+    return new String(bytes, offset, length, CharsetUtil.UTF_8);
+  }
+
+  /**
+   * @return a new lazy map over the same bytes, which only holds the same fields if this map {@link #isUnmodified()}
+   */
+  public LazyJsonMap copy() {
+    return new LazyJsonMap(bytes, offset, length);
+  }
+
+  @Override
+  public Object get(Object key) {
+    Object value;
+    if (map != null) {
+      value = map.get(key);
+    } else {
+      value = key instanceof String ? decode((String) key) : null;
+    }
+    if (value instanceof List) {
+      arrayExposed = true;
+    }
+    return value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (map != null) {
+      return map.containsKey(key);
+    }
+    return index().containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    if (map != null) {
+      return map.size();
+    }
+    return index().size();
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    return materialize().put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    return materialize().remove(key);
+  }
+
+  @Override
+  public void clear() {
+    materialize().clear();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return materialize().keySet();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    Map<String, Object> m = materialize();
+    for (Object value : m.values()) {
+      if (value instanceof List) {
+        arrayExposed = true;
+        break;
+      }
+    }
+    return m.entrySet();
+  }
+
+  private Map<String, Object> materialize() {
+    if (map == null) {
+      Map<String, Long> idx = index();
+      Map<String, Object> m = new LinkedHashMap<>(idx.size());
+      for (String key : idx.keySet()) {
+        m.put(key, decode(key));
+      }
+      map = m;
+    }
+    return map;
+  }
+
+  private Object decode(String key) {
+    Object value = decoded.get(key);
+    if (value == null && !decoded.containsKey(key)) {
+      Long pos = index().get(key);
+      if (pos == null) {
+        return null;
+      }
+      int start = (int) (pos >>> 32);
+      int end = (int) pos.longValue();
+      if (bytes[start] == '{') {
+        value = new LazyJsonMap(bytes, start, end - start);
+      } else {
+        value = Json.decodeValue(bytes, start, end - start, Object.class);
+      }
+      decoded.put(key, value);
+    }
+    return value;
+  }
+
+  private Map<String, Long> index() {
+    if (index == null) {
+      Map<String, Long> idx = new LinkedHashMap<>();
+      int end = offset + length;
+      int pos = skipWhitespace(offset, end);
+      expect(pos, end, '{');
+      pos = skipWhitespace(pos + 1, end);
+      if (pos < end && bytes[pos] == '}') {
+        index = idx;
+        return idx;
+      }
+      while (true) {
+        expect(pos, end, '"');
+        int nameEnd = skipString(pos, end);
+        String name = decodeName(pos, nameEnd);
+        pos = skipWhitespace(nameEnd, end);
+        expect(pos, end, ':');
+        int valueStart = skipWhitespace(pos + 1, end);
+        int valueEnd = skipValue(valueStart, end);
+        // As when decoding into a map, a repeated field keeps its first position and its last value
+        idx.put(name, ((long) valueStart << 32) | valueEnd);
+        pos = skipWhitespace(valueEnd, end);
+        if (pos < end && bytes[pos] == ',') {
+          pos = skipWhitespace(pos + 1, end);
+        } else {
+          expect(pos, end, '}');
+          break;
+        }
+      }
+      index = idx;
+    }
+    return index;
+  }
+
+  private String decodeName(int start, int end) {
+    for (int i = start + 1; i < end - 1; i++) {
+      if (bytes[i] == '\\') {
+        return Json.decodeValue(bytes, start, end - start, String.class);
+      }
+    }
+    return new String(bytes, start + 1, end - start - 2, CharsetUtil.UTF_8);
+  }
+
+  /*
+  Skip whitespace and comments
+   */
+  private int skipWhitespace(int pos, int end) {
+    while (pos < end) {
+      byte c = bytes[pos];
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        pos++;
+      } else if (c == '/' && pos + 1 < end && bytes[pos + 1] == '/') {
+        pos += 2;
+        while (pos < end && bytes[pos] != '\n' && bytes[pos] != '\r') {
+          pos++;
+        }
+      } else if (c == '/' && pos + 1 < end && bytes[pos + 1] == '*') {
+        pos += 2;
+        while (pos + 1 < end && !(bytes[pos] == '*' && bytes[pos + 1] == '/')) {
+          pos++;
+        }
+        if (pos + 1 >= end) {
+          throw error("Unterminated comment", pos);
+        }
+        pos += 2;
+      } else {
+        break;
+      }
+    }
+    return pos;
+  }
+
+  /*
+  Returns the position after the closing quote
+   */
+  private int skipString(int pos, int end) {
+    for (int i = pos + 1; i < end; i++) {
+      byte c = bytes[i];
+      if (c == '\\') {
+        i++;
+      } else if (c == '"') {
+        return i + 1;
+      }
+    }
+    throw error("Unterminated string", pos);
+  }
+
+  /*
+  Find the end of a value, without checking it's valid apart from its nesting
+   */
+  private int skipValue(int pos, int end) {
+    if (pos >= end) {
+      throw error("Missing value", pos);
+    }
+    byte c = bytes[pos];
+    if (c == '"') {
+      return skipString(pos, end);
+    }
+    if (c == '{' || c == '[') {
+      int depth = 0;
+      int i = pos;
+      while (i < end) {
+        c = bytes[i];
+        if (c == '"') {
+          i = skipString(i, end);
+          continue;
+        } else if (c == '/') {
+          int next = skipWhitespace(i, end);
+          if (next == i) {
+            throw error("Unexpected character '/'", i);
+          }
+          i = next;
+          continue;
+        } else if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          if (--depth == 0) {
+            return i + 1;
+          }
+        }
+        i++;
+      }
+      throw error("Unexpected end of input", end);
+    }
+    int i = pos;
+    while (i < end) {
+      c = bytes[i];
+      if (c == ',' || c == '}' || c == ']' || c == '/' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        break;
+      }
+      i++;
+    }
+    if (i == pos) {
+      throw error("Unexpected character '" + (char) c + "'", pos);
+    }
+    return i;
+  }
+
+  private void expect(int pos, int end, char c) {
+    if (pos >= end) {
+      throw error("Unexpected end of input, expected '" + c + "'", pos);
+    }
+    if (bytes[pos] != c) {
+      throw error("Expected '" + c + "' but found '" + (char) (bytes[pos] & 0xFF) + "'", pos);
+    }
+  }
+
+  private DecodeException error(String message, int pos) {
+    return new DecodeException("Failed to decode:" + message + " at offset " + (pos - offset));
+  }
+
+  /*
+  Serialize as an ordinary map
+   */
+  private Object writeReplace() {
+    return new LinkedHashMap<>(this);
+  }
+}
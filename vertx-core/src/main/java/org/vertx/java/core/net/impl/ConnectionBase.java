@@ -16,13 +16,17 @@
 
 package org.vertx.java.core.net.impl;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
 import io.netty.channel.*;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.stream.ChunkedFile;
+import io.netty.util.ReferenceCountUtil;
 import org.vertx.java.core.AsyncResult;
 import org.vertx.java.core.Handler;
 import org.vertx.java.core.impl.DefaultContext;
 import org.vertx.java.core.impl.DefaultFutureResult;
+import org.vertx.java.core.impl.ResourceUsage;
 import org.vertx.java.core.impl.VertxInternal;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
@@ -43,8 +47,22 @@ public abstract class ConnectionBase {
     this.vertx = vertx;
     this.channel = channel;
     this.context = context;
+    final ResourceUsage usage = context.getResourceUsage();
+    if (usage != null) {
+      usage.socketOpened();
+      channel.closeFuture().addListener(new ChannelFutureListener() {
+        public void operationComplete(ChannelFuture future) throws Exception {
+          usage.socketClosed();
+        }
+      });
+    }
   }
 
+  /**
+   * The number of bytes written while reading which are flushed, rather than waiting for the read to end
+   */
+  public static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+
   protected final VertxInternal vertx;
   protected final Channel channel;
   protected final DefaultContext context;
@@ -55,6 +73,18 @@ public abstract class ConnectionBase {
 
   private boolean read;
   private boolean needsFlush;
+  private int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+  private long unflushedBytes;
+  private boolean deferFlushes;
+  private boolean flushScheduled;
+  private final Runnable flushTask = new Runnable() {
+    public void run() {
+      flushScheduled = false;
+      if (!read) {
+        endReadAndFlush();
+      }
+    }
+  };
 
   public final void startRead() {
     read = true;
@@ -64,6 +94,7 @@ public abstract class ConnectionBase {
     read = false;
     if (needsFlush) {
       needsFlush = false;
+      unflushedBytes = 0;
       // flush now
       channel.flush();
     }
@@ -71,7 +102,39 @@ public abstract class ConnectionBase {
 
   public ChannelFuture queueForWrite(final Object obj) {
     needsFlush = true;
-    return channel.write(obj);
+    // The size has to be found before writing, as the write releases the message
+    unflushedBytes += sizeOf(obj);
+    ChannelFuture future = channel.write(obj);
+    if (unflushedBytes >= flushThreshold) {
+      // Don't hold on to too much until the read ends
+      needsFlush = false;
+      unflushedBytes = 0;
+      channel.flush();
+    }
+    return future;
+  }
+
+  protected void setFlushThreshold(int flushThreshold) {
+    this.flushThreshold = flushThreshold;
+  }
+
+  /**
+   * Don't flush each write made on the event loop of the connection outside of a read, but flush them together
+   * once the tasks the event loop already has are done.
+   */
+  protected void deferFlushes() {
+    deferFlushes = true;
+  }
+
+  private static long sizeOf(Object obj) {
+    if (obj instanceof ByteBuf) {
+      return ((ByteBuf) obj).readableBytes();
+    } else if (obj instanceof ByteBufHolder) {
+      return ((ByteBufHolder) obj).content().readableBytes();
+    } else if (obj instanceof FileRegion) {
+      return ((FileRegion) obj).count();
+    }
+    return 0;
   }
 
   public ChannelFuture write(Object obj) {
@@ -79,8 +142,19 @@ public abstract class ConnectionBase {
       return queueForWrite(obj);
     }
     if (channel.isOpen()) {
+      if (deferFlushes && channel.eventLoop().inEventLoop()) {
+        // Flush once the event loop is done with what it's doing, so writes made until then are flushed together
+        ChannelFuture future = queueForWrite(obj);
+        if (needsFlush && !flushScheduled) {
+          flushScheduled = true;
+          channel.eventLoop().execute(flushTask);
+        }
+        return future;
+      }
       return channel.writeAndFlush(obj);
     } else {
+      // The message is owned by the write, so release it as the channel would have done
+      ReferenceCountUtil.release(obj);
       return null;
     }
   }
@@ -23,7 +23,6 @@ import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.ChannelGroupFuture;
 import io.netty.channel.group.ChannelGroupFutureListener;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.concurrent.Future;
@@ -65,14 +64,17 @@ public class DefaultNetServer implements NetServer, Closeable {
   private boolean listening;
   private volatile ServerID id;
   private DefaultNetServer actualServer;
-  private final VertxEventLoopGroup availableWorkers = new VertxEventLoopGroup();
-  private final HandlerManager<NetSocket> handlerManager = new HandlerManager<>(availableWorkers);
+  private final VertxEventLoopGroup availableWorkers;
+  private final HandlerManager<NetSocket> handlerManager;
   private String host;
   private volatile int port;
   private ChannelFuture bindFuture;
+  private ReusePortAcceptors reusePortAcceptors;
 
   public DefaultNetServer(VertxInternal vertx) {
     this.vertx = vertx;
+    availableWorkers = new VertxEventLoopGroup(vertx.eventLoopSelector());
+    handlerManager = new HandlerManager<>(availableWorkers);
     actualCtx = vertx.getOrCreateContext();
     actualCtx.addCloseHook(this);
     tcpHelper.setReuseAddress(true);
@@ -116,8 +118,11 @@ public class DefaultNetServer implements NetServer, Closeable {
         serverChannelGroup = new DefaultChannelGroup("vertx-acceptor-channels", GlobalEventExecutor.INSTANCE);
 
         ServerBootstrap bootstrap = new ServerBootstrap();
-        bootstrap.group(availableWorkers);
-        bootstrap.channel(NioServerSocketChannel.class);
+        boolean reusePort = useReusePort();
+        if (!reusePort) {
+          bootstrap.group(availableWorkers);
+        }
+        bootstrap.channel(NativeTransport.serverSocketChannelType());
         tcpHelper.checkSSL(vertx);
 
         bootstrap.childHandler(new ChannelInitializer<Channel>() {
@@ -145,7 +150,14 @@ public class DefaultNetServer implements NetServer, Closeable {
 
         try {
           InetSocketAddress addr = new InetSocketAddress(InetAddress.getByName(host), port);
-          bindFuture = bootstrap.bind(addr).addListener(new ChannelFutureListener() {
+          if (reusePort) {
+            // Each event loop gets its own acceptor, this is the first one
+            reusePortAcceptors = new ReusePortAcceptors(bootstrap, serverChannelGroup);
+            bindFuture = reusePortAcceptors.bind(actualCtx.getEventLoop(), addr);
+          } else {
+            bindFuture = bootstrap.bind(addr);
+          }
+          bindFuture.addListener(new ChannelFutureListener() {
             @Override
             public void operationComplete(ChannelFuture future) throws Exception {
               runListeners();
@@ -195,6 +207,9 @@ public class DefaultNetServer implements NetServer, Closeable {
           // Share the event loop thread to also serve the NetServer's network traffic.
           actualServer.handlerManager.addHandler(connectHandler, actualCtx);
         }
+        if (actualServer.reusePortAcceptors != null) {
+          actualServer.bindReusePortAcceptor(actualCtx.getEventLoop());
+        }
       }
 
       // just add it to the future so it gets notified once the bind is complete
@@ -226,6 +241,37 @@ public class DefaultNetServer implements NetServer, Closeable {
     return this;
   }
 
+  private boolean useReusePort() {
+    if (tcpHelper.isReusePort() && !NativeTransport.isNative()) {
+      log.warn("SO_REUSEPORT requires the native transport, the event loops will share a single acceptor");
+      return false;
+    }
+    return tcpHelper.isReusePort();
+  }
+
+  // Once the server is bound on its actual port, bind another acceptor on the same port for the event loop
+  private void bindReusePortAcceptor(final EventLoop eventLoop) {
+    addListener(new Runnable() {
+      @Override
+      public void run() {
+        // The handler might have been removed in the meantime
+        if (bindFuture.isSuccess() && availableWorkers.contains(eventLoop)) {
+          ChannelFuture fut = reusePortAcceptors.bind(eventLoop, bindFuture.channel().localAddress());
+          if (fut != null) {
+            fut.addListener(new ChannelFutureListener() {
+              @Override
+              public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                  log.error("Failed to bind acceptor for " + id, future.cause());
+                }
+              }
+            });
+          }
+        }
+      }
+    });
+  }
+
   private Queue<Runnable> bindListeners = new ConcurrentLinkedQueue<>();
 
   private boolean listenersRun;
@@ -267,6 +313,11 @@ public class DefaultNetServer implements NetServer, Closeable {
 
         if (actualServer.handlerManager.hasHandlers()) {
           // The actual server still has handlers so we don't actually close it
+          EventLoop eventLoop = actualCtx.getEventLoop();
+          if (actualServer.reusePortAcceptors != null && !actualServer.availableWorkers.contains(eventLoop)) {
+            // But nothing is left to handle the connections accepted on this event loop
+            actualServer.reusePortAcceptors.close(eventLoop);
+          }
           if (done != null) {
             executeCloseDone(actualCtx, done, null);
           }
@@ -331,6 +382,11 @@ public class DefaultNetServer implements NetServer, Closeable {
     return tcpHelper.getAcceptBacklog();
   }
 
+  @Override
+  public boolean isReusePort() {
+    return tcpHelper.isReusePort();
+  }
+
   @Override
   public NetServer setTCPNoDelay(boolean tcpNoDelay) {
     checkListening();
@@ -387,6 +443,13 @@ public class DefaultNetServer implements NetServer, Closeable {
     return this;
   }
 
+  @Override
+  public NetServer setReusePort(boolean reusePort) {
+    checkListening();
+    tcpHelper.setReusePort(reusePort);
+    return this;
+  }
+
   @Override
   public boolean isSSL() {
     return tcpHelper.isSSL();
@@ -298,11 +298,14 @@ public class DefaultNetSocket extends ConnectionBase implements NetSocket {
       public void operationComplete(final Future<Channel> future) throws Exception {
         if (context.isOnCorrectWorker(channel.eventLoop())) {
           if (future.isSuccess()) {
+            long token = context.startTask();
             try {
               vertx.setContext(context);
               handler.handle(null);
             } catch (Throwable t) {
               context.reportException(t);
+            } finally {
+              context.endTask(token);
             }
           } else {
             context.reportException(future.cause());
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.net.impl;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.InternetProtocolFamily;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.vertx.java.core.logging.Logger;
+import org.vertx.java.core.logging.impl.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decides which Netty transport is used for all the channels of vert.x.
+ *
+ * By default the NIO selector transport is used. If the system property {@code vertx.net.native} is set to true and
+ * Netty's native epoll transport can be loaded (i.e. we are on Linux and the native library is available) the epoll
+ * transport is used instead, otherwise we fall back to NIO.
+ *
+ * Channels must be registered with an event loop of the same transport, so the event loop group and every channel
+ * vert.x creates has to go through this class.
+ */
+public final class NativeTransport {
+
+  private static final Logger log = LoggerFactory.getLogger(NativeTransport.class);
+
+  private static final boolean NATIVE = useNative();
+
+  private NativeTransport() {
+  }
+
+  private static boolean useNative() {
+    if (!Boolean.getBoolean("vertx.net.native")) {
+      return false;
+    }
+    boolean available;
+    try {
+      available = Epoll.isAvailable();
+    } catch (Throwable t) {
+      available = false;
+    }
+    if (!available) {
+      log.warn("Native transport requested but not available on this platform, falling back to NIO");
+    }
+    return available;
+  }
+
+  /**
+   * @return true if the native epoll transport is in use
+   */
+  public static boolean isNative() {
+    return NATIVE;
+  }
+
+  public static EventLoopGroup eventLoopGroup(int threads, ThreadFactory threadFactory) {
+    return NATIVE ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+  }
+
+  public static Class<? extends ServerChannel> serverSocketChannelType() {
+    return NATIVE ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+  }
+
+  public static Class<? extends Channel> socketChannelType() {
+    return NATIVE ? EpollSocketChannel.class : NioSocketChannel.class;
+  }
+
+  public static Class<? extends DatagramChannel> datagramChannelType() {
+    return NATIVE ? EpollDatagramChannel.class : NioDatagramChannel.class;
+  }
+
+  /**
+   * Create a datagram channel. The native transport does not support choosing the protocol family, nor multicast.
+   */
+  public static DatagramChannel datagramChannel(InternetProtocolFamily family) {
+    if (NATIVE) {
+      return new EpollDatagramChannel();
+    } else if (family == null) {
+      return new NioDatagramChannel();
+    } else {
+      return new NioDatagramChannel(family);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.net.impl;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoop;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.group.ChannelGroup;
+
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps one listening channel per event loop for a server which binds with SO_REUSEPORT.
+ *
+ * Each acceptor is registered with, and hands its accepted connections to, its own event loop so the kernel spreads
+ * incoming connections across the event loops instead of a single acceptor being the bottleneck.
+ *
+ * Only available with the native transport.
+ */
+public class ReusePortAcceptors {
+
+  private final ServerBootstrap bootstrap;
+  private final ChannelGroup serverChannelGroup;
+  private final Map<EventLoop, Channel> acceptors = new HashMap<>();
+
+  /**
+   * @param bootstrap the configured bootstrap of the server, used as a template for each acceptor
+   */
+  public ReusePortAcceptors(ServerBootstrap bootstrap, ChannelGroup serverChannelGroup) {
+    this.bootstrap = bootstrap;
+    this.serverChannelGroup = serverChannelGroup;
+  }
+
+  /**
+   * Bind an acceptor for the event loop, unless there is one already
+   *
+   * @return the bind future, or null if the event loop already has an acceptor
+   */
+  public synchronized ChannelFuture bind(EventLoop eventLoop, SocketAddress address) {
+    if (acceptors.containsKey(eventLoop)) {
+      return null;
+    }
+    ServerBootstrap b = bootstrap.clone();
+    b.group(eventLoop);
+    b.option(EpollChannelOption.SO_REUSEPORT, true);
+    ChannelFuture future = b.bind(address);
+    Channel ch = future.channel();
+    acceptors.put(eventLoop, ch);
+    serverChannelGroup.add(ch);
+    return future;
+  }
+
+  /**
+   * Stop accepting connections on the event loop
+   */
+  public synchronized void close(EventLoop eventLoop) {
+    Channel ch = acceptors.remove(eventLoop);
+    if (ch != null) {
+      serverChannelGroup.remove(ch);
+      ch.close();
+    }
+  }
+
+  public synchronized int size() {
+    return acceptors.size();
+  }
+}
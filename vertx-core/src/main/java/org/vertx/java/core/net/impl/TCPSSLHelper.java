@@ -61,6 +61,7 @@ public class TCPSSLHelper {
   private int tcpReceiveBufferSize = -1;
   private boolean tcpKeepAlive = defaults.isTcpKeepAlive();
   private boolean reuseAddress = defaults.isReuseAddress();
+  private boolean reusePort;
   private int soLinger = defaults.getSoLinger();
   private int trafficClass = -1;
   private int acceptBackLog = 1024;
@@ -141,6 +142,10 @@ public class TCPSSLHelper {
     return reuseAddress;
   }
 
+  public boolean isReusePort() {
+    return reusePort;
+  }
+
   public int getSoLinger() {
     return soLinger;
   }
@@ -175,6 +180,10 @@ public class TCPSSLHelper {
     this.reuseAddress = reuse;
   }
 
+  public void setReusePort(boolean reusePort) {
+    this.reusePort = reusePort;
+  }
+
   public void setSoLinger(int linger) {
     this.soLinger = linger;
   }
@@ -18,6 +18,7 @@ package org.vertx.java.core.net.impl;
 
 import io.netty.channel.*;
 import io.netty.util.concurrent.*;
+import org.vertx.java.core.impl.EventLoopSelector;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -33,22 +34,41 @@ import java.util.concurrent.atomic.AtomicInteger;
 @SuppressWarnings("deprecation")
 public final class VertxEventLoopGroup extends AbstractEventExecutorGroup implements EventLoopGroup {
 
-  private int pos;
+  private static final EventLoop[] EMPTY = new EventLoop[0];
+
+  private final AtomicInteger pos = new AtomicInteger();
+  private final EventLoopSelector selector;
+  // Snapshot of the workers so next() can be called without taking the lock
+  private volatile EventLoop[] loops = EMPTY;
 
   private final List<EventLoopHolder> workers = new ArrayList<>();
   private final CountDownLatch latch = new CountDownLatch(1);
   private final AtomicBoolean gracefulShutdown = new AtomicBoolean();
   private final Promise<?> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
 
+  public VertxEventLoopGroup() {
+    this(null);
+  }
+
+  /**
+   * @param selector if not null, used to choose the least loaded of the available workers, otherwise workers are
+   *                 chosen round-robin
+   */
+  public VertxEventLoopGroup(EventLoopSelector selector) {
+    this.selector = selector;
+  }
+
   @Override
-  public synchronized EventLoop next() {
-    if (workers.isEmpty()) {
+  public EventLoop next() {
+    EventLoop[] loops = this.loops;
+    if (loops.length == 0) {
       throw new IllegalStateException();
+    }
+    int start = (pos.getAndIncrement() & Integer.MAX_VALUE) % loops.length;
+    if (selector == null) {
+      return loops[start];
     } else {
-      EventLoop worker = workers.get(pos).worker;
-      pos++;
-      checkPos();
-      return worker;
+      return selector.next(loops, start);
     }
   }
 
@@ -90,6 +110,7 @@ public final class VertxEventLoopGroup extends AbstractEventExecutorGroup implem
     } else {
       holder.count++;
     }
+    updateLoops();
   }
 
   public synchronized void shutdown() {
@@ -145,20 +166,26 @@ public final class VertxEventLoopGroup extends AbstractEventExecutorGroup implem
       if (holder.count == 0) {
         workers.remove(holder);
       }
-      checkPos();
+      updateLoops();
     } else {
       throw new IllegalStateException("Can't find worker to remove");
     }
   }
 
+  public synchronized boolean contains(EventLoop worker) {
+    return findHolder(worker) != null;
+  }
+
   public synchronized int workerCount() {
     return workers.size();
   }
 
-  private void checkPos() {
-    if (pos == workers.size()) {
-      pos = 0;
+  private void updateLoops() {
+    EventLoop[] loops = new EventLoop[workers.size()];
+    for (int i = 0; i < loops.length; i++) {
+      loops[i] = workers.get(i).worker;
     }
+    this.loops = loops;
   }
 
   private static class EventLoopHolder {
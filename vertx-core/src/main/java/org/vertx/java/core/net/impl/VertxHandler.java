@@ -62,6 +62,18 @@ public abstract class VertxHandler<C extends ConnectionBase> extends ChannelDupl
     return buf;
   }
 
+  @Override
+  public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
+    vertx.eventLoopSelector().channelRegistered(ctx.channel().eventLoop());
+    super.channelRegistered(ctx);
+  }
+
+  @Override
+  public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
+    vertx.eventLoopSelector().channelUnregistered(ctx.channel().eventLoop());
+    super.channelUnregistered(ctx);
+  }
+
   @Override
   public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
     final Channel ch = ctx.channel();
@@ -70,11 +82,14 @@ public abstract class VertxHandler<C extends ConnectionBase> extends ChannelDupl
       conn.setWritable(ctx.channel().isWritable());
       DefaultContext context = getContext(conn);
       if (context.isOnCorrectWorker(ch.eventLoop())) {
+        long token = context.startTask();
         try {
           vertx.setContext(context);
           conn.handleInterestedOpsChanged();
         } catch (Throwable t) {
           context.reportException(t);
+        } finally {
+          context.endTask(token);
         }
       } else {
         context.execute(new Runnable() {
@@ -42,6 +42,7 @@ public class VertxNetHandler extends VertxHandler<DefaultNetSocket> {
       Channel ch = chctx.channel();
       // We need to do this since it's possible the server is being used from a worker context
       if (context.isOnCorrectWorker(ch.eventLoop())) {
+        long token = context.startTask();
         try {
           vertx.setContext(context);
           try {
@@ -51,6 +52,8 @@ public class VertxNetHandler extends VertxHandler<DefaultNetSocket> {
           }
         } catch (Throwable t) {
           context.reportException(t);
+        } finally {
+          context.endTask(token);
         }
       } else {
         context.execute(new Runnable() {
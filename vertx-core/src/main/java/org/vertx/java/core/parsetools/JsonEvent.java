@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.parsetools;
+
+import org.vertx.java.core.json.JsonArray;
+import org.vertx.java.core.json.JsonObject;
+
+/**
+ * An event emitted by a {@link JsonParser}.<p>
+ * Numbers are represented by an {@code Integer}, {@code Long} or {@code BigInteger} if they are integral, choosing the
+ * smallest which can hold the value, and otherwise by a {@code Double}. This is the same as you would get from
+ * {@link JsonObject#JsonObject(String)}.<p>
+ */
+public class JsonEvent {
+
+  private final JsonEventType type;
+  private final String fieldName;
+  private final Object value;
+
+  JsonEvent(JsonEventType type, String fieldName, Object value) {
+    this.type = type;
+    this.fieldName = fieldName;
+    this.value = value;
+  }
+
+  public JsonEventType type() {
+    return type;
+  }
+
+  /**
+   * @return the name of the field this event belongs to if it is directly inside an object, otherwise {@code null}.
+   * It is always {@code null} for {@link JsonEventType#END_OBJECT} and {@link JsonEventType#END_ARRAY} events
+   */
+  public String fieldName() {
+    return fieldName;
+  }
+
+  /**
+   * @return the value of a {@link JsonEventType#VALUE} event, otherwise {@code null}
+   */
+  public Object value() {
+    return value;
+  }
+
+  public boolean isNull() {
+    return type == JsonEventType.VALUE && value == null;
+  }
+
+  public boolean isObject() {
+    return value instanceof JsonObject;
+  }
+
+  public boolean isArray() {
+    return value instanceof JsonArray;
+  }
+
+  public String stringValue() {
+    return (String) value;
+  }
+
+  public Number numberValue() {
+    return (Number) value;
+  }
+
+  public Boolean booleanValue() {
+    return (Boolean) value;
+  }
+
+  public JsonObject objectValue() {
+    return (JsonObject) value;
+  }
+
+  public JsonArray arrayValue() {
+    return (JsonArray) value;
+  }
+
+  @Override
+  public String toString() {
+    return fieldName == null ? type + "(" + value + ")" : type + "(" + fieldName + ": " + value + ")";
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.parsetools;
+
+/**
+ * The types of event emitted by a {@link JsonParser}.
+ */
+public enum JsonEventType {
+
+  /**
+   * The start of a JSON object, i.e. a <code>{</code>.
+   */
+  START_OBJECT,
+
+  /**
+   * The end of a JSON object, i.e. a <code>}</code>.
+   */
+  END_OBJECT,
+
+  /**
+   * The start of a JSON array, i.e. a <code>[</code>.
+   */
+  START_ARRAY,
+
+  /**
+   * The end of a JSON array, i.e. a <code>]</code>.
+   */
+  END_ARRAY,
+
+  /**
+   * A complete value: a string, number, boolean or null, or a whole {@code JsonObject} or {@code JsonArray} when the
+   * parser is in object or array value mode.
+   */
+  VALUE
+}
@@ -0,0 +1,683 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.parsetools;
+
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.json.DecodeException;
+import org.vertx.java.core.json.JsonArray;
+import org.vertx.java.core.json.JsonObject;
+import org.vertx.java.core.streams.ReadSupport;
+import org.vertx.java.core.streams.WriteStream;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A streaming JSON parser, which parses JSON as it arrives in {@link Buffer} chunks rather than requiring the whole
+ * document to be in memory first.<p>
+ * Instances of this class take as input {@link Buffer} instances containing UTF-8 encoded JSON, and output
+ * {@link JsonEvent}s to the {@code dataHandler}. By default an event is emitted for the start and end of each object
+ * and array, and for each string, number, boolean and null. Chunks can be split anywhere, even in the middle of a
+ * multi-byte character. Several JSON values can follow each other in the input, e.g. one per line.<p>
+ * In object value mode every object is emitted as a single {@link JsonEventType#VALUE} event holding a
+ * {@link JsonObject}, rather than as separate events; array value mode does the same for arrays. Together with the
+ * default mode this lets you, for example, walk the events of an enclosing array and have each of its elements
+ * delivered as a whole object. The mode can be changed on the fly from a {@code dataHandler}, and applies from the
+ * next object or array which starts.<p>
+ * The parser is also a {@link WriteStream}, so a {@link org.vertx.java.core.streams.Pump} can be used to feed it from
+ * an {@link org.vertx.java.core.http.HttpServerRequest}, {@link org.vertx.java.core.net.NetSocket} or
+ * {@link org.vertx.java.core.file.AsyncFile}. When the parser is paused the input is queued, and once more than
+ * the write queue max size is queued {@link #writeQueueFull()} returns {@code true} so the pump pauses the source:<p>
+ * <pre>
+ * final JsonParser parser = JsonParser.newParser().objectValueMode();
+ * parser.dataHandler(new Handler&lt;JsonEvent&gt;() {
+ *   public void handle(JsonEvent event) {
+ *     // One event per top level object
+ *   }
+ * });
+ * request.endHandler(new VoidHandler() {
+ *   public void handle() {
+ *     parser.end();
+ *   }
+ * });
+ * Pump.createPump(request, parser).start();
+ * </pre>
+ * Invalid input results in a {@link DecodeException} being passed to the {@code exceptionHandler}, or thrown from
+ * {@link #write} if there is none. After that any further input is ignored.<p>
+ * Comments are allowed, as they are by {@link JsonObject#JsonObject(String)}.<p>
+ *
+ * Instances of this class are not thread-safe.<p>
+ */
+public class JsonParser implements Handler<Buffer>, WriteStream<JsonParser>, ReadSupport<JsonParser, JsonEvent> {
+
+  private static final int DEFAULT_WRITE_QUEUE_MAX_SIZE = 64 * 1024;
+  private static final int MAX_RETAINED_TOKEN_SIZE = 8 * 1024;
+  private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+  // The token currently being read
+  private static final int TOKEN_NONE = 0;
+  private static final int TOKEN_STRING = 1;
+  private static final int TOKEN_ESCAPE = 2;
+  private static final int TOKEN_UNICODE_ESCAPE = 3;
+  private static final int TOKEN_NUMBER = 4;
+  private static final int TOKEN_LITERAL = 5;
+  private static final int TOKEN_COMMENT_START = 6;
+  private static final int TOKEN_LINE_COMMENT = 7;
+  private static final int TOKEN_BLOCK_COMMENT = 8;
+  private static final int TOKEN_BLOCK_COMMENT_END = 9;
+
+  // What may come next inside an object or array
+  private static final int EXPECT_VALUE = 0;
+  private static final int EXPECT_FIRST_ELEMENT = 1;  // A value or ']'
+  private static final int EXPECT_FIRST_FIELD = 2;    // A field name or '}'
+  private static final int EXPECT_FIELD = 3;
+  private static final int EXPECT_COLON = 4;
+  private static final int EXPECT_COMMA = 5;          // A ',' or the end of the object or array
+
+  private final ArrayDeque<Buffer> pending = new ArrayDeque<>();
+  private final ArrayDeque<JsonEvent> events = new ArrayDeque<>();
+  private final List<Frame> frames = new ArrayList<>();
+  private StringBuilder token = new StringBuilder();
+
+  private int pendingPos;       // Position in the first pending buffer
+  private int pendingBytes;
+  private long offset;          // Offset in the input of the current byte
+  private int tokenState;
+  private int escapeDigits;
+  private int escapeValue;
+  private int utf8Remaining;
+  private int utf8CodePoint;
+
+  private boolean objectValueMode;
+  private boolean arrayValueMode;
+  private boolean paused;
+  private boolean processing;
+  private boolean ended;
+  private boolean finished;
+  private boolean endSent;
+  private boolean failed;
+  private int maxWriteQueueSize = DEFAULT_WRITE_QUEUE_MAX_SIZE;
+
+  private Handler<JsonEvent> dataHandler;
+  private Handler<Void> endHandler;
+  private Handler<Void> drainHandler;
+  private Handler<Throwable> exceptionHandler;
+
+  private JsonParser() {
+  }
+
+  /**
+   * Create a new {@code JsonParser} instance, which emits an event for each token.
+   */
+  public static JsonParser newParser() {
+    return new JsonParser();
+  }
+
+  /**
+   * Create a new {@code JsonParser} instance, which emits an event for each token to {@code handler}.
+   */
+  public static JsonParser newParser(Handler<JsonEvent> handler) {
+    return new JsonParser().dataHandler(handler);
+  }
+
+  /**
+   * Emit each object as a single {@link JsonObject} value.
+   */
+  public JsonParser objectValueMode() {
+    objectValueMode = true;
+    return this;
+  }
+
+  /**
+   * Emit each array as a single {@link JsonArray} value.
+   */
+  public JsonParser arrayValueMode() {
+    arrayValueMode = true;
+    return this;
+  }
+
+  /**
+   * Emit separate events for the contents of objects and arrays. This is the default.
+   */
+  public JsonParser tokenMode() {
+    objectValueMode = false;
+    arrayValueMode = false;
+    return this;
+  }
+
+  /**
+   * This method is called to provide the parser with data.
+   */
+  public void handle(Buffer buffer) {
+    write(buffer);
+  }
+
+  @Override
+  public JsonParser write(Buffer data) {
+    if (ended) {
+      throw new IllegalStateException("Parser has been ended");
+    }
+    if (!failed && data.length() > 0) {
+      pending.add(data);
+      pendingBytes += data.length();
+      process();
+    }
+    return this;
+  }
+
+  /**
+   * Signal the end of the input. Any remaining events are emitted, and then the {@code endHandler} is called, or a
+   * {@link DecodeException} results if the input ended in the middle of a value.
+   */
+  public void end() {
+    if (!ended) {
+      ended = true;
+      process();
+    }
+  }
+
+  @Override
+  public JsonParser dataHandler(Handler<JsonEvent> handler) {
+    this.dataHandler = handler;
+    return this;
+  }
+
+  public JsonParser endHandler(Handler<Void> endHandler) {
+    this.endHandler = endHandler;
+    return this;
+  }
+
+  @Override
+  public JsonParser exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public JsonParser pause() {
+    paused = true;
+    return this;
+  }
+
+  @Override
+  public JsonParser resume() {
+    if (paused) {
+      paused = false;
+      process();
+    }
+    return this;
+  }
+
+  @Override
+  public JsonParser setWriteQueueMaxSize(int maxSize) {
+    this.maxWriteQueueSize = maxSize;
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return pendingBytes >= maxWriteQueueSize;
+  }
+
+  @Override
+  public JsonParser drainHandler(Handler<Void> handler) {
+    this.drainHandler = handler;
+    return this;
+  }
+
+  private void process() {
+    if (processing) {
+      // Called from a handler, the outer call will carry on
+      return;
+    }
+    processing = true;
+    try {
+      while (!paused && !failed) {
+        JsonEvent event = events.poll();
+        if (event != null) {
+          if (dataHandler != null) {
+            dataHandler.handle(event);
+          }
+          continue;
+        }
+        Buffer buff = pending.peek();
+        if (buff == null) {
+          if (!ended || endSent) {
+            break;
+          }
+          if (!finished) {
+            finish();
+            continue;
+          }
+          endSent = true;
+          if (endHandler != null) {
+            endHandler.handle(null);
+          }
+          break;
+        }
+        int len = buff.length();
+        while (pendingPos < len && events.isEmpty() && !failed) {
+          int c = buff.getByte(pendingPos++) & 0xFF;
+          pendingBytes--;
+          consume(c);
+          offset++;
+        }
+        if (pendingPos == len) {
+          pending.poll();
+          pendingPos = 0;
+        }
+      }
+    } finally {
+      processing = false;
+    }
+    if (drainHandler != null && pendingBytes <= maxWriteQueueSize / 2) {
+      Handler<Void> handler = drainHandler;
+      drainHandler = null;
+      handler.handle(null);
+    }
+  }
+
+  private void consume(int c) {
+    switch (tokenState) {
+      case TOKEN_STRING:
+        string(c);
+        return;
+      case TOKEN_ESCAPE:
+        escape(c);
+        return;
+      case TOKEN_UNICODE_ESCAPE:
+        unicodeEscape(c);
+        return;
+      case TOKEN_NUMBER:
+        if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+          token.append((char) c);
+          return;
+        }
+        endNumber();
+        break;
+      case TOKEN_LITERAL:
+        if (c >= 'a' && c <= 'z') {
+          token.append((char) c);
+          return;
+        }
+        endLiteral();
+        break;
+      case TOKEN_COMMENT_START:
+        if (c == '/') {
+          tokenState = TOKEN_LINE_COMMENT;
+        } else if (c == '*') {
+          tokenState = TOKEN_BLOCK_COMMENT;
+        } else {
+          fail("Unexpected character " + describe(c) + " after '/'");
+        }
+        return;
+      case TOKEN_LINE_COMMENT:
+        if (c == '\n' || c == '\r') {
+          tokenState = TOKEN_NONE;
+        }
+        return;
+      case TOKEN_BLOCK_COMMENT:
+        if (c == '*') {
+          tokenState = TOKEN_BLOCK_COMMENT_END;
+        }
+        return;
+      case TOKEN_BLOCK_COMMENT_END:
+        if (c == '/') {
+          tokenState = TOKEN_NONE;
+        } else if (c != '*') {
+          tokenState = TOKEN_BLOCK_COMMENT;
+        }
+        return;
+    }
+    if (failed) {
+      return;
+    }
+    // Not inside a token, so this byte starts one
+    switch (c) {
+      case ' ':
+      case '\t':
+      case '\n':
+      case '\r':
+        return;
+      case '{':
+        startStructure(true);
+        return;
+      case '[':
+        startStructure(false);
+        return;
+      case '}':
+        endStructure(true);
+        return;
+      case ']':
+        endStructure(false);
+        return;
+      case ':':
+        colon();
+        return;
+      case ',':
+        comma();
+        return;
+      case '"':
+        startToken(TOKEN_STRING);
+        return;
+      case '/':
+        tokenState = TOKEN_COMMENT_START;
+        return;
+      default:
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          startToken(TOKEN_NUMBER);
+          token.append((char) c);
+        } else if (c >= 'a' && c <= 'z') {
+          startToken(TOKEN_LITERAL);
+          token.append((char) c);
+        } else {
+          fail("Unexpected character " + describe(c));
+        }
+    }
+  }
+
+  private void startToken(int state) {
+    tokenState = state;
+    if (token.capacity() > MAX_RETAINED_TOKEN_SIZE) {
+      // Don't hang on to the space used by a huge string
+      token = new StringBuilder();
+    } else {
+      token.setLength(0);
+    }
+  }
+
+  private void string(int c) {
+    if (utf8Remaining > 0) {
+      if ((c & 0xC0) != 0x80) {
+        fail("Invalid UTF-8 continuation byte " + describe(c));
+        return;
+      }
+      utf8CodePoint = (utf8CodePoint << 6) | (c & 0x3F);
+      if (--utf8Remaining == 0) {
+        if (utf8CodePoint > Character.MAX_CODE_POINT) {
+          fail("Invalid UTF-8 character");
+          return;
+        }
+        token.appendCodePoint(utf8CodePoint);
+      }
+    } else if (c == '"') {
+      tokenState = TOKEN_NONE;
+      endString(token.toString());
+    } else if (c == '\\') {
+      tokenState = TOKEN_ESCAPE;
+    } else if (c < 0x20) {
+      fail("Illegal unquoted character " + describe(c) + " in string");
+    } else if (c < 0x80) {
+      token.append((char) c);
+    } else if ((c & 0xE0) == 0xC0) {
+      utf8Remaining = 1;
+      utf8CodePoint = c & 0x1F;
+    } else if ((c & 0xF0) == 0xE0) {
+      utf8Remaining = 2;
+      utf8CodePoint = c & 0x0F;
+    } else if ((c & 0xF8) == 0xF0) {
+      utf8Remaining = 3;
+      utf8CodePoint = c & 0x07;
+    } else {
+      fail("Invalid UTF-8 start byte " + describe(c));
+    }
+  }
+
+  private void escape(int c) {
+    tokenState = TOKEN_STRING;
+    switch (c) {
+      case '"':
+      case '\\':
+      case '/':
+        token.append((char) c);
+        break;
+      case 'b':
+        token.append('\b');
+        break;
+      case 'f':
+        token.append('\f');
+        break;
+      case 'n':
+        token.append('\n');
+        break;
+      case 'r':
+        token.append('\r');
+        break;
+      case 't':
+        token.append('\t');
+        break;
+      case 'u':
+        tokenState = TOKEN_UNICODE_ESCAPE;
+        escapeDigits = 0;
+        escapeValue = 0;
+        break;
+      default:
+        fail("Unrecognized escape " + describe(c));
+    }
+  }
+
+  private void unicodeEscape(int c) {
+    int digit = Character.digit(c, 16);
+    if (digit < 0) {
+      fail("Unexpected character " + describe(c) + " in unicode escape");
+      return;
+    }
+    escapeValue = (escapeValue << 4) | digit;
+    if (++escapeDigits == 4) {
+      token.append((char) escapeValue);
+      tokenState = TOKEN_STRING;
+    }
+  }
+
+  private void endString(String str) {
+    Frame frame = top();
+    if (frame != null && (frame.expect == EXPECT_FIRST_FIELD || frame.expect == EXPECT_FIELD)) {
+      frame.field = str;
+      frame.expect = EXPECT_COLON;
+    } else {
+      value(str);
+    }
+  }
+
+  private void endNumber() {
+    tokenState = TOKEN_NONE;
+    String str = token.toString();
+    if (!NUMBER.matcher(str).matches()) {
+      fail("Invalid number '" + str + "'");
+      return;
+    }
+    if (str.indexOf('.') == -1 && str.indexOf('e') == -1 && str.indexOf('E') == -1) {
+      if (str.length() <= 18) {
+        long l = Long.parseLong(str);
+        value(l == (int) l ? (Number) (int) l : (Number) l);
+      } else {
+        BigInteger bi = new BigInteger(str);
+        value(bi.bitLength() < 64 ? (Number) bi.longValue() : (Number) bi);
+      }
+    } else {
+      value(Double.valueOf(str));
+    }
+  }
+
+  private void endLiteral() {
+    tokenState = TOKEN_NONE;
+    String str = token.toString();
+    switch (str) {
+      case "true":
+        value(Boolean.TRUE);
+        break;
+      case "false":
+        value(Boolean.FALSE);
+        break;
+      case "null":
+        value(null);
+        break;
+      default:
+        fail("Unrecognized token '" + str + "'");
+    }
+  }
+
+  private void value(Object value) {
+    Frame frame = top();
+    if (!expectsValue(frame)) {
+      fail("Unexpected value " + value);
+      return;
+    }
+    if (frame != null && frame.container != null) {
+      frame.add(value);
+    } else {
+      emit(JsonEventType.VALUE, fieldName(frame), value);
+    }
+    afterValue(frame);
+  }
+
+  private void startStructure(boolean object) {
+    Frame parent = top();
+    if (!expectsValue(parent)) {
+      fail("Unexpected '" + (object ? '{' : '[') + "'");
+      return;
+    }
+    Frame frame = new Frame(object, fieldName(parent));
+    if ((parent != null && parent.container != null) || (object ? objectValueMode : arrayValueMode)) {
+      frame.container = object ? new JsonObject() : new JsonArray();
+    } else {
+      emit(object ? JsonEventType.START_OBJECT : JsonEventType.START_ARRAY, frame.name, null);
+    }
+    frames.add(frame);
+  }
+
+  private void endStructure(boolean object) {
+    Frame frame = top();
+    if (frame == null || frame.object != object ||
+        (frame.expect != EXPECT_COMMA && frame.expect != (object ? EXPECT_FIRST_FIELD : EXPECT_FIRST_ELEMENT))) {
+      fail("Unexpected '" + (object ? '}' : ']') + "'");
+      return;
+    }
+    frames.remove(frames.size() - 1);
+    Frame parent = top();
+    if (frame.container == null) {
+      emit(object ? JsonEventType.END_OBJECT : JsonEventType.END_ARRAY, null, null);
+    } else if (parent != null && parent.container != null) {
+      parent.add(frame.container);
+    } else {
+      emit(JsonEventType.VALUE, frame.name, frame.container);
+    }
+    afterValue(parent);
+  }
+
+  private void colon() {
+    Frame frame = top();
+    if (frame == null || frame.expect != EXPECT_COLON) {
+      fail("Unexpected ':'");
+      return;
+    }
+    frame.expect = EXPECT_VALUE;
+  }
+
+  private void comma() {
+    Frame frame = top();
+    if (frame == null || frame.expect != EXPECT_COMMA) {
+      fail("Unexpected ','");
+      return;
+    }
+    frame.expect = frame.object ? EXPECT_FIELD : EXPECT_VALUE;
+  }
+
+  private void finish() {
+    finished = true;
+    if (tokenState == TOKEN_NUMBER) {
+      endNumber();
+    } else if (tokenState == TOKEN_LITERAL) {
+      endLiteral();
+    } else if (tokenState == TOKEN_LINE_COMMENT) {
+      tokenState = TOKEN_NONE;
+    }
+    if (!failed && (tokenState != TOKEN_NONE || !frames.isEmpty())) {
+      fail("Unexpected end of input");
+    }
+  }
+
+  private Frame top() {
+    return frames.isEmpty() ? null : frames.get(frames.size() - 1);
+  }
+
+  private static boolean expectsValue(Frame frame) {
+    // At the top level any number of values may follow each other
+    return frame == null || frame.expect == EXPECT_VALUE || frame.expect == EXPECT_FIRST_ELEMENT;
+  }
+
+  private static String fieldName(Frame frame) {
+    return frame != null && frame.object ? frame.field : null;
+  }
+
+  private static void afterValue(Frame frame) {
+    if (frame != null) {
+      frame.expect = EXPECT_COMMA;
+    }
+  }
+
+  private void emit(JsonEventType type, String fieldName, Object value) {
+    events.add(new JsonEvent(type, fieldName, value));
+  }
+
+  private void fail(String message) {
+    failed = true;
+    pending.clear();
+    pendingPos = 0;
+    pendingBytes = 0;
+    events.clear();
+    DecodeException e = new DecodeException(message + " at offset " + offset);
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(e);
+    } else {
+      throw e;
+    }
+  }
+
+  private static String describe(int c) {
+    return c >= 0x20 && c < 0x7F ? "'" + (char) c + "'" : String.format("0x%02X", c);
+  }
+
+  private static final class Frame {
+    final boolean object;
+    final String name;      // The field name of this object or array in its parent, if the parent is an object
+    int expect;
+    String field;           // The current field name, if this is an object
+    Object container;       // The JsonObject or JsonArray being built, if it's to be emitted as a single value
+
+    Frame(boolean object, String name) {
+      this.object = object;
+      this.name = name;
+      this.expect = object ? EXPECT_FIRST_FIELD : EXPECT_FIRST_ELEMENT;
+    }
+
+    void add(Object value) {
+      if (object) {
+        ((JsonObject) container).putValue(field, value);
+      } else if (value == null) {
+        // JsonArray.add doesn't take nulls
+        ((JsonArray) container).addString(null);
+      } else {
+        ((JsonArray) container).add(value);
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata;
+
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.Handler;
+
+/**
+ * A map which is shared by all the nodes of a cluster, obtained from {@link SharedData#getClusterMap}.<p>
+ * Entries are stored by the cluster manager, so reading or writing them may involve a remote call and all operations
+ * are asynchronous. Keys and values must be serializable by the cluster manager.<p>
+ * A bounded near cache of recently read entries can be kept on each node, so that repeated gets of the same key don't
+ * go to the cluster. Whenever an entry changes on any node the cached copy is invalidated, so a get returns the
+ * current value apart from during the short time it takes the invalidation to reach this node. A near cache is only
+ * kept if the cluster manager supports invalidation. Values returned from the near cache are shared by all callers on
+ * this node so they must not be modified; {@code byte[]} and {@link org.vertx.java.core.buffer.Buffer} values are
+ * copied.<p>
+ * Instances of this class are thread-safe.<p>
+ */
+public interface ClusterMap<K, V> {
+
+  /**
+   * Get the value of the entry with key {@code k}, or null if there isn't one.
+   * @param resultHandler - this will be called some time later with the async result.
+   */
+  void get(K k, Handler<AsyncResult<V>> resultHandler);
+
+  /**
+   * Put an entry in the map.
+   * @param completionHandler - this will be called some time later to signify the entry has been put
+   */
+  void put(K k, V v, Handler<AsyncResult<Void>> completionHandler);
+
+  /**
+   * Remove the entry with key {@code k} from the map.
+   * @param completionHandler - this will be called some time later to signify the entry has been removed
+   */
+  void remove(K k, Handler<AsyncResult<Void>> completionHandler);
+
+  /**
+   * @return the maximum number of entries held in the near cache of this node, or 0 if there is no near cache
+   */
+  int nearCacheSize();
+
+  /**
+   * @return the number of gets which were answered from the near cache
+   */
+  long hitCount();
+
+  /**
+   * @return the number of gets which went to the cluster
+   */
+  long missCount();
+
+  /**
+   * @return the proportion of gets which were answered from the near cache, or 0 if there have been no gets
+   */
+  double hitRatio();
+
+  /**
+   * @return the number of entries removed from the near cache because they changed in the cluster
+   */
+  long invalidationCount();
+}
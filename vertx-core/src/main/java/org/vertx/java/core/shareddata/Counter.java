@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata;
+
+/**
+ * A {@code long} counter which can be shared between event loops, obtained from {@link SharedData#getCounter}.<p>
+ * Instances of this class are thread-safe.<p>
+ */
+public interface Counter {
+
+  long get();
+
+  void set(long value);
+
+  long incrementAndGet();
+
+  long decrementAndGet();
+
+  long addAndGet(long delta);
+
+  long getAndAdd(long delta);
+
+  /**
+   * Set the counter to {@code update} if it currently equals {@code expect}
+   *
+   * @return true if the counter was set
+   */
+  boolean compareAndSet(long expect, long update);
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata;
+
+import java.util.Map;
+
+/**
+ * A map which is confined to a single event loop, obtained from {@link org.vertx.java.core.Context#localMap}.<p>
+ * All verticles and handlers running on the same event loop see the same instance, and no other thread can
+ * see it at all. Because of that, the map takes no locks and stores values as they are, with no copying, so it
+ * can hold any object, mutable or not.<p>
+ * If the map was created with a maximum size, adding an entry to a full map evicts the least recently
+ * accessed entry.<p>
+ * Instances of this class are <b>not</b> thread-safe. Using one from any thread other than its event loop
+ * throws an {@link IllegalStateException}.<p>
+ */
+public interface LocalMap<K, V> extends Map<K, V> {
+
+  /**
+   * @return the maximum number of entries the map holds, or {@code Integer.MAX_VALUE} if it is unbounded
+   */
+  int maxSize();
+
+  /**
+   * @return the number of {@code get} calls that found an entry
+   */
+  long hitCount();
+
+  /**
+   * @return the number of {@code get} calls that found no entry
+   */
+  long missCount();
+
+  /**
+   * @return the number of entries that have been evicted to keep the map within its maximum size
+   */
+  long evictionCount();
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata;
+
+/**
+ * A map from primitive {@code long} keys to values which can be shared between event loops, obtained from
+ * {@link SharedData#getLongMap}. The keys are never boxed, which makes this cheaper than a
+ * {@link ConcurrentSharedMap} with {@link Long} keys for looking things up by numeric id.<p>
+ * The same restrictions on the types of values apply as for the other shared data structures, and {@code byte[]} and
+ * {@link org.vertx.java.core.buffer.Buffer} values are copied when they are returned.<p>
+ * Instances of this class are thread-safe.<p>
+ */
+public interface LongSharedMap<V> {
+
+  V get(long key);
+
+  boolean containsKey(long key);
+
+  /**
+   * @return the previous value for the key, or null if there was none
+   */
+  V put(long key, V value);
+
+  /**
+   * @return the current value for the key, or null if there was none and {@code value} was put
+   */
+  V putIfAbsent(long key, V value);
+
+  /**
+   * @return the value that was removed, or null if there was none
+   */
+  V remove(long key);
+
+  int size();
+
+  boolean isEmpty();
+
+  void clear();
+
+  /**
+   * @return a copy of the keys currently in the map
+   */
+  long[] keys();
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata;
+
+/**
+ * A set of primitive {@code long} values which can be shared between event loops, obtained from
+ * {@link SharedData#getLongSet}. The values are never boxed.<p>
+ * Instances of this class are thread-safe.<p>
+ */
+public interface LongSharedSet {
+
+  /**
+   * @return true if the value was not already in the set
+   */
+  boolean add(long value);
+
+  boolean contains(long value);
+
+  /**
+   * @return true if the value was in the set
+   */
+  boolean remove(long value);
+
+  int size();
+
+  boolean isEmpty();
+
+  void clear();
+
+  /**
+   * @return a copy of the values currently in the set
+   */
+  long[] toArray();
+}
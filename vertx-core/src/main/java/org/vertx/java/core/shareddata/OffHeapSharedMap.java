@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata;
+
+import org.vertx.java.core.buffer.Buffer;
+
+/**
+ * A {@link ConcurrentSharedMap} of {@link Buffer} values which are stored outside the Java heap, obtained from
+ * {@link SharedData#getOffHeapMap}. This keeps large caches of binary data from adding to garbage collection
+ * pauses.<p>
+ * Values are copied into direct memory when they are put into the map. Values returned by the map are read-only
+ * {@link Buffer#asReadOnly read-only} views of that memory, so they are not copied again. A view stays valid after
+ * its entry has been removed from the map.<p>
+ * The direct memory held by the map is limited to {@code maxBytes}. When a put takes the map over the limit, the
+ * memory left by removed entries is compacted and, if that isn't enough, entries which have not been accessed
+ * recently are evicted.<p>
+ */
+public interface OffHeapSharedMap<K> extends ConcurrentSharedMap<K, Buffer> {
+
+  /**
+   * @return the maximum total size of the values in bytes
+   */
+  long maxBytes();
+
+  /**
+   * @return the total size of the values currently in the map in bytes
+   */
+  long memoryUsed();
+
+  /**
+   * @return the amount of direct memory held by the map in bytes. This is at least {@link #memoryUsed}, and more if
+   * memory freed by removed entries is still shared with live entries.
+   */
+  long memoryReserved();
+
+  /**
+   * @return the number of entries evicted to keep the map within its maximum size
+   */
+  long evictionCount();
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata;
+
+/**
+ * A {@link ConcurrentSharedMap} with a bounded number of entries and an optional time to live, obtained from
+ * {@link SharedData#getCache}.<p>
+ * When the cache is full, adding an entry evicts an entry which has not been accessed recently. The cache is split
+ * into segments which are evicted independently, so the eviction order is only approximately least recently used.<p>
+ * If a time to live is set, an entry expires that long after it was last written. Expired entries are never
+ * returned, and are removed lazily when they are next looked up or when their segment is written to, so there is
+ * no background thread. {@link #size} may include expired entries which haven't been removed yet.<p>
+ * The same restrictions on the types of keys and values apply as for the other shared data structures.<p>
+ */
+public interface SharedCache<K, V> extends ConcurrentSharedMap<K, V> {
+
+  /**
+   * @return the maximum number of entries the cache holds
+   */
+  int maxEntries();
+
+  /**
+   * @return the time to live of an entry in milliseconds, or 0 if entries never expire
+   */
+  long ttl();
+
+  /**
+   * @return the number of lookups that found an entry
+   */
+  long hitCount();
+
+  /**
+   * @return the number of lookups that found no entry, or only an expired one
+   */
+  long missCount();
+
+  /**
+   * @return the number of entries evicted because the cache was full
+   */
+  long evictionCount();
+
+  /**
+   * @return the number of entries removed because they expired
+   */
+  long expiredCount();
+}
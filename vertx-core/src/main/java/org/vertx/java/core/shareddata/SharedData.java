@@ -16,10 +16,19 @@
 
 package org.vertx.java.core.shareddata;
 
+import org.vertx.java.core.impl.VertxInternal;
 import org.vertx.java.core.logging.Logger;
 import org.vertx.java.core.logging.impl.LoggerFactory;
+import org.vertx.java.core.shareddata.impl.SharedCacheMap;
+import org.vertx.java.core.shareddata.impl.SharedClusterMap;
+import org.vertx.java.core.shareddata.impl.SharedCounter;
+import org.vertx.java.core.shareddata.impl.SharedLongMap;
+import org.vertx.java.core.shareddata.impl.SharedLongSet;
 import org.vertx.java.core.shareddata.impl.SharedMap;
+import org.vertx.java.core.shareddata.impl.SharedOffHeapMap;
+import org.vertx.java.core.shareddata.impl.SharedRingQueue;
 import org.vertx.java.core.shareddata.impl.SharedSet;
+import org.vertx.java.core.spi.cluster.ClusterManager;
 
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -42,8 +51,9 @@ import java.util.concurrent.ConcurrentMap;
  *   {@link Byte}
  *   {@link Character}
  *   {@code byte[]} - this will be automatically copied, and the copy will be stored in the structure.
- *   {@link org.vertx.java.core.buffer.Buffer} - this will be automatically copied, and the copy will be stored in the
- *   structure.
+ *   {@link org.vertx.java.core.buffer.Buffer} - a value will be stored as an
+ *   {@link org.vertx.java.core.buffer.Buffer#immutableCopy immutable copy}, copying it first unless it is already
+ *   immutable, and readers are given read-only views of that copy without further copying.
  * </pre>
  * <p>
  *
@@ -57,6 +67,25 @@ public class SharedData {
 
   private ConcurrentMap<Object, SharedMap<?, ?>> maps = new ConcurrentHashMap<>();
   private ConcurrentMap<Object, SharedSet<?>> sets = new ConcurrentHashMap<>();
+  private ConcurrentMap<Object, SharedCacheMap<?, ?>> caches = new ConcurrentHashMap<>();
+  private ConcurrentMap<Object, SharedOffHeapMap<?>> offHeapMaps = new ConcurrentHashMap<>();
+  private ConcurrentMap<Object, SharedCounter> counters = new ConcurrentHashMap<>();
+  private ConcurrentMap<Object, SharedLongMap<?>> longMaps = new ConcurrentHashMap<>();
+  private ConcurrentMap<Object, SharedLongSet> longSets = new ConcurrentHashMap<>();
+  private ConcurrentMap<Object, SharedRingQueue<?>> queues = new ConcurrentHashMap<>();
+  private ConcurrentMap<Object, SharedClusterMap<?, ?>> clusterMaps = new ConcurrentHashMap<>();
+
+  private final VertxInternal vertx;
+  private final ClusterManager clusterManager;
+
+  public SharedData() {
+    this(null, null);
+  }
+
+  public SharedData(VertxInternal vertx, ClusterManager clusterManager) {
+    this.vertx = vertx;
+    this.clusterManager = clusterManager;
+  }
 
   /**
    * Return a {@code Map} with the specific {@code name}. All invocations of this method with the same value of {@code name}
@@ -74,6 +103,168 @@ public class SharedData {
     return map;
   }
 
+  /**
+   * Write the entries of the {@code Map} with the specific {@code name} to a snapshot file at {@code path}, replacing
+   * any existing file. Only the types listed above can be written; a {@link Shareable} value causes an
+   * {@code IllegalArgumentException}.<p>
+   * This method blocks while the file is written, so it should be called from a worker verticle.<p>
+   *
+   * @throws org.vertx.java.core.file.FileSystemException if the file cannot be written
+   */
+  public void snapshotMap(String name, String path) {
+    ((SharedMap<?, ?>) getMap(name)).snapshot(path);
+  }
+
+  /**
+   * Memory map a snapshot file written by {@link #snapshotMap} and restore its entries into the {@code Map} with the
+   * specific {@code name}. The entries are decoded the first time the map is accessed, and entries already in the map
+   * at that point are kept. {@link org.vertx.java.core.buffer.Buffer} values are read-only views of the mapped file, so
+   * they don't take up heap space.<p>
+   * This method blocks while the file is opened and mapped, so it should be called from a worker verticle or on
+   * startup.<p>
+   *
+   * @throws org.vertx.java.core.file.FileSystemException if the file cannot be read or is not a snapshot
+   */
+  public <K, V> ConcurrentSharedMap<K, V> restoreMap(String name, String path) {
+    SharedMap<K, V> map = (SharedMap<K, V>) getMap(name);
+    map.restore(path);
+    return map;
+  }
+
+  /**
+   * Return a {@link SharedCache} with the specific {@code name}, holding at most {@code maxEntries} entries, each of
+   * which expires {@code ttl} milliseconds after it was written, or never if {@code ttl} is 0. All invocations of this
+   * method with the same value of {@code name} are guaranteed to return the same {@code SharedCache} instance, which
+   * keeps the limits it was created with.<p>
+   */
+  public <K, V> SharedCache<K, V> getCache(String name, int maxEntries, long ttl) {
+    SharedCacheMap<K, V> cache = (SharedCacheMap<K, V>) caches.get(name);
+    if (cache == null) {
+      cache = new SharedCacheMap<>(maxEntries, ttl);
+      SharedCacheMap prev = caches.putIfAbsent(name, cache);
+      if (prev != null) {
+        cache = prev;
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Return an {@link OffHeapSharedMap} with the specific {@code name}, whose values take up at most {@code maxBytes}
+   * bytes of direct memory. All invocations of this method with the same value of {@code name} are guaranteed to
+   * return the same {@code OffHeapSharedMap} instance, which keeps the limit it was created with.<p>
+   */
+  public <K> OffHeapSharedMap<K> getOffHeapMap(String name, long maxBytes) {
+    SharedOffHeapMap<K> map = (SharedOffHeapMap<K>) offHeapMaps.get(name);
+    if (map == null) {
+      map = new SharedOffHeapMap<>(maxBytes);
+      SharedOffHeapMap prev = offHeapMaps.putIfAbsent(name, map);
+      if (prev != null) {
+        map = prev;
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Return a {@link ClusterMap} with the specific {@code name}, without a near cache. All invocations of this method
+   * with the same value of {@code name} are guaranteed to return the same {@code ClusterMap} instance. <p>
+   *
+   * @throws IllegalStateException if vert.x is not clustered
+   */
+  public <K, V> ClusterMap<K, V> getClusterMap(String name) {
+    return getClusterMap(name, 0);
+  }
+
+  /**
+   * Return a {@link ClusterMap} with the specific {@code name}, which keeps a near cache of at most
+   * {@code nearCacheSize} recently read entries on this node. All invocations of this method with the same value of
+   * {@code name} are guaranteed to return the same {@code ClusterMap} instance, which keeps the near cache size it was
+   * created with. Every node of the cluster which uses the name sees the same entries.<p>
+   *
+   * @throws IllegalStateException if vert.x is not clustered
+   */
+  public <K, V> ClusterMap<K, V> getClusterMap(String name, int nearCacheSize) {
+    if (clusterManager == null) {
+      throw new IllegalStateException("Cluster maps can only be used when vert.x is clustered");
+    }
+    SharedClusterMap<K, V> map = (SharedClusterMap<K, V>) clusterMaps.get(name);
+    if (map == null) {
+      map = new SharedClusterMap<>(vertx, clusterManager.<K, V>getAsyncMap(name), nearCacheSize);
+      SharedClusterMap prev = clusterMaps.putIfAbsent(name, map);
+      if (prev != null) {
+        map.close();
+        map = prev;
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Return a {@link SharedQueue} with the specific {@code name}, holding at most {@code capacity} items. All
+   * invocations of this method with the same value of {@code name} are guaranteed to return the same
+   * {@code SharedQueue} instance, which keeps the capacity it was created with.<p>
+   */
+  public <E> SharedQueue<E> getQueue(String name, int capacity) {
+    SharedRingQueue<E> queue = (SharedRingQueue<E>) queues.get(name);
+    if (queue == null) {
+      queue = new SharedRingQueue<>(capacity);
+      SharedRingQueue prev = queues.putIfAbsent(name, queue);
+      if (prev != null) {
+        queue = prev;
+      }
+    }
+    return queue;
+  }
+
+  /**
+   * Return a {@link Counter} with the specific {@code name}, starting at zero. All invocations of this method with the
+   * same value of {@code name} are guaranteed to return the same {@code Counter} instance. <p>
+   */
+  public Counter getCounter(String name) {
+    SharedCounter counter = counters.get(name);
+    if (counter == null) {
+      counter = new SharedCounter();
+      SharedCounter prev = counters.putIfAbsent(name, counter);
+      if (prev != null) {
+        counter = prev;
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * Return a {@link LongSharedMap} with the specific {@code name}. All invocations of this method with the same value
+   * of {@code name} are guaranteed to return the same {@code LongSharedMap} instance. <p>
+   */
+  public <V> LongSharedMap<V> getLongMap(String name) {
+    SharedLongMap<V> map = (SharedLongMap<V>) longMaps.get(name);
+    if (map == null) {
+      map = new SharedLongMap<>();
+      SharedLongMap prev = longMaps.putIfAbsent(name, map);
+      if (prev != null) {
+        map = prev;
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Return a {@link LongSharedSet} with the specific {@code name}. All invocations of this method with the same value
+   * of {@code name} are guaranteed to return the same {@code LongSharedSet} instance. <p>
+   */
+  public LongSharedSet getLongSet(String name) {
+    SharedLongSet set = longSets.get(name);
+    if (set == null) {
+      set = new SharedLongSet();
+      SharedLongSet prev = longSets.putIfAbsent(name, set);
+      if (prev != null) {
+        set = prev;
+      }
+    }
+    return set;
+  }
+
   /**
    * Return a {@code Set} with the specific {@code name}. All invocations of this method with the same value of {@code name}
    * are guaranteed to return the same {@code Set} instance. <p>
@@ -104,4 +295,65 @@ public class SharedData {
     return sets.remove(name) != null;
   }
 
+  /**
+   * Remove the {@code SharedCache} with the specific {@code name}.
+   */
+  public boolean removeCache(Object name) {
+    return caches.remove(name) != null;
+  }
+
+  /**
+   * Remove the {@code SharedQueue} with the specific {@code name}.
+   */
+  public boolean removeQueue(Object name) {
+    return queues.remove(name) != null;
+  }
+
+  /**
+   * Remove the {@code Counter} with the specific {@code name}.
+   */
+  public boolean removeCounter(Object name) {
+    return counters.remove(name) != null;
+  }
+
+  /**
+   * Remove the {@code LongSharedMap} with the specific {@code name}.
+   */
+  public boolean removeLongMap(Object name) {
+    return longMaps.remove(name) != null;
+  }
+
+  /**
+   * Remove the {@code LongSharedSet} with the specific {@code name}.
+   */
+  public boolean removeLongSet(Object name) {
+    return longSets.remove(name) != null;
+  }
+
+  /**
+   * Remove the {@code ClusterMap} with the specific {@code name} from this node. The entries stay in the cluster, but
+   * the near cache of this node is dropped.
+   */
+  public boolean removeClusterMap(Object name) {
+    SharedClusterMap<?, ?> map = clusterMaps.remove(name);
+    if (map != null) {
+      map.close();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Remove the {@code OffHeapSharedMap} with the specific {@code name}. Its direct memory is freed once no views of
+   * its values remain.
+   */
+  public boolean removeOffHeapMap(Object name) {
+    SharedOffHeapMap<?> map = offHeapMaps.remove(name);
+    if (map != null) {
+      map.clear();
+      return true;
+    }
+    return false;
+  }
+
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata;
+
+import org.vertx.java.core.Context;
+import org.vertx.java.core.Handler;
+
+import java.util.Collection;
+
+/**
+ * A bounded queue which can be used to pass work between verticles on the same node, obtained from
+ * {@link SharedData#getQueue}.<p>
+ * The queue is a lock-free ring buffer, and any number of producers and consumers can use it at the same time.
+ * {@link #offer} and {@link #poll} never block: they fail when the queue is full or empty respectively, so a producer
+ * can apply back pressure instead of building up an unbounded backlog.<p>
+ * A consumer can register a handler which is called on its own context when items arrive, from where it can drain the
+ * queue in batches.<p>
+ * The same restrictions on the types of items apply as for the other shared data structures. Items are copied if
+ * required when they are offered, so each item is only ever seen by the consumer which polls it.<p>
+ */
+public interface SharedQueue<E> {
+
+  /**
+   * Add an item to the tail of the queue if there is room for it.
+   * @return true if the item was added, or false if the queue is full
+   */
+  boolean offer(E item);
+
+  /**
+   * Remove the item at the head of the queue.
+   * @return the item, or null if the queue is empty
+   */
+  E poll();
+
+  /**
+   * Remove at most {@code maxItems} items from the head of the queue and add them to {@code collection}.
+   * @return the number of items removed
+   */
+  int drainTo(Collection<? super E> collection, int maxItems);
+
+  /**
+   * Set a handler which is called on {@code context} when items have been added to the queue. The handler should
+   * poll or drain items from the queue; if it took some items and the queue still isn't empty when it returns it is
+   * called again later, so it can drain a large backlog in batches without holding up the context. If it took none,
+   * for instance to apply back pressure, it isn't called again until another item is added. Only one handler can be
+   * set at a time, and setting a null handler removes it.
+   */
+  void handler(Context context, Handler<SharedQueue<E>> handler);
+
+  /**
+   * @return the maximum number of items the queue holds
+   */
+  int capacity();
+
+  /**
+   * @return the number of items in the queue. As the queue can be used concurrently, this is only an estimate
+   */
+  int size();
+
+  /**
+   * @return true if the queue is empty
+   */
+  boolean isEmpty();
+}
@@ -42,6 +42,17 @@ public class Checker {
     }
   }
 
+  // Buffer values are stored as immutable copies so they can be returned without copying the bytes. A read-only view
+  // is copied as well, as its owner can still write to it. Keys are left alone: Buffer doesn't override hashCode so
+  // a copied key would no longer be found
+  static <T> T readOnlyIfRequired(T obj) {
+    if (obj instanceof Buffer) {
+      return (T) ((Buffer) obj).immutableCopy();
+    } else {
+      return obj;
+    }
+  }
+
   static <T> T copyIfRequired(T obj) {
     if (obj instanceof byte[]) {
       //Copy it
@@ -50,8 +61,9 @@ public class Checker {
       System.arraycopy(bytes, 0, copy, 0, bytes.length);
       return (T) copy;
     } else if (obj instanceof Buffer) {
-      //Copy it
-      return (T) ((Buffer) obj).copy();
+      Buffer buff = (Buffer) obj;
+      // An immutable Buffer shares its bytes, but each reader gets its own view so they don't share its indexes
+      return (T) (buff.isImmutable() ? buff.slice() : buff.copy());
     } else {
       return obj;
     }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import org.vertx.java.core.shareddata.LocalMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map owned by a single thread, which wraps an access-ordered {@link LinkedHashMap}. Since only the owning thread may
+ * touch it the counters are plain fields.<p>
+ * Everything {@link AbstractMap} provides, including the views, goes through the methods here, so every access is
+ * checked.
+ */
+public class DefaultLocalMap<K, V> extends AbstractMap<K, V> implements LocalMap<K, V> {
+
+  private final Thread owner;
+  private final int maxSize;
+  private final Map<K, V> map;
+  private Set<Entry<K, V>> entrySet;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public DefaultLocalMap(Thread owner, int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be > 0");
+    }
+    this.owner = owner;
+    this.maxSize = maxSize;
+    this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        if (size() > DefaultLocalMap.this.maxSize) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public int maxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public long hitCount() {
+    return hits;
+  }
+
+  @Override
+  public long missCount() {
+    return misses;
+  }
+
+  @Override
+  public long evictionCount() {
+    return evictions;
+  }
+
+  @Override
+  public V get(Object key) {
+    checkThread();
+    V value = map.get(key);
+    if (value != null || map.containsKey(key)) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    checkThread();
+    return map.containsKey(key);
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    checkThread();
+    return map.containsValue(value);
+  }
+
+  @Override
+  public int size() {
+    checkThread();
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    checkThread();
+    return map.isEmpty();
+  }
+
+  @Override
+  public V put(K key, V value) {
+    checkThread();
+    return map.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> m) {
+    checkThread();
+    map.putAll(m);
+  }
+
+  @Override
+  public V remove(Object key) {
+    checkThread();
+    return map.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    checkThread();
+    map.clear();
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    checkThread();
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private void checkThread() {
+    if (Thread.currentThread() != owner) {
+      throw new IllegalStateException("Local map used from thread " + Thread.currentThread().getName() +
+          " but it belongs to " + owner.getName());
+    }
+  }
+
+  /*
+  The keySet and values views of AbstractMap are built on this
+   */
+  private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+    @Override
+    public int size() {
+      return DefaultLocalMap.this.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      checkThread();
+      return map.entrySet().contains(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      checkThread();
+      return map.entrySet().remove(o);
+    }
+
+    @Override
+    public void clear() {
+      DefaultLocalMap.this.clear();
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+      checkThread();
+      final Iterator<Entry<K, V>> iter = map.entrySet().iterator();
+      return new Iterator<Entry<K, V>>() {
+        public boolean hasNext() {
+          checkThread();
+          return iter.hasNext();
+        }
+
+        public Entry<K, V> next() {
+          checkThread();
+          final Entry<K, V> entry = iter.next();
+          return new SimpleEntry<K, V>(entry) {
+            @Override
+            public V setValue(V value) {
+              checkThread();
+              super.setValue(value);
+              return entry.setValue(value);
+            }
+          };
+        }
+
+        public void remove() {
+          checkThread();
+          iter.remove();
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+/**
+ * An open addressing hash table with primitive {@code long} keys and linear probing. It is not thread-safe; the
+ * shared structures guard each table with a lock.<p>
+ * Zero marks an empty slot, so the key zero is held outside the arrays.
+ */
+class LongTable {
+
+  static final Object PRESENT = new Object();
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int SEGMENT_BITS = 4;
+
+  private final boolean hasValues;
+  private long[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+  private boolean hasZero;
+  private Object zeroValue;
+
+  LongTable(boolean hasValues) {
+    this.hasValues = hasValues;
+    allocate(INITIAL_CAPACITY);
+  }
+
+  static LongTable[] segments(boolean hasValues) {
+    LongTable[] segments = new LongTable[1 << SEGMENT_BITS];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new LongTable(hasValues);
+    }
+    return segments;
+  }
+
+  static LongTable segmentFor(LongTable[] segments, long key) {
+    // The tables use the low bits of the hash so choose the segment with the high bits
+    return segments[hash(key) >>> (32 - SEGMENT_BITS)];
+  }
+
+  /**
+   * @return the keys of all the segments. Each segment is copied atomically, but not all of them at once.
+   */
+  static long[] keys(LongTable[] segments) {
+    long[][] copies = new long[segments.length][];
+    int size = 0;
+    for (int i = 0; i < segments.length; i++) {
+      synchronized (segments[i]) {
+        copies[i] = new long[segments[i].size()];
+        segments[i].copyKeys(copies[i], 0);
+      }
+      size += copies[i].length;
+    }
+    long[] keys = new long[size];
+    int pos = 0;
+    for (long[] copy : copies) {
+      System.arraycopy(copy, 0, keys, pos, copy.length);
+      pos += copy.length;
+    }
+    return keys;
+  }
+
+  static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  Object get(long key) {
+    if (key == 0) {
+      return hasZero ? zeroValue : null;
+    }
+    int i = indexOf(key);
+    return i == -1 ? null : valueAt(i);
+  }
+
+  boolean contains(long key) {
+    return key == 0 ? hasZero : indexOf(key) != -1;
+  }
+
+  /**
+   * @return the previous value, or null if there was none. For a table without values {@link #PRESENT} is used
+   */
+  Object put(long key, Object value) {
+    if (!hasValues) {
+      value = PRESENT;
+    }
+    if (key == 0) {
+      Object prev = hasZero ? zeroValue : null;
+      hasZero = true;
+      zeroValue = value;
+      return prev;
+    }
+    int i = hash(key) & mask;
+    while (true) {
+      long k = keys[i];
+      if (k == 0) {
+        keys[i] = key;
+        if (hasValues) {
+          values[i] = value;
+        }
+        if (++size > keys.length / 2) {
+          rehash(keys.length << 1);
+        }
+        return null;
+      }
+      if (k == key) {
+        Object prev = valueAt(i);
+        if (hasValues) {
+          values[i] = value;
+        }
+        return prev;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  Object remove(long key) {
+    if (key == 0) {
+      Object prev = hasZero ? zeroValue : null;
+      hasZero = false;
+      zeroValue = null;
+      return prev;
+    }
+    int i = indexOf(key);
+    if (i == -1) {
+      return null;
+    }
+    Object prev = valueAt(i);
+    removeAt(i);
+    return prev;
+  }
+
+  int size() {
+    return hasZero ? size + 1 : size;
+  }
+
+  void clear() {
+    hasZero = false;
+    zeroValue = null;
+    size = 0;
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Copy the keys into {@code dest} starting at {@code pos}
+   *
+   * @return the position after the last key copied
+   */
+  int copyKeys(long[] dest, int pos) {
+    if (hasZero) {
+      dest[pos++] = 0;
+    }
+    for (long k : keys) {
+      if (k != 0) {
+        dest[pos++] = k;
+      }
+    }
+    return pos;
+  }
+
+  private Object valueAt(int i) {
+    return hasValues ? values[i] : PRESENT;
+  }
+
+  private int indexOf(long key) {
+    int i = hash(key) & mask;
+    while (true) {
+      long k = keys[i];
+      if (k == key) {
+        return i;
+      }
+      if (k == 0) {
+        return -1;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  // Shift back any following entries which would otherwise no longer be reachable from their ideal slot
+  private void removeAt(int gap) {
+    int i = (gap + 1) & mask;
+    while (true) {
+      long k = keys[i];
+      if (k == 0) {
+        break;
+      }
+      int ideal = hash(k) & mask;
+      boolean reachable = i > gap ? (ideal > gap && ideal <= i) : (ideal > gap || ideal <= i);
+      if (!reachable) {
+        keys[gap] = k;
+        if (hasValues) {
+          values[gap] = values[i];
+        }
+        gap = i;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[gap] = 0;
+    if (hasValues) {
+      values[gap] = null;
+    }
+    size--;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    for (int j = 0; j < oldKeys.length; j++) {
+      long k = oldKeys[j];
+      if (k != 0) {
+        int i = hash(k) & mask;
+        while (keys[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = k;
+        if (hasValues) {
+          values[i] = oldValues[j];
+        }
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = hasValues ? new Object[capacity] : null;
+    mask = capacity - 1;
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import io.netty.buffer.Unpooled;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.file.FileSystemException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A snapshot of a shared map in a file.<p>
+ * The file starts with a magic number, a version and the number of entries, followed by the entries. Each key and
+ * value is written as a type tag followed by the value, with strings, {@code byte[]} and {@link Buffer} prefixed by
+ * their length in bytes.<p>
+ * A snapshot is read by memory mapping the file. Buffer values are read-only views of the mapped file, so they are
+ * not copied onto the heap.
+ */
+class MapSnapshot {
+
+  private static final int MAGIC = 0x56585344; // VXSD
+  private static final int VERSION = 1;
+
+  private static final byte STRING = 0;
+  private static final byte INTEGER = 1;
+  private static final byte LONG = 2;
+  private static final byte BOOLEAN = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte FLOAT = 5;
+  private static final byte SHORT = 6;
+  private static final byte BYTE = 7;
+  private static final byte CHARACTER = 8;
+  private static final byte BYTES = 9;
+  private static final byte BUFFER = 10;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final String path;
+  private final MappedByteBuffer mapped;
+
+  private MapSnapshot(String path, MappedByteBuffer mapped) {
+    this.path = path;
+    this.mapped = mapped;
+  }
+
+  /**
+   * Write the entries of {@code map} to the file. The snapshot is written to a temporary file first, so an existing
+   * snapshot is only replaced once the new one is complete.
+   */
+  static void write(Map<?, ?> map, String path) {
+    File file = new File(path);
+    File tmp = new File(path + ".tmp");
+    try {
+      // The map may change while we write it so count the entries as we go and fill the count in afterwards
+      int count = 0;
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(0);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          writeObject(out, entry.getKey());
+          writeObject(out, entry.getValue());
+          count++;
+        }
+      }
+      try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw")) {
+        raf.seek(8);
+        raf.writeInt(count);
+      }
+      if (!tmp.renameTo(file)) {
+        // On some platforms rename doesn't replace an existing file
+        if (!file.delete() || !tmp.renameTo(file)) {
+          throw new FileSystemException("Failed to replace snapshot " + path);
+        }
+      }
+    } catch (IOException e) {
+      tmp.delete();
+      throw new FileSystemException("Failed to write snapshot " + path, e);
+    } catch (RuntimeException e) {
+      tmp.delete();
+      throw e;
+    }
+  }
+
+  /**
+   * Map the snapshot file into memory and check its header. The entries aren't decoded until {@link #loadInto}.
+   */
+  static MapSnapshot open(String path) {
+    try (RandomAccessFile raf = new RandomAccessFile(path, "r"); FileChannel channel = raf.getChannel()) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new FileSystemException("Snapshot " + path + " is too large to map");
+      }
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (mapped.remaining() < 12 || mapped.getInt(0) != MAGIC) {
+        throw new FileSystemException(path + " is not a shared data snapshot");
+      }
+      if (mapped.getInt(4) != VERSION) {
+        throw new FileSystemException("Unsupported snapshot version " + mapped.getInt(4) + " in " + path);
+      }
+      return new MapSnapshot(path, mapped);
+    } catch (IOException e) {
+      throw new FileSystemException("Failed to open snapshot " + path, e);
+    }
+  }
+
+  /**
+   * Decode the entries into {@code map}, keeping any entries which are already there
+   */
+  <K, V> void loadInto(ConcurrentMap<K, V> map) {
+    ByteBuffer in = mapped.duplicate();
+    in.position(8);
+    int count = in.getInt();
+    try {
+      for (int i = 0; i < count; i++) {
+        K key = (K) readObject(in);
+        V value = (V) readObject(in);
+        map.putIfAbsent(key, value);
+      }
+    } catch (RuntimeException e) {
+      throw new FileSystemException("Corrupt snapshot " + path, e);
+    }
+  }
+
+  private static void writeObject(DataOutputStream out, Object obj) throws IOException {
+    if (obj instanceof String) {
+      out.writeByte(STRING);
+      writeBytes(out, ((String) obj).getBytes(UTF8));
+    } else if (obj instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) obj);
+    } else if (obj instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) obj);
+    } else if (obj instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) obj);
+    } else if (obj instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) obj);
+    } else if (obj instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) obj);
+    } else if (obj instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeShort((Short) obj);
+    } else if (obj instanceof Byte) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte) obj);
+    } else if (obj instanceof Character) {
+      out.writeByte(CHARACTER);
+      out.writeChar((Character) obj);
+    } else if (obj instanceof byte[]) {
+      out.writeByte(BYTES);
+      writeBytes(out, (byte[]) obj);
+    } else if (obj instanceof Buffer) {
+      Buffer buff = (Buffer) obj;
+      out.writeByte(BUFFER);
+      out.writeInt(buff.length());
+      buff.getByteBuf().getBytes(0, out, buff.length());
+    } else {
+      throw new IllegalArgumentException("Cannot snapshot shared data of type " + obj.getClass().getName());
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static Object readObject(ByteBuffer in) {
+    byte type = in.get();
+    switch (type) {
+      case STRING:
+        return new String(readBytes(in), UTF8);
+      case INTEGER:
+        return in.getInt();
+      case LONG:
+        return in.getLong();
+      case BOOLEAN:
+        return in.get() != 0;
+      case DOUBLE:
+        return in.getDouble();
+      case FLOAT:
+        return in.getFloat();
+      case SHORT:
+        return in.getShort();
+      case BYTE:
+        return in.get();
+      case CHARACTER:
+        return in.getChar();
+      case BYTES:
+        return readBytes(in);
+      case BUFFER:
+        int len = in.getInt();
+        ByteBuffer slice = in.slice();
+        slice.limit(len);
+        in.position(in.position() + len);
+        return Buffer.immutable(Unpooled.wrappedBuffer(slice));
+      default:
+        throw new IllegalStateException("Unknown type " + type);
+    }
+  }
+
+  private static byte[] readBytes(ByteBuffer in) {
+    byte[] bytes = new byte[in.getInt()];
+    in.get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import org.vertx.java.core.shareddata.SharedCache;
+
+import java.util.*;
+
+/**
+ * The cache is split into segments, each of which is an access ordered {@link LinkedHashMap} guarded by its own
+ * lock, so eviction is least recently used within a segment.
+ */
+public class SharedCacheMap<K, V> implements SharedCache<K, V> {
+
+  private static final int MAX_SEGMENTS = 16;
+  // How many of the least recently used entries of a segment are checked for expiry on each write
+  private static final int PURGE_BATCH = 4;
+
+  private final Segment<K, V>[] segments;
+  private final int maxEntries;
+  private final long ttl;
+
+  public SharedCacheMap(int maxEntries, long ttl) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be > 0");
+    }
+    if (ttl < 0) {
+      throw new IllegalArgumentException("ttl must be >= 0");
+    }
+    this.maxEntries = maxEntries;
+    this.ttl = ttl;
+    int numSegments = Math.min(MAX_SEGMENTS, maxEntries);
+    segments = new Segment[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      // Spread the capacity so the segments add up to exactly maxEntries
+      segments[i] = new Segment<>(maxEntries / numSegments + (i < maxEntries % numSegments ? 1 : 0));
+    }
+  }
+
+  public int maxEntries() {
+    return maxEntries;
+  }
+
+  public long ttl() {
+    return ttl;
+  }
+
+  public long hitCount() {
+    long count = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        count += segment.hits;
+      }
+    }
+    return count;
+  }
+
+  public long missCount() {
+    long count = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        count += segment.misses;
+      }
+    }
+    return count;
+  }
+
+  public long evictionCount() {
+    long count = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        count += segment.evictions;
+      }
+    }
+    return count;
+  }
+
+  public long expiredCount() {
+    long count = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        count += segment.expired;
+      }
+    }
+    return count;
+  }
+
+  public V get(Object k) {
+    Segment<K, V> segment = segmentFor(k);
+    V value;
+    synchronized (segment) {
+      CacheEntry<V> entry = segment.live(k, now());
+      if (entry == null) {
+        segment.misses++;
+        return null;
+      }
+      segment.hits++;
+      value = entry.value;
+    }
+    return Checker.copyIfRequired(value);
+  }
+
+  public boolean containsKey(Object k) {
+    Segment<K, V> segment = segmentFor(k);
+    synchronized (segment) {
+      return segment.live(k, now()) != null;
+    }
+  }
+
+  public boolean containsValue(Object v) {
+    return snapshot().containsValue(v);
+  }
+
+  public V put(K k, V v) {
+    Checker.checkType(k);
+    Checker.checkType(v);
+    v = Checker.readOnlyIfRequired(v);
+    Segment<K, V> segment = segmentFor(k);
+    long now = now();
+    V value;
+    synchronized (segment) {
+      if (ttl != 0) {
+        segment.purge(now);
+      }
+      CacheEntry<V> prev = segment.put(k, new CacheEntry<>(v, expiry(now)));
+      if (prev == null || prev.expired(now)) {
+        return null;
+      }
+      value = prev.value;
+    }
+    return Checker.copyIfRequired(value);
+  }
+
+  public V putIfAbsent(K k, V v) {
+    Checker.checkType(k);
+    Checker.checkType(v);
+    v = Checker.readOnlyIfRequired(v);
+    Segment<K, V> segment = segmentFor(k);
+    long now = now();
+    V value;
+    synchronized (segment) {
+      CacheEntry<V> entry = segment.live(k, now);
+      if (entry == null) {
+        if (ttl != 0) {
+          segment.purge(now);
+        }
+        segment.put(k, new CacheEntry<>(v, expiry(now)));
+        return null;
+      }
+      value = entry.value;
+    }
+    return Checker.copyIfRequired(value);
+  }
+
+  public V remove(Object k) {
+    Segment<K, V> segment = segmentFor(k);
+    V value;
+    synchronized (segment) {
+      CacheEntry<V> entry = segment.remove(k);
+      if (entry == null || entry.expired(now())) {
+        return null;
+      }
+      value = entry.value;
+    }
+    return Checker.copyIfRequired(value);
+  }
+
+  public boolean remove(Object k, Object v) {
+    Segment<K, V> segment = segmentFor(k);
+    synchronized (segment) {
+      CacheEntry<V> entry = segment.live(k, now());
+      if (entry != null && entry.value.equals(v)) {
+        segment.remove(k);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  public boolean replace(K k, V v, V v1) {
+    Checker.checkType(v1);
+    v1 = Checker.readOnlyIfRequired(v1);
+    Segment<K, V> segment = segmentFor(k);
+    long now = now();
+    synchronized (segment) {
+      CacheEntry<V> entry = segment.live(k, now);
+      if (entry != null && entry.value.equals(v)) {
+        segment.put(k, new CacheEntry<>(v1, expiry(now)));
+        return true;
+      }
+      return false;
+    }
+  }
+
+  public V replace(K k, V v) {
+    Checker.checkType(v);
+    v = Checker.readOnlyIfRequired(v);
+    Segment<K, V> segment = segmentFor(k);
+    long now = now();
+    V value;
+    synchronized (segment) {
+      CacheEntry<V> entry = segment.live(k, now);
+      if (entry == null) {
+        return null;
+      }
+      segment.put(k, new CacheEntry<>(v, expiry(now)));
+      value = entry.value;
+    }
+    return Checker.copyIfRequired(value);
+  }
+
+  public void putAll(Map<? extends K, ? extends V> map) {
+    for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    long now = now();
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        if (ttl != 0) {
+          segment.purgeAll(now);
+        }
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  public Set<K> keySet() {
+    Set<K> copied = new HashSet<>();
+    for (K k: snapshot().keySet()) {
+      copied.add(Checker.copyIfRequired(k));
+    }
+    return copied;
+  }
+
+  public Collection<V> values() {
+    Collection<V> copied = new ArrayList<>();
+    for (V v: snapshot().values()) {
+      copied.add(Checker.copyIfRequired(v));
+    }
+    return copied;
+  }
+
+  public Set<Map.Entry<K, V>> entrySet() {
+    Set<Map.Entry<K, V>> entries = new HashSet<>();
+    for (Map.Entry<K, V> entry : snapshot().entrySet()) {
+      entries.add(new Entry(entry.getKey(), entry.getValue()));
+    }
+    return entries;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return snapshot().equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return snapshot().hashCode();
+  }
+
+  // The live entries, without copying and without affecting the access order
+  private Map<K, V> snapshot() {
+    Map<K, V> map = new HashMap<>();
+    long now = now();
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        for (Map.Entry<K, CacheEntry<V>> entry : segment.entrySet()) {
+          if (!entry.getValue().expired(now)) {
+            map.put(entry.getKey(), entry.getValue().value);
+          }
+        }
+      }
+    }
+    return map;
+  }
+
+  private Segment<K, V> segmentFor(Object k) {
+    int h = k.hashCode();
+    h ^= h >>> 16;
+    return segments[(h & Integer.MAX_VALUE) % segments.length];
+  }
+
+  private long now() {
+    return ttl == 0 ? 0 : System.currentTimeMillis();
+  }
+
+  private long expiry(long now) {
+    return ttl == 0 ? Long.MAX_VALUE : now + ttl;
+  }
+
+  private static final class CacheEntry<V> {
+    final V value;
+    final long expires;
+
+    CacheEntry(V value, long expires) {
+      this.value = value;
+      this.expires = expires;
+    }
+
+    boolean expired(long now) {
+      return now >= expires;
+    }
+  }
+
+  private static final class Segment<K, V> extends LinkedHashMap<K, CacheEntry<V>> {
+    final int capacity;
+    long hits;
+    long misses;
+    long evictions;
+    long expired;
+
+    Segment(int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    // Looks up the entry, marking it as recently used, and removes it if it has expired
+    CacheEntry<V> live(Object k, long now) {
+      CacheEntry<V> entry = get(k);
+      if (entry != null && entry.expired(now)) {
+        remove(k);
+        expired++;
+        return null;
+      }
+      return entry;
+    }
+
+    void purge(long now) {
+      Iterator<CacheEntry<V>> iter = values().iterator();
+      for (int i = 0; i < PURGE_BATCH && iter.hasNext(); i++) {
+        if (iter.next().expired(now)) {
+          iter.remove();
+          expired++;
+        }
+      }
+    }
+
+    // Expired entries can be anywhere, since reads reorder the entries but don't extend their lives
+    void purgeAll(long now) {
+      Iterator<CacheEntry<V>> iter = values().iterator();
+      while (iter.hasNext()) {
+        if (iter.next().expired(now)) {
+          iter.remove();
+          expired++;
+        }
+      }
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+      if (size() > capacity) {
+        evictions++;
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private class Entry implements Map.Entry<K, V> {
+
+    final K key;
+    V value;
+
+    Entry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    public K getKey() {
+      return Checker.copyIfRequired(key);
+    }
+
+    public V getValue() {
+      return Checker.copyIfRequired(value);
+    }
+
+    public V setValue(V value) {
+      V old = this.value;
+      put(key, value);
+      this.value = value;
+      return old;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.impl.DefaultFutureResult;
+import org.vertx.java.core.impl.VertxInternal;
+import org.vertx.java.core.shareddata.ClusterMap;
+import org.vertx.java.core.spi.cluster.AsyncMap;
+import org.vertx.java.core.spi.cluster.ObservableAsyncMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class SharedClusterMap<K, V> implements ClusterMap<K, V>, Handler<K> {
+
+  private static final int VERSION_STRIPES = 64;
+
+  private final VertxInternal vertx;
+  private final AsyncMap<K, V> map;
+  private final int nearCacheSize;
+  private final Map<K, V> cache;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  /*
+   The invalidation for an entry can arrive while a get for it is in progress, in which case the get could put the
+   old value into the near cache after the invalidation has been processed. To avoid that we bump the version of the
+   key's stripe on every invalidation and a get only caches the value it fetched if that version didn't change in the
+   meantime. Striping the versions means an invalidation only stops gets of keys in the same stripe from caching.
+   */
+  private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+  public SharedClusterMap(VertxInternal vertx, AsyncMap<K, V> map, final int nearCacheSize) {
+    if (nearCacheSize < 0) {
+      throw new IllegalArgumentException("nearCacheSize must be >= 0");
+    }
+    this.vertx = vertx;
+    this.map = map;
+    if (nearCacheSize > 0 && map instanceof ObservableAsyncMap) {
+      this.nearCacheSize = nearCacheSize;
+      this.cache = new LinkedHashMap<K, V>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+          return size() > nearCacheSize;
+        }
+      };
+      ((ObservableAsyncMap<K, V>) map).addInvalidationHandler(this);
+    } else {
+      this.nearCacheSize = 0;
+      this.cache = null;
+    }
+  }
+
+  @Override
+  public void get(final K k, final Handler<AsyncResult<V>> resultHandler) {
+    if (cache != null) {
+      V v;
+      synchronized (cache) {
+        v = cache.get(k);
+      }
+      if (v != null) {
+        hits.incrementAndGet();
+        // Complete on the context later, as a get which goes to the cluster does
+        final V copy = Checker.copyIfRequired(v);
+        vertx.runOnContext(new Handler<Void>() {
+          public void handle(Void event) {
+            new DefaultFutureResult<>(copy).setHandler(resultHandler);
+          }
+        });
+        return;
+      }
+    }
+    misses.incrementAndGet();
+    final int stripe = stripe(k);
+    final long ver = versions.get(stripe);
+    map.get(k, new Handler<AsyncResult<V>>() {
+      public void handle(AsyncResult<V> res) {
+        if (cache != null && res.succeeded() && res.result() != null) {
+          V copy = Checker.readOnlyIfRequired(res.result());
+          synchronized (cache) {
+            if (versions.get(stripe) == ver) {
+              cache.put(k, copy);
+            }
+          }
+        }
+        if (resultHandler != null) {
+          resultHandler.handle(res);
+        }
+      }
+    });
+  }
+
+  @Override
+  public void put(final K k, V v, final Handler<AsyncResult<Void>> completionHandler) {
+    map.put(k, v, new Handler<AsyncResult<Void>>() {
+      public void handle(AsyncResult<Void> res) {
+        invalidate(k);
+        if (completionHandler != null) {
+          completionHandler.handle(res);
+        }
+      }
+    });
+  }
+
+  @Override
+  public void remove(final K k, final Handler<AsyncResult<Void>> completionHandler) {
+    map.remove(k, new Handler<AsyncResult<Void>>() {
+      public void handle(AsyncResult<Void> res) {
+        invalidate(k);
+        if (completionHandler != null) {
+          completionHandler.handle(res);
+        }
+      }
+    });
+  }
+
+  @Override
+  public int nearCacheSize() {
+    return nearCacheSize;
+  }
+
+  @Override
+  public long hitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long missCount() {
+    return misses.get();
+  }
+
+  @Override
+  public double hitRatio() {
+    long h = hits.get();
+    long total = h + misses.get();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  @Override
+  public long invalidationCount() {
+    return invalidations.get();
+  }
+
+  /**
+   * Called by the cluster manager when the entry with key {@code k} changed on any node.
+   */
+  @Override
+  public void handle(K k) {
+    if (invalidate(k)) {
+      invalidations.incrementAndGet();
+    }
+  }
+
+  /**
+   * Stop listening for invalidations and drop the near cache.
+   */
+  public void close() {
+    if (cache != null) {
+      ((ObservableAsyncMap<K, V>) map).removeInvalidationHandler(this);
+      synchronized (cache) {
+        cache.clear();
+      }
+    }
+  }
+
+  // Our own writes invalidate the near cache as soon as they complete rather than waiting for the cluster manager
+  // to tell us about them, but only invalidations coming from the cluster manager are counted
+  private boolean invalidate(K k) {
+    if (cache == null) {
+      return false;
+    }
+    synchronized (cache) {
+      versions.incrementAndGet(stripe(k));
+      return cache.remove(k) != null;
+    }
+  }
+
+  private static int stripe(Object k) {
+    int h = k.hashCode();
+    h ^= h >>> 16;
+    return (h & Integer.MAX_VALUE) % VERSION_STRIPES;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import org.vertx.java.core.shareddata.Counter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SharedCounter implements Counter {
+
+  private final AtomicLong value = new AtomicLong();
+
+  public long get() {
+    return value.get();
+  }
+
+  public void set(long value) {
+    this.value.set(value);
+  }
+
+  public long incrementAndGet() {
+    return value.incrementAndGet();
+  }
+
+  public long decrementAndGet() {
+    return value.decrementAndGet();
+  }
+
+  public long addAndGet(long delta) {
+    return value.addAndGet(delta);
+  }
+
+  public long getAndAdd(long delta) {
+    return value.getAndAdd(delta);
+  }
+
+  public boolean compareAndSet(long expect, long update) {
+    return value.compareAndSet(expect, update);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import org.vertx.java.core.shareddata.LongSharedMap;
+
+/**
+ * The keys are striped over a number of {@link LongTable}s, each guarded by its own lock.
+ */
+public class SharedLongMap<V> implements LongSharedMap<V> {
+
+  private final LongTable[] segments = LongTable.segments(true);
+
+  public V get(long key) {
+    LongTable segment = segmentFor(key);
+    Object value;
+    synchronized (segment) {
+      value = segment.get(key);
+    }
+    return Checker.copyIfRequired((V) value);
+  }
+
+  public boolean containsKey(long key) {
+    LongTable segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.contains(key);
+    }
+  }
+
+  public V put(long key, V value) {
+    Checker.checkType(value);
+    value = Checker.readOnlyIfRequired(value);
+    LongTable segment = segmentFor(key);
+    synchronized (segment) {
+      return (V) segment.put(key, value);
+    }
+  }
+
+  public V putIfAbsent(long key, V value) {
+    Checker.checkType(value);
+    value = Checker.readOnlyIfRequired(value);
+    LongTable segment = segmentFor(key);
+    Object prev;
+    synchronized (segment) {
+      prev = segment.get(key);
+      if (prev == null) {
+        segment.put(key, value);
+        return null;
+      }
+    }
+    return Checker.copyIfRequired((V) prev);
+  }
+
+  public V remove(long key) {
+    LongTable segment = segmentFor(key);
+    Object prev;
+    synchronized (segment) {
+      prev = segment.remove(key);
+    }
+    return Checker.copyIfRequired((V) prev);
+  }
+
+  public int size() {
+    int size = 0;
+    for (LongTable segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void clear() {
+    for (LongTable segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  public long[] keys() {
+    return LongTable.keys(segments);
+  }
+
+  private LongTable segmentFor(long key) {
+    return LongTable.segmentFor(segments, key);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import org.vertx.java.core.shareddata.LongSharedSet;
+
+/**
+ * The values are striped over a number of {@link LongTable}s, each guarded by its own lock.
+ */
+public class SharedLongSet implements LongSharedSet {
+
+  private final LongTable[] segments = LongTable.segments(false);
+
+  public boolean add(long value) {
+    LongTable segment = segmentFor(value);
+    synchronized (segment) {
+      return segment.put(value, null) == null;
+    }
+  }
+
+  public boolean contains(long value) {
+    LongTable segment = segmentFor(value);
+    synchronized (segment) {
+      return segment.contains(value);
+    }
+  }
+
+  public boolean remove(long value) {
+    LongTable segment = segmentFor(value);
+    synchronized (segment) {
+      return segment.remove(value) != null;
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (LongTable segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void clear() {
+    for (LongTable segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  public long[] toArray() {
+    return LongTable.keys(segments);
+  }
+
+  private LongTable segmentFor(long value) {
+    return LongTable.segmentFor(segments, value);
+  }
+}
@@ -32,71 +32,91 @@ public class SharedMap<K, V> implements ConcurrentSharedMap<K, V> {
   private static final Logger log = LoggerFactory.getLogger(SharedMap.class);
 
   private final ConcurrentMap<K, V> map = new ConcurrentHashMap<>();
+  // A restored snapshot which hasn't been loaded yet
+  private volatile MapSnapshot snapshot;
 
   public V putIfAbsent(K k, V v) {
+    checkLoaded();
     Checker.checkType(k);
     Checker.checkType(v);
+    v = Checker.readOnlyIfRequired(v);
     return map.putIfAbsent(k, v);
   }
 
   public boolean remove(Object o, Object o1) {
+    checkLoaded();
     return map.remove(o, o1);
   }
 
   public boolean replace(K k, V v, V v1) {
+    checkLoaded();
     Checker.checkType(v1);
+    v1 = Checker.readOnlyIfRequired(v1);
     return map.replace(k, v, v1);
   }
 
   public V replace(K k, V v) {
+    checkLoaded();
     Checker.checkType(v);
+    v = Checker.readOnlyIfRequired(v);
     V ret = map.replace(k, v);
     return Checker.copyIfRequired(ret);
   }
 
   public int size() {
+    checkLoaded();
     return map.size();
   }
 
   public boolean isEmpty() {
+    checkLoaded();
     return map.isEmpty();
   }
 
   public boolean containsKey(Object o) {
+    checkLoaded();
     return map.containsKey(o);
   }
 
   public boolean containsValue(Object o) {
+    checkLoaded();
     return map.containsValue(o);
   }
 
   public V get(Object o) {
+    checkLoaded();
     return Checker.copyIfRequired(map.get(o));
   }
 
   public V put(K k, V v) {
+    checkLoaded();
     Checker.checkType(k);
     Checker.checkType(v);
+    v = Checker.readOnlyIfRequired(v);
     return map.put(k, v);
   }
 
   public V remove(Object o) {
+    checkLoaded();
     return Checker.copyIfRequired(map.remove(o));
   }
 
   public void putAll(Map<? extends K, ? extends V> map) {
+    checkLoaded();
     for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
       Checker.checkType(entry.getKey());
       Checker.checkType(entry.getValue());
-      this.map.put(entry.getKey(), entry.getValue());
+      this.map.put(entry.getKey(), Checker.readOnlyIfRequired(entry.getValue()));
     }
   }
 
   public void clear() {
+    checkLoaded();
     map.clear();
   }
 
   public Set<K> keySet() {
+    checkLoaded();
     Set<K> copied = new HashSet<>();
     for (K k: map.keySet()) {
       copied.add(Checker.copyIfRequired(k));
@@ -105,6 +125,7 @@ public class SharedMap<K, V> implements ConcurrentSharedMap<K, V> {
   }
 
   public Collection<V> values() {
+    checkLoaded();
     Collection<V> copied = new ArrayList<>();
     for (V v: map.values()) {
       copied.add(Checker.copyIfRequired(v));
@@ -113,6 +134,7 @@ public class SharedMap<K, V> implements ConcurrentSharedMap<K, V> {
   }
 
   public Set<Map.Entry<K, V>> entrySet() {
+    checkLoaded();
     Set<Map.Entry<K, V>> entries = new HashSet<>();
     for (Map.Entry<K, V> entry : map.entrySet()) {
       entries.add(new Entry<>(entry));
@@ -122,14 +144,41 @@ public class SharedMap<K, V> implements ConcurrentSharedMap<K, V> {
 
   @Override
   public boolean equals(Object o) {
+    checkLoaded();
     return map.equals(o);
   }
 
   @Override
   public int hashCode() {
+    checkLoaded();
     return map.hashCode();
   }
 
+  public void snapshot(String path) {
+    checkLoaded();
+    MapSnapshot.write(map, path);
+  }
+
+  public void restore(String path) {
+    MapSnapshot s = MapSnapshot.open(path);
+    synchronized (this) {
+      checkLoaded();
+      snapshot = s;
+    }
+  }
+
+  private void checkLoaded() {
+    if (snapshot != null) {
+      synchronized (this) {
+        MapSnapshot s = snapshot;
+        if (s != null) {
+          s.loadInto(map);
+          snapshot = null;
+        }
+      }
+    }
+  }
+
   private static class Entry<K, V> implements Map.Entry<K, V> {
 
     final Map.Entry<K, V> internalEntry;
@@ -149,6 +198,7 @@ public class SharedMap<K, V> implements ConcurrentSharedMap<K, V> {
     public V setValue(V value) {
       V old = internalEntry.getValue();
       Checker.checkType(value);
+      value = Checker.readOnlyIfRequired(value);
       internalEntry.setValue(value);
       return old;
     }
@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.shareddata.OffHeapSharedMap;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Values are bump allocated from direct memory slabs and are never overwritten, which is what makes it safe to hand
+ * out views of them. A slab is dropped by the map once all of its values have been removed, and its memory is freed
+ * by the garbage collector when the last view of it has gone.<p>
+ * Removed values leave holes in the slabs, so the slab memory is kept within the size limit as well: when it goes
+ * over, the live values of the sparsest slab are copied into the current slab so it can be dropped. Views of the old
+ * copies keep the old slab alive until they have gone.<p>
+ * The entries are held in access ordered segments like {@link SharedCacheMap}, but the size limit is global so
+ * eviction takes the least recently used entry of each segment in turn.
+ */
+public class SharedOffHeapMap<K> implements OffHeapSharedMap<K> {
+
+  private static final int NUM_SEGMENTS = 16;
+  private static final int MAX_SLAB_SIZE = 1024 * 1024;
+
+  private final Segment<K>[] segments;
+  private final SlabAllocator allocator;
+  private final long maxBytes;
+  private final AtomicLong used = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicInteger evictPos = new AtomicInteger();
+
+  public SharedOffHeapMap(long maxBytes) {
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("maxBytes must be > 0");
+    }
+    this.maxBytes = maxBytes;
+    this.allocator = new SlabAllocator((int) Math.max(1, Math.min(MAX_SLAB_SIZE, maxBytes / 8)));
+    segments = new Segment[NUM_SEGMENTS];
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      segments[i] = new Segment<>();
+    }
+  }
+
+  public long maxBytes() {
+    return maxBytes;
+  }
+
+  public long memoryUsed() {
+    return used.get();
+  }
+
+  public long memoryReserved() {
+    return allocator.reserved();
+  }
+
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  public Buffer get(Object k) {
+    Segment<K> segment = segmentFor(k);
+    synchronized (segment) {
+      return view(segment.get(k));
+    }
+  }
+
+  public boolean containsKey(Object k) {
+    Segment<K> segment = segmentFor(k);
+    synchronized (segment) {
+      return segment.containsKey(k);
+    }
+  }
+
+  public boolean containsValue(Object v) {
+    return snapshot().containsValue(v);
+  }
+
+  public Buffer put(K k, Buffer v) {
+    Checker.checkType(k);
+    Segment<K> segment = segmentFor(k);
+    Slot slot = allocate(segment, v);
+    Slot prev;
+    synchronized (segment) {
+      prev = segment.put(k, slot);
+    }
+    removed(prev);
+    evictIfRequired();
+    return view(prev);
+  }
+
+  public Buffer putIfAbsent(K k, Buffer v) {
+    Checker.checkType(k);
+    Segment<K> segment = segmentFor(k);
+    synchronized (segment) {
+      Slot slot = segment.get(k);
+      if (slot != null) {
+        return view(slot);
+      }
+      // Allocating under the segment lock means only the value of the put that wins is ever allocated
+      segment.put(k, allocate(segment, v));
+    }
+    evictIfRequired();
+    return null;
+  }
+
+  public Buffer remove(Object k) {
+    Segment<K> segment = segmentFor(k);
+    Slot slot;
+    synchronized (segment) {
+      slot = segment.remove(k);
+    }
+    removed(slot);
+    return view(slot);
+  }
+
+  public boolean remove(Object k, Object v) {
+    Segment<K> segment = segmentFor(k);
+    Slot slot;
+    synchronized (segment) {
+      slot = segment.get(k);
+      if (slot == null || !view(slot).equals(v)) {
+        return false;
+      }
+      segment.remove(k);
+    }
+    removed(slot);
+    return true;
+  }
+
+  public boolean replace(K k, Buffer v, Buffer v1) {
+    Segment<K> segment = segmentFor(k);
+    Slot prev;
+    synchronized (segment) {
+      prev = segment.get(k);
+      if (prev == null || !view(prev).equals(v)) {
+        return false;
+      }
+      segment.put(k, allocate(segment, v1));
+    }
+    removed(prev);
+    evictIfRequired();
+    return true;
+  }
+
+  public Buffer replace(K k, Buffer v) {
+    Segment<K> segment = segmentFor(k);
+    Slot prev;
+    synchronized (segment) {
+      prev = segment.get(k);
+      if (prev == null) {
+        return null;
+      }
+      segment.put(k, allocate(segment, v));
+    }
+    removed(prev);
+    evictIfRequired();
+    return view(prev);
+  }
+
+  public void putAll(Map<? extends K, ? extends Buffer> map) {
+    for (Map.Entry<? extends K, ? extends Buffer> entry : map.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (Segment<K> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void clear() {
+    for (Segment<K> segment : segments) {
+      List<Slot> slots;
+      synchronized (segment) {
+        slots = new ArrayList<>(segment.values());
+        segment.clear();
+      }
+      for (Slot slot : slots) {
+        removed(slot);
+      }
+    }
+  }
+
+  public Set<K> keySet() {
+    Set<K> copied = new HashSet<>();
+    for (K k: snapshot().keySet()) {
+      copied.add(Checker.copyIfRequired(k));
+    }
+    return copied;
+  }
+
+  public Collection<Buffer> values() {
+    return snapshot().values();
+  }
+
+  public Set<Map.Entry<K, Buffer>> entrySet() {
+    Set<Map.Entry<K, Buffer>> entries = new HashSet<>();
+    for (Map.Entry<K, Buffer> entry : snapshot().entrySet()) {
+      entries.add(new Entry(entry.getKey(), entry.getValue()));
+    }
+    return entries;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return snapshot().equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return snapshot().hashCode();
+  }
+
+  private Map<K, Buffer> snapshot() {
+    Map<K, Buffer> map = new HashMap<>();
+    for (Segment<K> segment : segments) {
+      synchronized (segment) {
+        for (Map.Entry<K, Slot> entry : segment.entrySet()) {
+          map.put(entry.getKey(), view(entry.getValue()));
+        }
+      }
+    }
+    return map;
+  }
+
+  private Slot allocate(Segment<K> segment, Buffer value) {
+    ByteBuf buf = value.getByteBuf();
+    int len = buf.readableBytes();
+    if (len > maxBytes) {
+      throw new IllegalArgumentException("Value of " + len + " bytes is larger than the map (" + maxBytes + " bytes)");
+    }
+    Slot slot = allocator.allocate(segment, buf);
+    used.addAndGet(len);
+    return slot;
+  }
+
+  private void removed(Slot slot) {
+    if (slot != null) {
+      used.addAndGet(-slot.len);
+      allocator.free(slot);
+    }
+  }
+
+  private void evictIfRequired() {
+    while (used.get() > maxBytes) {
+      if (!evictOne()) {
+        break;
+      }
+    }
+    while (allocator.reserved() > maxBytes) {
+      Slab slab = allocator.sparsestSlab();
+      if (slab != null) {
+        compact(slab);
+      } else if (!allocator.dropEmptyCurrent() && !evictOne()) {
+        break;
+      }
+    }
+  }
+
+  /*
+  Evicts the least recently used entry of the next non empty segment, returns false if they are all empty
+   */
+  private boolean evictOne() {
+    for (int i = 0; i < segments.length; i++) {
+      Segment<K> segment = segments[(evictPos.getAndIncrement() & Integer.MAX_VALUE) % segments.length];
+      Slot slot = null;
+      synchronized (segment) {
+        Iterator<Slot> iter = segment.values().iterator();
+        if (iter.hasNext()) {
+          slot = iter.next();
+          iter.remove();
+        }
+      }
+      if (slot != null) {
+        evictions.incrementAndGet();
+        removed(slot);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void compact(Slab slab) {
+    for (Slot slot : allocator.slots(slab)) {
+      // Lock the segment so a get doesn't see the slot half way through the move
+      synchronized (slot.segment) {
+        allocator.relocate(slot, slab);
+      }
+    }
+  }
+
+  private Segment<K> segmentFor(Object k) {
+    int h = k.hashCode();
+    h ^= h >>> 16;
+    return segments[(h & Integer.MAX_VALUE) % segments.length];
+  }
+
+  private static Buffer view(Slot slot) {
+    return slot == null ? null : Buffer.immutable(Unpooled.wrappedBuffer(slot.data.duplicate()));
+  }
+
+  private static final class Segment<K> extends LinkedHashMap<K, Slot> {
+    Segment() {
+      super(16, 0.75f, true);
+    }
+  }
+
+  private static final class Slot {
+    final Segment<?> segment;
+    final int len;
+    // Guarded by the allocator, data is volatile as views are taken under the segment lock
+    Slab slab;
+    volatile ByteBuffer data;
+    boolean freed;
+
+    Slot(Segment<?> segment, int len) {
+      this.segment = segment;
+      this.len = len;
+    }
+  }
+
+  private static final class Slab {
+    final ByteBuffer memory;
+    final Set<Slot> slots = new HashSet<>();
+    int top;
+    int live;
+
+    Slab(int size) {
+      memory = ByteBuffer.allocateDirect(size);
+    }
+  }
+
+  private static final class SlabAllocator {
+    private final int slabSize;
+    private final Set<Slab> slabs = new HashSet<>();
+    private Slab current;
+    private long reserved;
+
+    SlabAllocator(int slabSize) {
+      this.slabSize = slabSize;
+    }
+
+    synchronized Slot allocate(Segment<?> segment, ByteBuf buf) {
+      Slot slot = new Slot(segment, buf.readableBytes());
+      place(slot);
+      buf.getBytes(buf.readerIndex(), slot.data.duplicate());
+      return slot;
+    }
+
+    synchronized void free(Slot slot) {
+      slot.freed = true;
+      release(slot);
+    }
+
+    synchronized long reserved() {
+      return reserved;
+    }
+
+    /*
+    The slab other than the current one with the least live values, if it is no more than half full
+     */
+    synchronized Slab sparsestSlab() {
+      Slab sparsest = null;
+      for (Slab slab : slabs) {
+        if (slab != current && slab.live <= slab.memory.capacity() / 2 && (sparsest == null || slab.live < sparsest.live)) {
+          sparsest = slab;
+        }
+      }
+      return sparsest;
+    }
+
+    synchronized boolean dropEmptyCurrent() {
+      if (current != null && current.live == 0) {
+        drop(current);
+        current = null;
+        return true;
+      }
+      return false;
+    }
+
+    synchronized List<Slot> slots(Slab slab) {
+      return new ArrayList<>(slab.slots);
+    }
+
+    /*
+    Copies the value out of the slab, unless it has been freed or moved already. The old copy is left as it is for
+    any views of it
+     */
+    synchronized void relocate(Slot slot, Slab from) {
+      if (slot.freed || slot.slab != from) {
+        return;
+      }
+      ByteBuffer old = slot.data;
+      release(slot);
+      place(slot);
+      slot.data.duplicate().put(old.duplicate());
+    }
+
+    private void place(Slot slot) {
+      int len = slot.len;
+      Slab slab;
+      if (len > slabSize / 4) {
+        // Large values get a slab of their own so they don't waste the rest of the current one
+        slab = newSlab(len);
+      } else {
+        if (current == null || current.memory.capacity() - current.top < len) {
+          Slab prev = current;
+          current = newSlab(slabSize);
+          if (prev != null && prev.live == 0) {
+            drop(prev);
+          }
+        }
+        slab = current;
+      }
+      ByteBuffer data = slab.memory.duplicate();
+      data.position(slab.top);
+      data.limit(slab.top + len);
+      slab.top += len;
+      slab.live += len;
+      slab.slots.add(slot);
+      slot.slab = slab;
+      slot.data = data.slice();
+    }
+
+    private void release(Slot slot) {
+      Slab slab = slot.slab;
+      slab.live -= slot.len;
+      slab.slots.remove(slot);
+      if (slab.live == 0 && slab != current) {
+        drop(slab);
+      }
+    }
+
+    private Slab newSlab(int size) {
+      Slab slab = new Slab(size);
+      slabs.add(slab);
+      reserved += size;
+      return slab;
+    }
+
+    private void drop(Slab slab) {
+      slabs.remove(slab);
+      reserved -= slab.memory.capacity();
+    }
+  }
+
+  private class Entry implements Map.Entry<K, Buffer> {
+
+    final K key;
+    Buffer value;
+
+    Entry(K key, Buffer value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    public K getKey() {
+      return Checker.copyIfRequired(key);
+    }
+
+    public Buffer getValue() {
+      return value;
+    }
+
+    public Buffer setValue(Buffer value) {
+      Buffer old = this.value;
+      put(key, value);
+      this.value = value;
+      return old;
+    }
+  }
+}
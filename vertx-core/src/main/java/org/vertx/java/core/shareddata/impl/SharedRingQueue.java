@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.shareddata.impl;
+
+import org.vertx.java.core.Context;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.shareddata.SharedQueue;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded multi producer, multi consumer ring buffer.
+ *
+ * Each slot has a sequence number which says whose turn it is to use the slot. A producer may write to the slot for
+ * position {@code pos} when its sequence is {@code pos}, and sets it to {@code pos + 1} once the item is in place.
+ * A consumer may read it when the sequence is {@code pos + 1}, and sets it to {@code pos + capacity} once the item
+ * has been taken, which hands the slot to the producer on the next lap. Producers and consumers claim positions by
+ * CASing the tail and head counters, so no locks are taken.
+ */
+public class SharedRingQueue<E> implements SharedQueue<E> {
+
+  private final int capacity;
+  private final AtomicReferenceArray<E> items;
+  private final AtomicLongArray sequences;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private volatile Consumer<E> consumer;
+
+  public SharedRingQueue(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be > 0");
+    }
+    this.capacity = capacity;
+    this.items = new AtomicReferenceArray<>(capacity);
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  @Override
+  public boolean offer(E item) {
+    Checker.checkType(item);
+    item = Checker.copyIfRequired(item);
+    while (true) {
+      long pos = tail.get();
+      int index = (int) (pos % capacity);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          items.lazySet(index, item);
+          sequences.set(index, pos + 1);
+          break;
+        }
+      } else if (diff < 0) {
+        // The consumer of the previous lap hasn't taken the item yet, so the queue is full
+        return false;
+      }
+      // Otherwise another producer claimed the position first, try again
+    }
+    wakeConsumer();
+    return true;
+  }
+
+  @Override
+  public E poll() {
+    while (true) {
+      long pos = head.get();
+      int index = (int) (pos % capacity);
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          E item = items.get(index);
+          items.lazySet(index, null);
+          sequences.set(index, pos + capacity);
+          return item;
+        }
+      } else if (diff < 0) {
+        return null;
+      }
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> collection, int maxItems) {
+    int count = 0;
+    while (count < maxItems) {
+      E item = poll();
+      if (item == null) {
+        break;
+      }
+      collection.add(item);
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public void handler(Context context, Handler<SharedQueue<E>> handler) {
+    if (handler == null) {
+      consumer = null;
+    } else {
+      if (context == null) {
+        throw new IllegalArgumentException("context must not be null");
+      }
+      consumer = new Consumer<>(context, handler);
+      if (!isEmpty()) {
+        wakeConsumer();
+      }
+    }
+  }
+
+  @Override
+  public int capacity() {
+    return capacity;
+  }
+
+  @Override
+  public int size() {
+    long size = tail.get() - head.get();
+    return size < 0 ? 0 : (int) Math.min(size, capacity);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  // At most one wake up is outstanding at any time, so a burst of offers only results in a single task on the
+  // consumer's context
+  private void wakeConsumer() {
+    final Consumer<E> cons = consumer;
+    if (cons != null && scheduled.compareAndSet(false, true)) {
+      cons.context.runOnContext(new Handler<Void>() {
+        public void handle(Void v) {
+          // Clear the flag first so items offered while the handler runs cause another wake up
+          scheduled.set(false);
+          long before = head.get();
+          if (consumer == cons) {
+            cons.handler.handle(SharedRingQueue.this);
+          }
+          // Call the handler again if it is draining a backlog in batches, or if it was replaced while this wake up
+          // was outstanding. A handler which took nothing is leaving the items for later, so it isn't called again
+          // until the next offer
+          if (!isEmpty() && (head.get() != before || consumer != cons)) {
+            wakeConsumer();
+          }
+        }
+      });
+    }
+  }
+
+  private static final class Consumer<E> {
+    final Context context;
+    final Handler<SharedQueue<E>> handler;
+
+    Consumer(Context context, Handler<SharedQueue<E>> handler) {
+      this.context = context;
+      this.handler = handler;
+    }
+  }
+}
@@ -146,7 +146,7 @@ public class EventBusBridge implements Handler<SockJSSocket> {
   }
 
   private void handleSocketData(SockJSSocket sock, Buffer data, Map<String, Handler<Message>> handlers) {
-    JsonObject msg = new JsonObject(data.toString());
+    JsonObject msg = new JsonObject(data);
 
     String type = getMandatoryString(msg, "type");
     switch (type) {
@@ -335,7 +335,7 @@ public class EventBusBridge implements Handler<SockJSSocket> {
     if (message.replyAddress() != null) {
       envelope.putString("replyAddress", message.replyAddress());
     }
-    sock.write(new Buffer(envelope.encode()));
+    sock.write(envelope.encodeToBuffer());
   }
 
   private void doSendOrPub(final boolean send, final SockJSSocket sock, final String address,
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.core.spi.cluster;
+
+import org.vertx.java.core.Handler;
+
+/**
+ *
+ * An {@link AsyncMap} which can tell interested parties when its entries change.
+ *
+ * Cluster managers can implement this as well as {@link AsyncMap} to allow vert.x to keep a near cache of the map on
+ * each node. If the map returned by {@link ClusterManager#getAsyncMap} doesn't implement this, no near cache is kept.
+ *
+ */
+public interface ObservableAsyncMap<K, V> extends AsyncMap<K, V> {
+
+  /**
+   * Add a handler which will be called with the key of any entry which is added, updated, removed or evicted on
+   * any node of the cluster, including this one. The handler can be called on any thread.
+   * @param handler The handler
+   */
+  void addInvalidationHandler(Handler<K> handler);
+
+  /**
+   * Remove a handler added with {@link #addInvalidationHandler}.
+   * @param handler The handler
+   */
+  void removeInvalidationHandler(Handler<K> handler);
+}
@@ -16,17 +16,23 @@
 
 package org.vertx.java.spi.cluster.impl.hazelcast;
 
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.IMap;
 import org.vertx.java.core.AsyncResult;
 import org.vertx.java.core.Handler;
 import org.vertx.java.core.spi.Action;
 import org.vertx.java.core.spi.VertxSPI;
-import org.vertx.java.core.spi.cluster.AsyncMap;
+import org.vertx.java.core.spi.cluster.ObservableAsyncMap;
 
-class HazelcastAsyncMap<K, V> implements AsyncMap<K, V> {
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class HazelcastAsyncMap<K, V> implements ObservableAsyncMap<K, V>, EntryListener<K, V> {
 
   private final VertxSPI vertx;
   private final IMap<K, V> map;
+  private final List<Handler<K>> invalidationHandlers = new CopyOnWriteArrayList<>();
 
   public HazelcastAsyncMap(VertxSPI vertx, IMap<K, V> map) {
     this.vertx = vertx;
@@ -61,4 +67,46 @@ class HazelcastAsyncMap<K, V> implements AsyncMap<K, V> {
       }
     }, completionHandler);
   }
+
+  @Override
+  public synchronized void addInvalidationHandler(Handler<K> handler) {
+    if (invalidationHandlers.isEmpty()) {
+      // We only need the keys, so don't have Hazelcast send the values
+      map.addEntryListener(this, false);
+    }
+    invalidationHandlers.add(handler);
+  }
+
+  @Override
+  public synchronized void removeInvalidationHandler(Handler<K> handler) {
+    if (invalidationHandlers.remove(handler) && invalidationHandlers.isEmpty()) {
+      map.removeEntryListener(this);
+    }
+  }
+
+  @Override
+  public void entryAdded(EntryEvent<K, V> entry) {
+    invalidate(entry.getKey());
+  }
+
+  @Override
+  public void entryRemoved(EntryEvent<K, V> entry) {
+    invalidate(entry.getKey());
+  }
+
+  @Override
+  public void entryUpdated(EntryEvent<K, V> entry) {
+    invalidate(entry.getKey());
+  }
+
+  @Override
+  public void entryEvicted(EntryEvent<K, V> entry) {
+    invalidate(entry.getKey());
+  }
+
+  private void invalidate(K k) {
+    for (Handler<K> handler : invalidationHandlers) {
+      handler.handle(k);
+    }
+  }
 }
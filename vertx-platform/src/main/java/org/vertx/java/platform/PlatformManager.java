@@ -137,6 +137,14 @@ public interface PlatformManager {
    */
   Map<String, Integer> listInstances();
 
+  /**
+   * List the resources used by each deployment, with deployment ID and a JSON object with the fields
+   * {@code cpuTime} (nanoseconds), {@code tasks}, {@code eventBusMessages}, {@code openSockets} and
+   * {@code activeTimers}
+   * @return map of resource usage
+   */
+  Map<String, JsonObject> listResourceUsage();
+
   /**
    * Install a module into the filesystem
    * Vert.x will search in the configured repos to locate the module
@@ -17,6 +17,7 @@
 package org.vertx.java.platform.impl;
 
 
+import io.netty.channel.EventLoop;
 import org.vertx.java.core.AsyncResult;
 import org.vertx.java.core.AsyncResultHandler;
 import org.vertx.java.core.Handler;
@@ -25,6 +26,7 @@ import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.file.impl.ClasspathPathResolver;
 import org.vertx.java.core.file.impl.ModuleFileSystemPathResolver;
 import org.vertx.java.core.impl.*;
+import org.vertx.java.core.impl.management.ManagementRegistry;
 import org.vertx.java.core.json.DecodeException;
 import org.vertx.java.core.json.JsonObject;
 import org.vertx.java.core.logging.Logger;
@@ -284,6 +286,15 @@ public class DefaultPlatformManager implements PlatformManagerInternal, ModuleRe
     return map;
   }
 
+  @Override
+  public Map<String, JsonObject> listResourceUsage() {
+    Map<String, JsonObject> map = new HashMap<>();
+    for (Map.Entry<String, Deployment> entry: deployments.entrySet()) {
+      map.put(entry.getKey(), entry.getValue().resourceUsage.toJson());
+    }
+    return map;
+  }
+
   @Override
   public void installModule(final String moduleName, final Handler<AsyncResult<Void>> doneHandler) {
     final Handler<AsyncResult<Void>> wrapped = wrapDoneHandler(doneHandler);
@@ -1709,6 +1720,10 @@ public class DefaultPlatformManager implements PlatformManagerInternal, ModuleRe
     mr.incRef();
 
     deployments.put(deploymentID, deployment);
+    ManagementRegistry.registerDeployment(deploymentID, deployment.resourceUsage);
+
+    // Pin the instances of an event loop deployment to distinct event loops so they actually share the load
+    final EventLoop[] eventLoops = worker ? null : vertx.eventLoopSelector().nextDistinct(instances);
 
     try {
       for (int i = 0; i < instances; i++) {
@@ -1747,7 +1762,7 @@ public class DefaultPlatformManager implements PlatformManagerInternal, ModuleRe
         if (worker) {
           vertx.startInBackground(runner, multiThreaded);
         } else {
-          vertx.startOnEventLoop(runner);
+          vertx.startOnEventLoop(runner, eventLoops[i]);
         }
       }
     } finally {
@@ -1809,6 +1824,7 @@ public class DefaultPlatformManager implements PlatformManagerInternal, ModuleRe
       parentCount.complete();
       return;
     }
+    ManagementRegistry.unregisterDeployment(name);
 
     final CountingCompletionHandler<Void> count = new CountingCompletionHandler<>(vertx);
     parentCount.incRequired();
@@ -16,6 +16,7 @@
 
 package org.vertx.java.platform.impl;
 
+import org.vertx.java.core.impl.ResourceUsage;
 import org.vertx.java.core.json.JsonObject;
 
 import java.io.File;
@@ -42,6 +43,7 @@ public class Deployment {
   public final boolean autoRedeploy;
   public final boolean ha;
   public final boolean loadFromModuleFirst;
+  public final ResourceUsage resourceUsage = new ResourceUsage();
 
   public Deployment(String name, String main, ModuleIdentifier modID, int instances, JsonObject config,
                     URL[] classpath, URL[] includedClasspath, File modDir, String parentDeploymentName,
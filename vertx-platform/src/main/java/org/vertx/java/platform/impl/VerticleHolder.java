@@ -18,6 +18,7 @@ package org.vertx.java.platform.impl;
 
 import org.vertx.java.core.impl.DefaultContext;
 import org.vertx.java.core.impl.DeploymentHandle;
+import org.vertx.java.core.impl.ResourceUsage;
 import org.vertx.java.core.json.JsonObject;
 import org.vertx.java.core.logging.Logger;
 import org.vertx.java.platform.Verticle;
@@ -52,4 +53,8 @@ class VerticleHolder implements DeploymentHandle {
   public void reportException(Throwable t) {
     factory.reportException(logger, t);
   }
+
+  public ResourceUsage getResourceUsage() {
+    return deployment.resourceUsage;
+  }
 }
\ No newline at end of file
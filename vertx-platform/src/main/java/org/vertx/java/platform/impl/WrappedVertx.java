@@ -16,6 +16,7 @@
 
 package org.vertx.java.platform.impl;
 
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import org.vertx.java.core.AsyncResult;
 import org.vertx.java.core.Context;
@@ -30,6 +31,7 @@ import org.vertx.java.core.http.HttpServer;
 import org.vertx.java.core.http.impl.DefaultHttpServer;
 import org.vertx.java.core.impl.DefaultContext;
 import org.vertx.java.core.impl.EventLoopContext;
+import org.vertx.java.core.impl.EventLoopSelector;
 import org.vertx.java.core.impl.VertxInternal;
 import org.vertx.java.core.net.NetClient;
 import org.vertx.java.core.net.NetServer;
@@ -86,6 +88,11 @@ public class WrappedVertx implements VertxInternal {
     return vertx.getEventLoopGroup();
   }
 
+  @Override
+  public EventLoopSelector eventLoopSelector() {
+    return vertx.eventLoopSelector();
+  }
+
   @Override
   public ExecutorService getBackgroundPool() {
     return vertx.getBackgroundPool();
@@ -96,6 +103,11 @@ public class WrappedVertx implements VertxInternal {
     return vertx.startOnEventLoop(runnable);
   }
 
+  @Override
+  public DefaultContext startOnEventLoop(Runnable runnable, EventLoop eventLoop) {
+    return vertx.startOnEventLoop(runnable, eventLoop);
+  }
+
   @Override
   public DefaultContext startInBackground(Runnable runnable, boolean multiThreaded) {
     return vertx.startInBackground(runnable, multiThreaded);
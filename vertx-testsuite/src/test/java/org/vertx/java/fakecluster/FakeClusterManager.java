@@ -25,6 +25,7 @@ import org.vertx.java.core.spi.cluster.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class FakeClusterManager implements ClusterManager {
 
@@ -162,9 +163,10 @@ public class FakeClusterManager implements ClusterManager {
     asyncMultiMaps.clear();
   }
 
-  private class FakeAsyncMap<K, V> implements AsyncMap<K, V> {
+  private class FakeAsyncMap<K, V> implements ObservableAsyncMap<K, V> {
 
     private Map<K, V> map = new ConcurrentHashMap<>();
+    private List<Handler<K>> invalidationHandlers = new CopyOnWriteArrayList<>();
 
     @Override
     public void get(final K k, Handler<AsyncResult<V>> asyncResultHandler) {
@@ -180,6 +182,7 @@ public class FakeClusterManager implements ClusterManager {
       vertx.executeBlocking(new Action<Void>() {
         public Void perform() {
           map.put(k, v);
+          invalidate(k);
           return null;
         }
       }, completionHandler);
@@ -189,11 +192,29 @@ public class FakeClusterManager implements ClusterManager {
     public void remove(final K k, Handler<AsyncResult<Void>> completionHandler) {
       vertx.executeBlocking(new Action<Void>() {
         public Void perform() {
-          map.remove(k);
+          if (map.remove(k) != null) {
+            invalidate(k);
+          }
           return null;
         }
       }, completionHandler);
     }
+
+    @Override
+    public void addInvalidationHandler(Handler<K> handler) {
+      invalidationHandlers.add(handler);
+    }
+
+    @Override
+    public void removeInvalidationHandler(Handler<K> handler) {
+      invalidationHandlers.remove(handler);
+    }
+
+    private void invalidate(K k) {
+      for (Handler<K> handler : invalidationHandlers) {
+        handler.handle(k);
+      }
+    }
   }
 
   private class FakeAsyncMultiMap<K, V> implements AsyncMultiMap<K, V> {
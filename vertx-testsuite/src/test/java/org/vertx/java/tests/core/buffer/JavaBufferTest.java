@@ -16,11 +16,18 @@
 
 package org.vertx.java.tests.core.buffer;
 
+import io.netty.util.IllegalReferenceCountException;
 import junit.framework.TestCase;
 import org.junit.Test;
 import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.testframework.TestUtils;
 
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Random;
+
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -689,6 +696,262 @@ public class JavaBufferTest extends TestCase {
     assertTrue(!TestUtils.buffersEqual(buff, copy));
   }
 
+  @Test
+  public void testReadOnly() throws Exception {
+    Buffer buff = TestUtils.generateRandomBuffer(100);
+    assertFalse(buff.isReadOnly());
+    Buffer readOnly = buff.asReadOnly();
+    assertTrue(readOnly.isReadOnly());
+    assertTrue(readOnly.asReadOnly() == readOnly);
+    assertTrue(TestUtils.buffersEqual(buff, readOnly));
+
+    // It's a view, not a copy
+    buff.setInt(0, 1);
+    assertEquals(1, readOnly.getInt(0));
+
+    try {
+      readOnly.setInt(0, 2);
+      fail("Should throw exception");
+    } catch (ReadOnlyBufferException e) {
+      // OK
+    }
+    try {
+      readOnly.appendString("foo");
+      fail("Should throw exception");
+    } catch (ReadOnlyBufferException e) {
+      // OK
+    }
+    try {
+      readOnly.getByteBuf().setByte(0, 2);
+      fail("Should throw exception");
+    } catch (ReadOnlyBufferException e) {
+      // OK
+    }
+
+    // Copies are writable
+    Buffer copy = readOnly.copy();
+    assertFalse(copy.isReadOnly());
+    copy.appendString("foo");
+    assertEquals(103, copy.length());
+  }
+
+  @Test
+  public void testImmutableCopy() throws Exception {
+    Buffer buff = TestUtils.generateRandomBuffer(100);
+    assertFalse(buff.isImmutable());
+    assertFalse(buff.asReadOnly().isImmutable());
+    Buffer immutable = buff.asReadOnly().immutableCopy();
+    assertTrue(immutable.isReadOnly());
+    assertTrue(immutable.isImmutable());
+    assertTrue(immutable.immutableCopy() == immutable);
+    assertTrue(immutable.asReadOnly() == immutable);
+    assertTrue(immutable.slice(0, 10).isImmutable());
+    assertFalse(immutable.copy().isImmutable());
+
+    // It's a copy, not a view
+    Buffer expected = buff.copy();
+    buff.setInt(0, ~buff.getInt(0));
+    assertEquals(expected, immutable);
+    try {
+      immutable.setInt(0, 2);
+      fail("Should throw exception");
+    } catch (ReadOnlyBufferException e) {
+      // OK
+    }
+
+    // Writing it to a stream, which releases what it writes, doesn't free it, since it might be shared
+    immutable.getByteBuf().release();
+    immutable.slice(0, 10).getByteBuf().release();
+    assertEquals(expected, immutable);
+  }
+
+  @Test
+  public void testPooled() throws Exception {
+    Buffer buff = Buffer.pooled(10);
+    assertTrue(buff.isPooled());
+    assertTrue(buff.getByteBuf().isDirect());
+    assertEquals(0, buff.length());
+    byte[] bytes = TestUtils.generateRandomByteArray(1000);
+    buff.appendBytes(bytes);
+    assertTrue(TestUtils.byteArraysEqual(bytes, buff.getBytes()));
+    Buffer copy = buff.copy();
+    assertFalse(copy.isPooled());
+    // A view holds a reference of its own, so the memory is freed once both have been released
+    Buffer view = buff.asReadOnly();
+    assertTrue(view.isPooled());
+    assertFalse(buff.release());
+    assertTrue(TestUtils.byteArraysEqual(bytes, view.getBytes()));
+    assertTrue(view.release());
+    try {
+      buff.getByte(0);
+      fail("Should throw exception");
+    } catch (IllegalReferenceCountException e) {
+      // OK
+    }
+    assertTrue(TestUtils.byteArraysEqual(bytes, copy.getBytes()));
+    assertFalse(copy.release());
+    assertFalse(new Buffer().isPooled());
+  }
+
+  @Test
+  public void testSlice() throws Exception {
+    Buffer buff = TestUtils.generateRandomBuffer(100);
+    Buffer slice = buff.slice(10, 20);
+    assertEquals(10, slice.length());
+    assertEquals(buff.getBuffer(10, 20), slice);
+    // Changes are seen through both
+    slice.setByte(0, (byte) 123);
+    assertEquals((byte) 123, buff.getByte(10));
+    buff.setByte(19, (byte) 45);
+    assertEquals((byte) 45, slice.getByte(9));
+    try {
+      slice.appendByte((byte) 1);
+      fail("Should throw exception");
+    } catch (IndexOutOfBoundsException e) {
+      // OK
+    }
+    assertEquals(buff, buff.slice());
+    assertTrue(buff.asReadOnly().slice(0, 10).isReadOnly());
+  }
+
+  @Test
+  public void testComposite() throws Exception {
+    Buffer header = TestUtils.generateRandomBuffer(10);
+    Buffer body = TestUtils.generateRandomBuffer(100);
+    Buffer footer = TestUtils.generateRandomBuffer(10);
+    Buffer comp = Buffer.composite();
+    assertTrue(comp.isComposite());
+    assertFalse(header.isComposite());
+    comp.appendBuffer(header).appendInt(1234).appendBuffer(body).appendBuffer(footer, 5, 5).appendString("foo");
+    Buffer expected = new Buffer().appendBuffer(header).appendInt(1234).appendBuffer(body).appendBuffer(footer, 5, 5)
+        .appendString("foo");
+    assertEquals(expected.length(), comp.length());
+    assertEquals(expected, comp);
+    assertTrue(TestUtils.byteArraysEqual(expected.getBytes(), comp.getBytes()));
+    assertEquals(1234, comp.getInt(10));
+    assertTrue(comp.getByteBuf().nioBufferCount() > 1);
+
+    // The parts are held by reference
+    body.setByte(0, (byte) (body.getByte(0) + 1));
+    assertEquals(body.getByte(0), comp.getByte(14));
+    assertFalse(expected.equals(comp));
+
+    // Pooled buffers are handed over to the composite
+    Buffer pooled = Buffer.pooled(10).appendString("bar");
+    comp.appendBuffer(pooled);
+    assertEquals("bar", comp.getString(comp.length() - 3, comp.length()));
+
+    Buffer copy = comp.copy();
+    assertFalse(copy.isComposite());
+    assertEquals(comp, copy);
+
+    // Views hold references of their own
+    Buffer slice = comp.slice(0, 10);
+    Buffer readOnly = comp.asReadOnly();
+    assertEquals(header, slice);
+    assertFalse(comp.release());
+    assertFalse(slice.release());
+    assertEquals(copy, readOnly);
+    assertTrue(readOnly.release());
+    try {
+      pooled.getByte(0);
+      fail("Should throw exception");
+    } catch (IllegalReferenceCountException e) {
+      // OK
+    }
+  }
+
+  @Test
+  public void testStringEncodings() throws Exception {
+    String[] strs = new String[] {
+        "", "hello", TestUtils.randomUnicodeString(100), TestUtils.randomAlphaString(2000),
+        "caf\u00e9 \u20ac \ud83d\ude00", "lone \ud83d high", "lone \ude00 low", "trailing \ud83d"
+    };
+    for (String enc : new String[] {"UTF-8", "US-ASCII", "ISO-8859-1", "UTF-16"}) {
+      Charset cs = Charset.forName(enc);
+      for (String str : strs) {
+        byte[] expected = str.getBytes(cs);
+        assertTrue(enc, TestUtils.byteArraysEqual(expected, new Buffer(str, enc).getBytes()));
+        for (Buffer buff : new Buffer[] {new Buffer(), Buffer.pooled(0), Buffer.composite()}) {
+          buff.appendString("x").appendString(str, enc);
+          assertEquals(enc, expected.length + 1, buff.length());
+          assertTrue(enc, TestUtils.byteArraysEqual(expected, buff.getBytes(1, buff.length())));
+          assertEquals(enc, new String(expected, cs), buff.getString(1, buff.length(), enc));
+          buff.setString(1, str, enc);
+          assertEquals(enc, expected.length + 1, buff.length());
+          assertEquals(enc, new String(buff.getBytes(), cs), buff.toString(enc));
+          buff.release();
+        }
+      }
+    }
+    Buffer direct = Buffer.pooled(10).appendString("abc\u00e9");
+    assertEquals("abc\u00e9", direct.toString());
+    assertEquals("bc", direct.getString(1, 3));
+    direct.release();
+    try {
+      new Buffer("abc").getString(2, 10);
+      fail("Should throw exception");
+    } catch (IndexOutOfBoundsException e) {
+      // OK
+    }
+  }
+
+  @Test
+  public void testBulkAccessors() throws Exception {
+    Random random = new Random();
+    int[] ints = new int[100];
+    long[] longs = new long[100];
+    double[] doubles = new double[100];
+    for (int i = 0; i < 100; i++) {
+      ints[i] = random.nextInt();
+      longs[i] = random.nextLong();
+      doubles[i] = random.nextDouble();
+    }
+    for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      boolean swap = order == ByteOrder.LITTLE_ENDIAN;
+      for (Buffer buff : new Buffer[] {new Buffer(), Buffer.pooled(0), Buffer.composite().appendBuffer(new Buffer("x"))}) {
+        int start = buff.length();
+        buff.appendInts(ints, order).appendLongs(longs, order).appendDoubles(doubles, order);
+        assertEquals(start + 2000, buff.length());
+        for (int i = 0; i < 100; i++) {
+          int ival = buff.getInt(start + i * 4);
+          assertEquals(ints[i], swap ? Integer.reverseBytes(ival) : ival);
+          long lval = buff.getLong(start + 400 + i * 8);
+          assertEquals(longs[i], swap ? Long.reverseBytes(lval) : lval);
+          long dval = buff.getLong(start + 1200 + i * 8);
+          assertEquals(doubles[i], Double.longBitsToDouble(swap ? Long.reverseBytes(dval) : dval));
+        }
+        assertTrue(Arrays.equals(ints, buff.getInts(start, new int[100], order)));
+        assertTrue(Arrays.equals(longs, buff.getLongs(start + 400, new long[100], order)));
+        assertTrue(Arrays.equals(doubles, buff.getDoubles(start + 1200, new double[100], order)));
+
+        // Set past the end to make the buffer expand
+        buff.setLongs(start + 1900, longs, order);
+        assertEquals(start + 2700, buff.length());
+        assertTrue(Arrays.equals(longs, buff.getLongs(start + 1900, new long[100], order)));
+        buff.setInts(start, new int[] {1, 2}, order).setDoubles(start + 8, new double[] {1.5d}, order);
+        assertTrue(Arrays.equals(new int[] {1, 2}, buff.getInts(start, new int[2], order)));
+        assertEquals(1.5d, buff.getDoubles(start + 8, new double[1], order)[0]);
+        try {
+          buff.getLongs(buff.length() - 8, new long[2], order);
+          fail("Should throw exception");
+        } catch (IndexOutOfBoundsException e) {
+          // OK
+        }
+        buff.release();
+      }
+    }
+    Buffer buff = new Buffer().appendLongs(longs);
+    assertEquals(longs[0], buff.getLong(0));
+    assertTrue(Arrays.equals(longs, buff.getLongs(0, new long[100])));
+    try {
+      buff.asReadOnly().setInts(0, ints);
+      fail("Should throw exception");
+    } catch (ReadOnlyBufferException e) {
+      // OK
+    }
+  }
+
   @Test
   public void testCreateBuffers() throws Exception {
     Buffer buff = new Buffer(1000);
@@ -16,15 +16,26 @@
 
 package org.vertx.java.tests.core.context;
 
+import io.netty.channel.EventLoop;
+import io.netty.channel.nio.NioEventLoopGroup;
 import org.junit.Test;
 import org.vertx.java.core.Context;
 import org.vertx.java.core.Vertx;
 import org.vertx.java.core.VertxFactory;
 import org.vertx.java.core.VoidHandler;
+import org.vertx.java.core.impl.EventLoopSelector;
+import org.vertx.java.core.shareddata.LocalMap;
 import org.vertx.java.testframework.TestBase;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class JavaContextTest extends TestBase {
 
@@ -79,4 +90,199 @@ public class JavaContextTest extends TestBase {
     Vertx vertx = VertxFactory.newVertx();
     assertNull(vertx.currentContext());
   }
+
+  @Test
+  public void testLocalMap() throws Exception {
+    final Vertx vertx = VertxFactory.newVertx();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final AtomicReference<LocalMap<String, Object>> ref = new AtomicReference<>();
+    vertx.runOnContext(new VoidHandler() {
+      @Override
+      protected void handle() {
+        try {
+          Context ctx = vertx.currentContext();
+          LocalMap<String, Object> map = ctx.localMap("cache", 2);
+          assertSame(map, ctx.localMap("cache"));
+          assertEquals(2, map.maxSize());
+          Object value = new Object();
+          map.put("a", value);
+          map.put("b", "bar");
+          // Values are not copied
+          assertSame(value, map.get("a"));
+          assertNull(map.get("c"));
+          // "b" is now the least recently used entry
+          map.put("c", "quux");
+          assertEquals(2, map.size());
+          assertFalse(map.containsKey("b"));
+          assertTrue(map.containsKey("a"));
+          assertEquals(1, map.hitCount());
+          assertEquals(1, map.missCount());
+          assertEquals(1, map.evictionCount());
+          ref.set(map);
+        } catch (Throwable t) {
+          failure.set(t);
+        }
+        latch.countDown();
+      }
+    });
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    try {
+      ref.get().get("a");
+      fail("Should throw exception");
+    } catch (IllegalStateException e) {
+      // OK
+    }
+    try {
+      ref.get().size();
+      fail("Should throw exception");
+    } catch (IllegalStateException e) {
+      // OK
+    }
+    try {
+      ref.get().putAll(Collections.singletonMap("d", "bar"));
+      fail("Should throw exception");
+    } catch (IllegalStateException e) {
+      // OK
+    }
+    try {
+      ref.get().containsValue("quux");
+      fail("Should throw exception");
+    } catch (IllegalStateException e) {
+      // OK
+    }
+    try {
+      ref.get().keySet().iterator();
+      fail("Should throw exception");
+    } catch (IllegalStateException e) {
+      // OK
+    }
+    try {
+      ref.get().values().size();
+      fail("Should throw exception");
+    } catch (IllegalStateException e) {
+      // OK
+    }
+  }
+
+  @Test
+  public void testLocalMapViews() throws Exception {
+    final Vertx vertx = VertxFactory.newVertx();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final AtomicReference<Iterator<Map.Entry<String, Object>>> ref = new AtomicReference<>();
+    vertx.runOnContext(new VoidHandler() {
+      protected void handle() {
+        try {
+          LocalMap<String, Object> map = vertx.currentContext().localMap("views");
+          Map<String, Object> other = new HashMap<>();
+          other.put("a", "foo");
+          other.put("b", "bar");
+          map.putAll(other);
+          assertEquals(2, map.size());
+          assertTrue(map.containsValue("bar"));
+          assertEquals(other, map);
+          for (Map.Entry<String, Object> entry : map.entrySet()) {
+            entry.setValue(entry.getValue() + "!");
+          }
+          assertEquals("foo!", map.get("a"));
+          map.keySet().remove("a");
+          assertEquals(Collections.singletonMap("b", "bar!"), map);
+          map.values().clear();
+          assertTrue(map.isEmpty());
+          map.put("c", "quux");
+          ref.set(map.entrySet().iterator());
+        } catch (Throwable t) {
+          failure.set(t);
+        }
+        latch.countDown();
+      }
+    });
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    // An iterator can't be used from another thread either
+    try {
+      ref.get().next();
+      fail("Should throw exception");
+    } catch (IllegalStateException e) {
+      // OK
+    }
+  }
+
+  @Test
+  public void testLocalMapOffEventLoop() throws Exception {
+    final Vertx vertx = VertxFactory.newVertx();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    vertx.runOnContext(new VoidHandler() {
+      @Override
+      protected void handle() {
+        final Context ctx = vertx.currentContext();
+        new Thread() {
+          public void run() {
+            try {
+              ctx.localMap("cache");
+              failure.set(new AssertionError("Should throw exception"));
+            } catch (IllegalStateException e) {
+              // OK
+            }
+            latch.countDown();
+          }
+        }.start();
+      }
+    });
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+  }
+
+  @Test
+  public void testEventLoopSelectorDistinct() throws Exception {
+    NioEventLoopGroup group = new NioEventLoopGroup(4);
+    try {
+      for (EventLoopSelector.Strategy strategy : EventLoopSelector.Strategy.values()) {
+        EventLoopSelector selector = new EventLoopSelector(group, strategy);
+        EventLoop[] loops = selector.nextDistinct(6);
+        Set<EventLoop> distinct = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+          distinct.add(loops[i]);
+        }
+        assertEquals(4, distinct.size());
+        assertFalse(loops[4] == loops[5]);
+      }
+    } finally {
+      group.shutdownGracefully();
+    }
+  }
+
+  @Test
+  public void testEventLoopSelectorLeastChannels() throws Exception {
+    NioEventLoopGroup group = new NioEventLoopGroup(3);
+    try {
+      EventLoopSelector selector = new EventLoopSelector(group, EventLoopSelector.Strategy.LEAST_CHANNELS);
+      EventLoop[] loops = selector.eventLoops().toArray(new EventLoop[3]);
+      selector.channelRegistered(loops[0]);
+      selector.channelRegistered(loops[0]);
+      selector.channelRegistered(loops[2]);
+      assertEquals(2, selector.channelCount(loops[0]));
+      assertEquals(0, selector.channelCount(loops[1]));
+      for (int i = 0; i < 10; i++) {
+        assertTrue(selector.next() == loops[1]);
+      }
+      selector.channelRegistered(loops[1]);
+      selector.channelRegistered(loops[1]);
+      selector.channelUnregistered(loops[0]);
+      selector.channelUnregistered(loops[0]);
+      assertTrue(selector.next() == loops[0]);
+      assertEquals(0, (int) selector.channelCounts().get(loops[0]));
+    } finally {
+      group.shutdownGracefully();
+    }
+  }
 }
@@ -18,10 +18,15 @@ package org.vertx.java.tests.core.http;
 
 import org.junit.Test;
 import org.vertx.java.core.*;
+import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.http.HttpClient;
 import org.vertx.java.core.http.HttpClientResponse;
 import org.vertx.java.core.http.HttpServer;
 import org.vertx.java.core.http.HttpServerRequest;
+import org.vertx.java.core.logging.Logger;
+import org.vertx.java.core.logging.impl.LoggerFactory;
+import org.vertx.java.core.net.NetClient;
+import org.vertx.java.core.net.NetSocket;
 import org.vertx.java.testframework.TestBase;
 import vertx.tests.core.http.*;
 
@@ -33,6 +38,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class JavaHttpTest extends TestBase {
 
+  private static final Logger log = LoggerFactory.getLogger(JavaHttpTest.class);
+
   @Override
   protected void setUp() throws Exception {
     super.setUp();
@@ -123,6 +130,80 @@ public class JavaHttpTest extends TestBase {
     vertx.stop();
   }
 
+  /*
+  Not much of a benchmark, but shows the throughput of pipelined requests whose responses are written in several
+  parts, which are flushed together rather than one by one
+   */
+  @Test
+  public void testPipelinedRequests() throws Exception {
+    final int batch = 100;
+    final int batches = 300;
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Vertx vertx = VertxFactory.newVertx();
+
+    final HttpServer server = vertx.createHttpServer();
+    assertEquals(65536, server.getFlushThreshold());
+    try {
+      server.setFlushThreshold(0);
+      fail("Should throw exception");
+    } catch (IllegalArgumentException e) {
+      // OK
+    }
+    server.requestHandler(new Handler<HttpServerRequest>() {
+      public void handle(final HttpServerRequest req) {
+        // As if the response depended on something else, such as a reply from the event bus
+        vertx.runOnContext(new Handler<Void>() {
+          public void handle(Void v) {
+            // Each response is written in several chunks, and has a single '#' in it
+            req.response().setChunked(true);
+            for (int i = 0; i < 10; i++) {
+              req.response().write("chunk");
+            }
+            req.response().end("#");
+          }
+        });
+      }
+    });
+    final StringBuilder requests = new StringBuilder();
+    for (int i = 0; i < batch; i++) {
+      requests.append("GET /").append(i).append(" HTTP/1.1\r\nHost: localhost\r\n\r\n");
+    }
+    final long[] start = new long[1];
+    server.listen(8080, new AsyncResultHandler<HttpServer>() {
+      @Override
+      public void handle(AsyncResult<HttpServer> ar) {
+        final NetClient client = vertx.createNetClient();
+        client.connect(8080, new AsyncResultHandler<NetSocket>() {
+          public void handle(AsyncResult<NetSocket> res) {
+            final NetSocket socket = res.result();
+            socket.dataHandler(new Handler<Buffer>() {
+              int responses;
+              public void handle(Buffer data) {
+                for (int i = 0; i < data.length(); i++) {
+                  if (data.getByte(i) == '#' && ++responses % batch == 0) {
+                    if (responses == batch * batches) {
+                      latch.countDown();
+                    } else {
+                      socket.write(requests.toString());
+                    }
+                  }
+                }
+              }
+            });
+            start[0] = System.nanoTime();
+            socket.write(requests.toString());
+          }
+        });
+      }
+    });
+
+    assertTrue(latch.await(60, TimeUnit.SECONDS));
+    long nanos = System.nanoTime() - start[0];
+    log.info("Handled " + batch * batches + " requests, pipelined in batches of " + batch + ", at " +
+        (batch * batches * 1000000000L / nanos) + " requests/s");
+    vertx.stop();
+  }
+
   public void testSimpleGET() {
     startTest(getMethodName());
   }
@@ -335,6 +416,10 @@ public class JavaHttpTest extends TestBase {
     startTest(getMethodName());
   }
 
+  public void testResponseReleasesPooledBuffers() {
+    startTest(getMethodName());
+  }
+
   public void testResponseBodyBufferAtEnd() {
     startTest(getMethodName());
   }
@@ -16,14 +16,27 @@
 
 package org.vertx.java.tests.core.http;
 
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.MultiMap;
+import org.vertx.java.core.http.CaseInsensitiveMultiMap;
+import org.vertx.java.core.http.HttpServerRequest;
+import org.vertx.java.core.http.RouteMatcher;
+import org.vertx.java.core.logging.Logger;
+import org.vertx.java.core.logging.impl.LoggerFactory;
 import org.vertx.java.testframework.TestBase;
 import vertx.tests.core.http.RouteMatcherTestClient;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
 public class JavaRouteMatcherTest extends TestBase {
 
+  private static final Logger log = LoggerFactory.getLogger(JavaRouteMatcherTest.class);
+
   @Override
   protected void setUp() throws Exception {
     super.setUp();
@@ -145,4 +158,121 @@ public class JavaRouteMatcherTest extends TestBase {
   public void testRouteNoMatchHandlerRegex() {
     startTest(getMethodName());
   }
+
+  public void testRouteOrder() {
+    RouteMatcher matcher = new RouteMatcher();
+    matcher.get("/users/:id", new NamedHandler("id"));
+    matcher.get("/users/me", new NamedHandler("me"));
+    matcher.get("/posts/latest", new NamedHandler("latest"));
+    matcher.get("/posts/:id", new NamedHandler("post"));
+    matcher.getWithRegEx("/files/.*", new NamedHandler("regex"));
+    matcher.get("/files/:name", new NamedHandler("file"));
+    matcher.get("/docs/:name", new NamedHandler("doc"));
+    matcher.getWithRegEx("/docs/.*", new NamedHandler("regex2"));
+    matcher.get("/pages/:name.html", new NamedHandler("page"));
+    matcher.get("/:a/:b/c", new NamedHandler("abc"));
+    matcher.noMatch(new NamedHandler("none"));
+
+    // The first route which matches wins, whatever kind of route it is
+    assertRoute(matcher, "/users/me", "id", "id", "me");
+    assertRoute(matcher, "/users/123", "id", "id", "123");
+    assertRoute(matcher, "/posts/latest", "latest");
+    assertRoute(matcher, "/posts/1", "post", "id", "1");
+    assertRoute(matcher, "/files/a", "regex");
+    assertRoute(matcher, "/docs/a", "doc", "name", "a");
+    assertRoute(matcher, "/docs/a/b", "regex2");
+    assertRoute(matcher, "/pages/index.html", "page", "name", "index");
+    assertRoute(matcher, "/x/y/c", "abc", "a", "x", "b", "y");
+
+    // Parameters aren't empty, and don't span segments
+    assertRoute(matcher, "/users/", "none");
+    assertRoute(matcher, "/users/a/b", "none");
+    assertRoute(matcher, "/users", "none");
+    assertRoute(matcher, "/x//c", "none");
+  }
+
+  /*
+  Not much of a benchmark, but shows how routing time depends on the number of routes
+   */
+  public void testRouteBenchmark() {
+    int routes = 400;
+    final int[] routed = new int[1];
+    Handler<HttpServerRequest> handler = new Handler<HttpServerRequest>() {
+      public void handle(HttpServerRequest req) {
+        // So the parameters added by routing don't pile up
+        req.params().clear();
+        routed[0]++;
+      }
+    };
+    RouteMatcher patterns = new RouteMatcher();
+    RouteMatcher regexes = new RouteMatcher();
+    for (int i = 0; i < routes; i++) {
+      patterns.get("/api/resource" + i + "/:id/items/:item", handler);
+      regexes.getWithRegEx("\\/api\\/resource" + i + "\\/([^\\/]+)\\/items\\/([^\\/]+)", handler);
+    }
+    patterns.noMatch(new NamedHandler("none"));
+    regexes.noMatch(new NamedHandler("none"));
+    String path = "/api/resource" + (routes - 1) + "/123/items/456";
+    int iterations = 50000;
+    long patternNanos = nanosPerRoute(patterns, path, iterations);
+    long regexNanos = nanosPerRoute(regexes, path, iterations);
+    assertEquals(4 * iterations, routed[0]);
+    log.info("Routing to the last of " + routes + " routes: " + patternNanos + " ns with patterns, " + regexNanos +
+        " ns with regular expressions");
+  }
+
+  private static long nanosPerRoute(RouteMatcher matcher, String path, int iterations) {
+    HttpServerRequest request = request(path);
+    for (int i = 0; i < iterations; i++) {
+      matcher.handle(request);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      matcher.handle(request);
+    }
+    return (System.nanoTime() - start) / iterations;
+  }
+
+  private static void assertRoute(RouteMatcher matcher, String path, String handler, String... params) {
+    HttpServerRequest request = request(path);
+    matcher.handle(request);
+    assertEquals(handler, request.params().get("handler"));
+    for (int i = 0; i < params.length; i += 2) {
+      assertEquals(params[i + 1], request.params().get(params[i]));
+    }
+  }
+
+  /*
+  Just enough of a request to route it
+   */
+  private static HttpServerRequest request(final String path) {
+    final MultiMap params = new CaseInsensitiveMultiMap();
+    return (HttpServerRequest) Proxy.newProxyInstance(HttpServerRequest.class.getClassLoader(),
+        new Class[] {HttpServerRequest.class}, new InvocationHandler() {
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+              case "method":
+                return "GET";
+              case "path":
+                return path;
+              case "params":
+                return params;
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          }
+        });
+  }
+
+  private static class NamedHandler implements Handler<HttpServerRequest> {
+    final String name;
+
+    NamedHandler(String name) {
+      this.name = name;
+    }
+
+    public void handle(HttpServerRequest req) {
+      req.params().set("handler", name);
+    }
+  }
 }
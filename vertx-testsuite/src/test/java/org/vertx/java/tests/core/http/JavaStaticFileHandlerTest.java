@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.tests.core.http;
+
+import io.netty.buffer.ByteBuf;
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.AsyncResultHandler;
+import org.vertx.java.core.Vertx;
+import org.vertx.java.core.VertxFactory;
+import org.vertx.java.core.http.HttpServer;
+import org.vertx.java.core.http.StaticFileHandler;
+import org.vertx.java.testframework.TestBase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class JavaStaticFileHandlerTest extends TestBase {
+
+  private Vertx vertx;
+  private HttpServer server;
+  private StaticFileHandler handler;
+  private Path dir;
+  private Path webRoot;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    dir = Files.createTempDirectory("static-file-handler");
+    webRoot = Files.createDirectory(dir.resolve("webroot"));
+    vertx = VertxFactory.newVertx();
+    handler = new StaticFileHandler(vertx, webRoot.toString()).setMaxCachedFileSize(1024);
+    server = vertx.createHttpServer().requestHandler(handler);
+    final CountDownLatch latch = new CountDownLatch(1);
+    server.listen(8080, new AsyncResultHandler<HttpServer>() {
+      public void handle(AsyncResult<HttpServer> ar) {
+        latch.countDown();
+      }
+    });
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    handler.close();
+    final CountDownLatch latch = new CountDownLatch(1);
+    server.close(new AsyncResultHandler<Void>() {
+      public void handle(AsyncResult<Void> ar) {
+        latch.countDown();
+      }
+    });
+    latch.await(10, TimeUnit.SECONDS);
+    delete(dir.toFile());
+    super.tearDown();
+  }
+
+  public void testServeFile() throws Exception {
+    write("foo.txt", "hello");
+    HttpURLConnection conn = get("/foo.txt");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("hello", body(conn));
+    assertEquals("text/plain", conn.getHeaderField("Content-Type"));
+    assertNotNull(conn.getHeaderField("ETag"));
+    assertNotNull(conn.getHeaderField("Last-Modified"));
+    assertNull(conn.getHeaderField("Vary"));
+
+    // Served from the cache this time
+    conn = get("/foo.txt");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("hello", body(conn));
+
+    conn = open("/foo.txt");
+    conn.setRequestMethod("HEAD");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("5", conn.getHeaderField("Content-Length"));
+  }
+
+  public void testConditionalRequests() throws Exception {
+    write("foo.txt", "hello");
+    HttpURLConnection conn = get("/foo.txt");
+    body(conn);
+    String etag = conn.getHeaderField("ETag");
+    String lastModified = conn.getHeaderField("Last-Modified");
+
+    conn = open("/foo.txt");
+    conn.setRequestProperty("If-None-Match", etag);
+    assertEquals(304, conn.getResponseCode());
+    assertEquals(etag, conn.getHeaderField("ETag"));
+
+    conn = open("/foo.txt");
+    conn.setRequestProperty("If-None-Match", "\"other\"");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("hello", body(conn));
+
+    conn = open("/foo.txt");
+    conn.setRequestProperty("If-Modified-Since", lastModified);
+    assertEquals(304, conn.getResponseCode());
+
+    conn = open("/foo.txt");
+    conn.setRequestProperty("If-Modified-Since", "Thu, 01 Jan 1970 00:00:00 GMT");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("hello", body(conn));
+  }
+
+  public void testGzipSibling() throws Exception {
+    write("foo.txt", "hello");
+    try (GZIPOutputStream out = new GZIPOutputStream(Files.newOutputStream(webRoot.resolve("foo.txt.gz")))) {
+      out.write("compressed hello".getBytes("UTF-8"));
+    }
+    HttpURLConnection conn = get("/foo.txt");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("hello", body(conn));
+    assertNull(conn.getHeaderField("Content-Encoding"));
+    assertEquals("Accept-Encoding", conn.getHeaderField("Vary"));
+    String etag = conn.getHeaderField("ETag");
+
+    conn = open("/foo.txt");
+    conn.setRequestProperty("Accept-Encoding", "deflate, gzip");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("gzip", conn.getHeaderField("Content-Encoding"));
+    assertEquals("text/plain", conn.getHeaderField("Content-Type"));
+    assertEquals("compressed hello", gunzip(conn));
+    assertFalse(etag.equals(conn.getHeaderField("ETag")));
+
+    conn = open("/foo.txt");
+    conn.setRequestProperty("Accept-Encoding", "gzip;q=0");
+    assertEquals(200, conn.getResponseCode());
+    assertNull(conn.getHeaderField("Content-Encoding"));
+    assertEquals("hello", body(conn));
+  }
+
+  public void testLargeFile() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append("abcdefghij");
+    }
+    write("large.html", sb.toString());
+    for (int i = 0; i < 2; i++) {
+      HttpURLConnection conn = get("/large.html");
+      assertEquals(200, conn.getResponseCode());
+      assertEquals("text/html", conn.getHeaderField("Content-Type"));
+      assertEquals(sb.toString(), body(conn));
+      String etag = conn.getHeaderField("ETag");
+
+      conn = open("/large.html");
+      conn.setRequestProperty("If-None-Match", etag);
+      assertEquals(304, conn.getResponseCode());
+    }
+  }
+
+  public void testCachedContentReleased() throws Exception {
+    handler.setMaxCacheSize(8);
+    write("a.txt", "hello");
+    write("b.txt", "world");
+    for (int i = 0; i < 5; i++) {
+      assertEquals("hello", body(get("/a.txt")));
+    }
+    // Only the cache holds a reference once the responses have been written
+    ByteBuf content = cachedContent("a.txt");
+    waitForRefCnt(content, 1);
+
+    // Which is given up when the file is dropped to make room for another
+    assertEquals("world", body(get("/b.txt")));
+    waitForRefCnt(content, 0);
+    waitForRefCnt(cachedContent("b.txt"), 1);
+  }
+
+  public void testIndexPage() throws Exception {
+    Files.createDirectory(webRoot.resolve("sub"));
+    write("sub/index.html", "index");
+    HttpURLConnection conn = get("/sub/");
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("index", body(conn));
+    assertEquals("text/html", conn.getHeaderField("Content-Type"));
+  }
+
+  public void testNotFound() throws Exception {
+    Files.write(dir.resolve("secret.txt"), "secret".getBytes("UTF-8"));
+    assertEquals(404, get("/nothere.txt").getResponseCode());
+    assertEquals(404, get("/../secret.txt").getResponseCode());
+    assertEquals(404, get("/%2e%2e/secret.txt").getResponseCode());
+    assertEquals(404, get("/").getResponseCode());
+
+    // Nor under a directory which doesn't exist, or a file
+    write("index.html", "index");
+    assertEquals(404, get("/missing/foo.txt").getResponseCode());
+    assertEquals(404, get("/index.html/foo.txt").getResponseCode());
+    assertEquals(404, get("/missing/foo.txt").getResponseCode());
+    assertEquals(200, get("/index.html").getResponseCode());
+
+    // A file which wasn't found is found once it's been created
+    assertEquals(404, get("/later.txt").getResponseCode());
+    write("later.txt", "later");
+    long end = System.currentTimeMillis() + 10000;
+    int status;
+    while ((status = get("/later.txt").getResponseCode()) == 404 && System.currentTimeMillis() < end) {
+      Thread.sleep(50);
+    }
+    assertEquals(200, status);
+  }
+
+  public void testMethodNotAllowed() throws Exception {
+    write("foo.txt", "hello");
+    HttpURLConnection conn = open("/foo.txt");
+    conn.setRequestMethod("DELETE");
+    assertEquals(405, conn.getResponseCode());
+    assertEquals("GET, HEAD", conn.getHeaderField("Allow"));
+  }
+
+  public void testFileChanged() throws Exception {
+    write("foo.txt", "hello");
+    HttpURLConnection conn = get("/foo.txt");
+    assertEquals("hello", body(conn));
+    String etag = conn.getHeaderField("ETag");
+
+    write("foo.txt", "changed");
+    Files.setLastModifiedTime(webRoot.resolve("foo.txt"),
+        java.nio.file.attribute.FileTime.fromMillis(System.currentTimeMillis() + 10000));
+    // The change is picked up once the watcher has seen it
+    long end = System.currentTimeMillis() + 10000;
+    String body;
+    do {
+      Thread.sleep(50);
+      conn = get("/foo.txt");
+      body = body(conn);
+    } while (!body.equals("changed") && System.currentTimeMillis() < end);
+    assertEquals("changed", body);
+    assertFalse(etag.equals(conn.getHeaderField("ETag")));
+
+    conn = open("/foo.txt");
+    conn.setRequestProperty("If-None-Match", etag);
+    assertEquals(200, conn.getResponseCode());
+  }
+
+  /*
+  The content of a cached file, from the handler's cache
+   */
+  private ByteBuf cachedContent(String name) throws Exception {
+    Path file = webRoot.resolve(name).toAbsolutePath().normalize();
+    Map<?, ?> cache = (Map<?, ?>) field(handler, "cache");
+    // Not get, which changes the order of an access ordered map
+    for (Object cached : cache.values()) {
+      if (file.equals(field(cached, "file"))) {
+        return (ByteBuf) field(field(cached, "plain"), "content");
+      }
+    }
+    fail(name + " is not cached");
+    return null;
+  }
+
+  private static Object field(Object obj, String name) throws Exception {
+    Field field = obj.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    return field.get(obj);
+  }
+
+  private void waitForRefCnt(ByteBuf buf, int expected) throws Exception {
+    long end = System.currentTimeMillis() + 10000;
+    while (buf.refCnt() != expected && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, buf.refCnt());
+  }
+
+  private void write(String name, String content) throws IOException {
+    Files.write(webRoot.resolve(name), content.getBytes("UTF-8"));
+  }
+
+  private HttpURLConnection open(String path) throws IOException {
+    return (HttpURLConnection) new URL("http://localhost:8080" + path).openConnection();
+  }
+
+  private HttpURLConnection get(String path) throws IOException {
+    HttpURLConnection conn = open(path);
+    conn.connect();
+    return conn;
+  }
+
+  private String body(HttpURLConnection conn) throws IOException {
+    try (InputStream in = conn.getInputStream()) {
+      return read(in);
+    }
+  }
+
+  private String gunzip(HttpURLConnection conn) throws IOException {
+    try (InputStream in = new GZIPInputStream(conn.getInputStream())) {
+      return read(in);
+    }
+  }
+
+  private String read(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buff = new byte[4096];
+    int n;
+    while ((n = in.read(buff)) != -1) {
+      out.write(buff, 0, n);
+    }
+    return out.toString("UTF-8");
+  }
+
+  private void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
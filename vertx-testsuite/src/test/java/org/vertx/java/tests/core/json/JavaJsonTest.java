@@ -16,15 +16,27 @@
 
 package org.vertx.java.tests.core.json;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.Test;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.json.DecodeException;
 import org.vertx.java.core.json.JsonArray;
 import org.vertx.java.core.json.JsonElement;
 import org.vertx.java.core.json.JsonObject;
+import org.vertx.java.core.json.impl.Json;
 import org.vertx.java.core.logging.Logger;
 import org.vertx.java.core.logging.impl.LoggerFactory;
 import org.vertx.java.testframework.TestBase;
+import org.vertx.java.testframework.TestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  *
@@ -351,5 +363,409 @@ public class JavaJsonTest extends TestBase {
     assertFalse(obj.containsField("t"));
   }
 
+  @Test
+  public void testEncodeToBuffer() {
+    String str = TestUtils.randomUnicodeString(100);
+    JsonObject obj = new JsonObject().putString("s", str).putNumber("n", 123).putBoolean("b", true)
+        .putObject("o", new JsonObject().putString("x", "y")).putArray("a", new JsonArray().add(1).add("z"));
+    Buffer buff = obj.encodeToBuffer();
+    assertEquals(obj.encode(), buff.toString("UTF-8"));
+    assertEquals(obj, new JsonObject(buff));
+
+    JsonArray arr = new JsonArray().add(str).add(obj).add(1.5d);
+    buff = arr.encodeToBuffer();
+    assertEquals(arr.encode(), buff.toString("UTF-8"));
+    assertEquals(arr, new JsonArray(buff));
+  }
+
+  @Test
+  public void testDecodeFromBuffer() {
+    JsonObject obj = new JsonObject().putString("s", TestUtils.randomUnicodeString(100));
+    byte[] bytes = obj.encodeToBuffer().getBytes();
+    // From a slice of a heap buffer
+    Buffer buff = new Buffer().appendString("xx").appendBytes(bytes).appendString("yy");
+    assertEquals(obj, new JsonObject(buff.slice(2, 2 + bytes.length)));
+    // From a direct buffer
+    ByteBuf direct = Unpooled.directBuffer().writeBytes(bytes);
+    try {
+      assertEquals(obj, new JsonObject(new Buffer(direct)));
+    } finally {
+      direct.release();
+    }
+    // Comments are allowed as when decoding a String
+    assertEquals(1, new JsonArray(new Buffer("[1 /* one */]")).size());
+    try {
+      new JsonObject(new Buffer("{\"s\": "));
+      fail("Should throw exception");
+    } catch (DecodeException e) {
+      // OK
+    }
+  }
+
+  @Test
+  public void testLazy() {
+    String str = "{ \"a\" : 1 , /* comment */ \"b\": {\"c\": \"d\", \"e\\u0041\": [1, {\"f\": null}]},\n" +
+        "\"g\": \"\\\"\u00e9\", \"h\": [true, 2.5], \"i\": {}}";
+    JsonObject eager = new JsonObject(str);
+    JsonObject lazy = new JsonObject(new Buffer(str), true);
+    assertEquals(1, lazy.getInteger("a").intValue());
+    assertEquals("\"\u00e9", lazy.getString("g"));
+    assertTrue(lazy.containsField("h"));
+    assertFalse(lazy.containsField("x"));
+    assertNull(lazy.getString("x"));
+    assertEquals(5, lazy.size());
+    assertEquals("d", lazy.getObject("b").getString("c"));
+    assertEquals(0, lazy.getObject("i").size());
+    // Nothing changed, so the original is reused
+    assertEquals(str, lazy.encode());
+    assertEquals(str, lazy.encodeToBuffer().toString("UTF-8"));
+    assertEquals(eager.getFieldNames(), lazy.getFieldNames());
+    assertEquals(str, lazy.encode());
+    // Comparing reads the nested array, after which it is encoded again
+    assertEquals(eager, lazy);
+    assertEquals(eager.encode(), lazy.encode());
+
+    // Copies share the bytes, but not changes
+    lazy = new JsonObject(new Buffer(str), true);
+    JsonObject copy = lazy.copy();
+    copy.getObject("b").putString("c", "changed");
+    assertEquals("d", lazy.getObject("b").getString("c"));
+    assertEquals(str, lazy.encode());
+    assertEquals("changed", new JsonObject(copy.encode()).getObject("b").getString("c"));
+
+    // A change to a nested object means it's encoded again
+    eager = new JsonObject(str);
+    lazy.getObject("b").putString("c", "x");
+    eager.getObject("b").putString("c", "x");
+    assertEquals(eager.encode(), lazy.encode());
+    assertEquals(eager, new JsonObject(lazy.encodeToBuffer()));
+
+    // Changes to the top level object too
+    lazy = new JsonObject(new Buffer(str), true);
+    lazy.removeField("a");
+    assertEquals(new JsonObject(str).removeField("a"), 1);
+    assertFalse(new JsonObject(lazy.encode()).containsField("a"));
+    lazy = new JsonObject(new Buffer(str), true);
+    lazy.putString("a", "y");
+    assertEquals("y", new JsonObject(lazy.encode()).getString("a"));
+
+    // Arrays might be changed behind our back
+    lazy = new JsonObject(new Buffer(str), true);
+    lazy.getArray("h").addString("z");
+    assertEquals("z", new JsonObject(lazy.encode()).getArray("h").get(2));
+
+    // Later fields win, as when decoding eagerly
+    assertEquals(2, new JsonObject(new Buffer("{\"a\": 1, \"a\": 2}"), true).getInteger("a").intValue());
+  }
+
+  @Test
+  public void testLazyInvalid() {
+    // Invalid parts are only found when they're used
+    JsonObject lazy = new JsonObject(new Buffer("{\"a\": 1, \"b\": [1, x]}"), true);
+    assertEquals(1, lazy.getInteger("a").intValue());
+    try {
+      lazy.getArray("b");
+      fail("Should throw exception");
+    } catch (DecodeException e) {
+      // OK
+    }
+    String[] invalid = {"[1]", "{\"a\" 1}", "{\"a\": 1", "{\"a\": }", "{\"a\": 1,}", "{\"a\": \"b}", "{\"a\": [1}"};
+    for (String str : invalid) {
+      try {
+        new JsonObject(new Buffer(str), true).getString("a");
+        fail("Should throw exception for " + str);
+      } catch (DecodeException e) {
+        // OK
+      }
+    }
+  }
+
+  @Test
+  public void testCopyOnWrite() {
+    JsonObject obj = new JsonObject("{\"a\": 1, \"b\": {\"c\": {\"d\": \"e\"}}, \"f\": [1, {\"g\": 2}]}");
+    String str = obj.encode();
+    JsonObject nested = obj.getObject("b");
+    JsonObject copy = obj.copy();
+    assertEquals(obj, copy);
+
+    // Changes to the copy, at any depth, aren't seen in the original
+    copy.putNumber("a", 2);
+    copy.getObject("b").getObject("c").putString("d", "x");
+    ((JsonObject) copy.getArray("f").get(1)).putNumber("g", 3);
+    copy.getArray("f").addString("y");
+    assertEquals(str, obj.encode());
+    assertEquals("{\"a\":2,\"b\":{\"c\":{\"d\":\"x\"}},\"f\":[1,{\"g\":3},\"y\"]}", copy.encode());
+
+    // Nor are changes to the original, including through objects got from it before the copy was made
+    copy = obj.copy();
+    nested.getObject("c").putString("d", "z");
+    obj.removeField("a");
+    for (Object o : obj.getArray("f")) {
+      if (o instanceof JsonObject) {
+        ((JsonObject) o).putNumber("g", 4);
+      }
+    }
+    assertEquals(str, copy.encode());
+    assertEquals("{\"b\":{\"c\":{\"d\":\"z\"}},\"f\":[1,{\"g\":4}]}", obj.encode());
+
+    // Copies of copies
+    JsonObject copy2 = copy.copy();
+    JsonObject copy3 = copy2.copy();
+    copy2.getObject("b").getObject("c").putString("d", "copy2");
+    assertEquals(str, copy.encode());
+    assertEquals(str, copy3.encode());
+    assertEquals("copy2", copy2.getObject("b").getObject("c").getString("d"));
+
+    // Objects got from, or put into, an object are still the object's own
+    obj.getObject("b").putString("h", "i");
+    assertEquals("i", obj.getObject("b").getString("h"));
+    JsonObject child = new JsonObject().putString("j", "k");
+    JsonArray arr = new JsonArray().addString("l");
+    obj.putObject("child", child);
+    obj.putArray("arr", arr);
+    copy = obj.copy();
+    child.putString("j", "m");
+    arr.addString("n");
+    assertEquals("m", obj.getObject("child").getString("j"));
+    assertEquals(2, obj.getArray("arr").size());
+    assertEquals("k", copy.getObject("child").getString("j"));
+    assertEquals(1, copy.getArray("arr").size());
+    copy.getObject("child").putString("j", "o");
+    assertEquals("o", copy.getObject("child").getString("j"));
+    assertEquals("m", child.getString("j"));
+
+    // Arrays too
+    JsonArray array = new JsonArray().addString("a").addArray(new JsonArray().addNumber(1));
+    JsonArray arrayCopy = array.copy();
+    ((JsonArray) arrayCopy.get(1)).addNumber(2);
+    arrayCopy.addString("b");
+    assertEquals("[\"a\",[1]]", array.encode());
+    assertEquals("[\"a\",[1,2],\"b\"]", arrayCopy.encode());
+
+    // And copies of lazy objects
+    JsonObject lazy = new JsonObject(new Buffer(str), true);
+    copy = lazy.copy();
+    lazy.getObject("b").putString("c", "x");
+    assertEquals(str, copy.encode());
+  }
+
+  @Test
+  public void testMergeInCopies() {
+    JsonObject source = new JsonObject("{\"a\": {\"b\": 1}, \"c\": [1]}");
+    // One nested object has been handed out before the merge, the other hasn't
+    JsonObject a = source.getObject("a");
+    JsonObject target = new JsonObject().putString("d", "e").mergeIn(source);
+    assertEquals("{\"d\":\"e\",\"a\":{\"b\":1},\"c\":[1]}", target.encode());
+
+    // Changes to the source's nested objects aren't seen in the merged object
+    a.putNumber("b", 2);
+    source.getArray("c").addNumber(2);
+    assertEquals("{\"d\":\"e\",\"a\":{\"b\":1},\"c\":[1]}", target.encode());
+
+    // Nor the other way round
+    target.getObject("a").putNumber("b", 3);
+    target.getArray("c").addNumber(3);
+    assertEquals("{\"a\":{\"b\":2},\"c\":[1,2]}", source.encode());
+    assertEquals("{\"d\":\"e\",\"a\":{\"b\":3},\"c\":[1,3]}", target.encode());
+  }
+
+  @Test
+  public void testCopyOnWriteReads() {
+    JsonObject obj = new JsonObject("{\"a\": 1, \"b\": {\"c\": {\"d\": \"e\"}}, \"f\": [1, {\"g\": 2}]}");
+    String str = obj.encode();
+    JsonObject copy = obj.copy();
+
+    // Reading a copy hands out the same nested objects each time, and changes to them are seen from the copy only
+    JsonObject b = copy.getObject("b");
+    JsonObject c = b.getObject("c");
+    assertEquals(copy.getFieldNames(), obj.getFieldNames());
+    assertEquals("e", copy.getObject("b").getObject("c").getString("d"));
+    c.putString("d", "x");
+    assertEquals("x", copy.getObject("b").getObject("c").getString("d"));
+    b.putString("h", "i");
+    assertEquals("i", copy.getObject("b").getString("h"));
+    assertEquals("x", copy.getObject("b").getObject("c").getString("d"));
+    assertEquals(str, obj.encode());
+    assertEquals("{\"a\":1,\"b\":{\"c\":{\"d\":\"x\"},\"h\":\"i\"},\"f\":[1,{\"g\":2}]}", copy.encode());
+
+    // The same through arrays, got by index or by iterating
+    copy = obj.copy();
+    JsonObject g = copy.getArray("f").get(1);
+    for (Object o : copy.getArray("f")) {
+      if (o instanceof JsonObject) {
+        ((JsonObject) o).putNumber("g", 3);
+      }
+    }
+    assertEquals(3, g.getInteger("g").intValue());
+    assertEquals(str, obj.encode());
+    assertEquals("{\"a\":1,\"b\":{\"c\":{\"d\":\"e\"}},\"f\":[1,{\"g\":3}]}", copy.encode());
+
+    // Removing a field name from a copy removes the field from the copy only
+    copy = obj.copy();
+    Iterator<String> names = copy.getFieldNames().iterator();
+    assertEquals("a", names.next());
+    names.remove();
+    assertFalse(copy.containsField("a"));
+    assertTrue(obj.containsField("a"));
+    copy.getFieldNames().remove("b");
+    assertEquals("{\"f\":[1,{\"g\":2}]}", copy.encode());
+    assertEquals(str, obj.encode());
+  }
+
+  @Test
+  public void testCompact() throws Exception {
+    String str = "{\"a\":1,\"b\":12345678901,\"c\":1.5,\"d\":\"e\",\"f\":true,\"g\":null," +
+        "\"h\":{\"i\":2},\"j\":[{\"k\":3}]}";
+    JsonObject plain = new JsonObject(str);
+    JsonObject compact = plain.compact();
+    assertEquals(plain, compact);
+    assertEquals(str, compact.encode());
+    assertEquals(Integer.valueOf(1), compact.getNumber("a"));
+    assertEquals(Long.valueOf(12345678901L), compact.getNumber("b"));
+    assertEquals(Double.valueOf(1.5), compact.getNumber("c"));
+    assertTrue(compact.containsField("g"));
+    assertNull(compact.getString("g"));
+    assertFalse(compact.containsField("x"));
+    assertEquals(8, compact.size());
+
+    // It can be changed like any other object
+    compact.putNumber("a", 2.5).putString("x", "y").removeField("b");
+    compact.getObject("h").putNumber("i", 3);
+    ((JsonObject) compact.getArray("j").get(0)).putString("k", "l");
+    plain.putNumber("a", 2.5).putString("x", "y").removeField("b");
+    plain.getObject("h").putNumber("i", 3);
+    ((JsonObject) plain.getArray("j").get(0)).putString("k", "l");
+    assertEquals(plain.encode(), compact.encode());
+    assertEquals(plain.getFieldNames(), compact.getFieldNames());
+
+    // Copies are independent, and stay compact
+    JsonObject copy = compact.copy();
+    copy.putString("d", "changed");
+    assertEquals("e", compact.getString("d"));
+    assertEquals("changed", copy.getString("d"));
+
+    // Objects with the same fields share their names
+    JsonObject other = new JsonObject(str).compact();
+    JsonObject another = new JsonObject(str).compact();
+    assertSame(other.getFieldNames().iterator().next(), another.getFieldNames().iterator().next());
+
+    // And they're serialized as ordinary objects
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(other);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      assertEquals(new JsonObject(str), ois.readObject());
+    }
+  }
+
+  /*
+  Not much of a benchmark, but shows how much memory compact objects save. The numbers depend on the GC, so are only
+  logged
+   */
+  @Test
+  public void testCompactFootprint() {
+    int count = 20000;
+    long base = usedMemory();
+    JsonObject[] plain = new JsonObject[count];
+    for (int i = 0; i < count; i++) {
+      plain[i] = new JsonObject(footprintJson(i));
+    }
+    long plainBytes = usedMemory() - base;
+    JsonObject[] compact = new JsonObject[count];
+    for (int i = 0; i < count; i++) {
+      compact[i] = plain[i].compact();
+    }
+    plain = null;
+    long compactBytes = usedMemory() - base;
+    log.info("Plain objects: " + plainBytes / count + " bytes each, compact objects: " + compactBytes / count +
+        " bytes each");
+    assertEquals(new JsonObject(footprintJson(count - 1)), compact[count - 1]);
+  }
+
+  private static String footprintJson(int i) {
+    return "{\"id\": " + i + ", \"name\": \"name" + i + "\", \"price\": " + (i * 1.5) + ", \"quantity\": " +
+        (i * 1000) + ", \"active\": true, \"owner\": {\"id\": " + (i + 1) + ", \"rating\": 4.5}}";
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  @Test
+  public void testMapToAndFrom() {
+    JsonObject obj = new JsonObject().putString("name", "tim").putNumber("age", 42)
+        .putObject("address", new JsonObject().putString("city", "london"))
+        .putArray("tags", new JsonArray().addString("a").addString("b"));
+    Person person = obj.mapTo(Person.class);
+    assertEquals("tim", person.name);
+    assertEquals(42, person.age);
+    assertEquals("london", person.address.city);
+    assertEquals(Arrays.asList("a", "b"), person.tags);
+
+    JsonObject mapped = JsonObject.mapFrom(person);
+    assertEquals(obj, mapped);
+    assertEquals(obj.encode(), mapped.encode());
+    assertEquals(42, mapped.getInteger("age").intValue());
+    mapped.getObject("address").putString("city", "paris");
+    assertEquals("paris", mapped.mapTo(Person.class).address.city);
+
+    // Lazy objects too
+    assertEquals("tim", new JsonObject(obj.encodeToBuffer(), true).mapTo(Person.class).name);
+
+    try {
+      new JsonObject().putString("age", "old").mapTo(Person.class);
+      fail("Should throw exception");
+    } catch (DecodeException e) {
+      // OK
+    }
+  }
 
+  @Test
+  public void testMapFromTypes() {
+    Values values = new Values();
+    values.small = 42;
+    values.big = 12345678901L;
+    values.s = 7;
+    values.f = 1.1f;
+    values.bytes = "hello".getBytes();
+    JsonObject mapped = JsonObject.mapFrom(values);
+    JsonObject decoded = new JsonObject(Json.encode(values));
+
+    // The same values as encoding and decoding gives
+    assertEquals(decoded, mapped);
+    assertEquals(Integer.valueOf(42), mapped.getNumber("small"));
+    assertEquals(Long.valueOf(12345678901L), mapped.getNumber("big"));
+    assertEquals(Integer.valueOf(7), mapped.getNumber("s"));
+    assertEquals(Double.valueOf(1.1), mapped.getNumber("f"));
+    assertEquals("hello", new String(mapped.getBinary("bytes")));
+    assertEquals(decoded.getString("bytes"), mapped.getString("bytes"));
+    assertEquals(Integer.valueOf(1), mapped.getArray("longs").get(0));
+    assertEquals(decoded.encode(), mapped.encode());
+    assertTrue(Arrays.equals(values.bytes, mapped.mapTo(Values.class).bytes));
+  }
+
+  public static class Values {
+    public long small;
+    public long big;
+    public short s;
+    public float f;
+    public byte[] bytes;
+    public List<Long> longs = Arrays.asList(1L, 2L);
+  }
+
+  public static class Person {
+    public String name;
+    public int age;
+    public Address address;
+    public List<String> tags;
+  }
+
+  public static class Address {
+    public String city;
+  }
 }
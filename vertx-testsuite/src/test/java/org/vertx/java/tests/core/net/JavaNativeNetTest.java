@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.tests.core.net;
+
+import io.netty.channel.EventLoop;
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.AsyncResultHandler;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.VertxFactory;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.http.HttpServer;
+import org.vertx.java.core.http.HttpServerRequest;
+import org.vertx.java.core.impl.DefaultContext;
+import org.vertx.java.core.impl.VertxInternal;
+import org.vertx.java.core.logging.Logger;
+import org.vertx.java.core.logging.impl.LoggerFactory;
+import org.vertx.java.core.net.NetClient;
+import org.vertx.java.core.net.NetServer;
+import org.vertx.java.core.net.NetSocket;
+import org.vertx.java.core.net.impl.NativeTransport;
+import org.vertx.java.testframework.TestBase;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests which need the native transport. They are run by the nativeTest task, which turns it on, and do nothing when
+ * it isn't available.
+ */
+public class JavaNativeNetTest extends TestBase {
+
+  private static final Logger log = LoggerFactory.getLogger(JavaNativeNetTest.class);
+
+  private static final int PORT = 1234;
+  private static final int NUM_SERVERS = 4;
+
+  private VertxInternal vertx;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    vertx = (VertxInternal) VertxFactory.newVertx();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    vertx.stop();
+    super.tearDown();
+  }
+
+  public void testNetServerReusePortAcceptors() throws Exception {
+    if (!nativeAvailable()) {
+      return;
+    }
+    final List<NetServer> servers = new ArrayList<>();
+    Set<EventLoop> eventLoops = new HashSet<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DefaultContext ctx = vertx.createEventLoopContext();
+      eventLoops.add(ctx.getEventLoop());
+      final CountDownLatch latch = new CountDownLatch(1);
+      ctx.execute(new Runnable() {
+        public void run() {
+          NetServer server = vertx.createNetServer().setReusePort(true).connectHandler(new Handler<NetSocket>() {
+            public void handle(final NetSocket socket) {
+              socket.dataHandler(new Handler<Buffer>() {
+                public void handle(Buffer data) {
+                  socket.write(data);
+                }
+              });
+            }
+          });
+          servers.add(server);
+          server.listen(PORT, "localhost", new AsyncResultHandler<NetServer>() {
+            public void handle(AsyncResult<NetServer> ar) {
+              assertTrue(ar.succeeded());
+              latch.countDown();
+            }
+          });
+        }
+      });
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    // Each event loop with a server has its own listening socket
+    waitForAcceptors(eventLoops.size());
+    echo(100);
+
+    final CountDownLatch latch = new CountDownLatch(servers.size());
+    for (NetServer server : servers) {
+      server.close(new AsyncResultHandler<Void>() {
+        public void handle(AsyncResult<Void> ar) {
+          latch.countDown();
+        }
+      });
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    waitForAcceptors(0);
+  }
+
+  public void testHttpServerReusePortAcceptors() throws Exception {
+    if (!nativeAvailable()) {
+      return;
+    }
+    final List<HttpServer> servers = new ArrayList<>();
+    List<EventLoop> eventLoops = new ArrayList<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DefaultContext ctx = vertx.createEventLoopContext();
+      eventLoops.add(ctx.getEventLoop());
+      final CountDownLatch latch = new CountDownLatch(1);
+      ctx.execute(new Runnable() {
+        public void run() {
+          HttpServer server = vertx.createHttpServer().setReusePort(true).requestHandler(new Handler<HttpServerRequest>() {
+            public void handle(HttpServerRequest req) {
+              req.response().end("#");
+            }
+          });
+          servers.add(server);
+          server.listen(PORT, "localhost", new AsyncResultHandler<HttpServer>() {
+            public void handle(AsyncResult<HttpServer> ar) {
+              assertTrue(ar.succeeded());
+              latch.countDown();
+            }
+          });
+        }
+      });
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+    waitForAcceptors(new HashSet<>(eventLoops).size());
+
+    // Closing a server stops accepting on its event loop, unless another server uses it
+    while (!servers.isEmpty()) {
+      final CountDownLatch closed = new CountDownLatch(1);
+      servers.remove(0).close(new AsyncResultHandler<Void>() {
+        public void handle(AsyncResult<Void> ar) {
+          closed.countDown();
+        }
+      });
+      eventLoops.remove(0);
+      assertTrue(closed.await(10, TimeUnit.SECONDS));
+      waitForAcceptors(new HashSet<>(eventLoops).size());
+    }
+  }
+
+  private boolean nativeAvailable() {
+    if (!NativeTransport.isNative()) {
+      log.warn("Native transport is not in use, skipping " + getName());
+      return false;
+    }
+    return true;
+  }
+
+  private void echo(int numConnections) throws Exception {
+    final CountDownLatch latch = new CountDownLatch(numConnections);
+    NetClient client = vertx.createNetClient();
+    for (int i = 0; i < numConnections; i++) {
+      client.connect(PORT, "localhost", new AsyncResultHandler<NetSocket>() {
+        public void handle(AsyncResult<NetSocket> res) {
+          assertTrue(res.succeeded());
+          final NetSocket socket = res.result();
+          socket.dataHandler(new Handler<Buffer>() {
+            public void handle(Buffer data) {
+              assertEquals("foo", data.toString());
+              socket.close();
+              latch.countDown();
+            }
+          });
+          socket.write("foo");
+        }
+      });
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    client.close();
+  }
+
+  private void waitForAcceptors(int expected) throws Exception {
+    long end = System.currentTimeMillis() + 10000;
+    int count;
+    while ((count = countListeningSockets()) != expected && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, count);
+  }
+
+  /*
+  The native transport is Linux only, so we can ask the kernel how many sockets are listening on the port
+   */
+  private int countListeningSockets() throws Exception {
+    String port = String.format(":%04X", PORT);
+    int count = 0;
+    // The native transport binds IPv6 sockets, even for IPv4 addresses
+    for (String file : new String[] {"/proc/net/tcp", "/proc/net/tcp6"}) {
+      for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.US_ASCII)) {
+        String[] fields = line.trim().split("\\s+");
+        // Local address, and a state of 0A is LISTEN
+        if (fields.length > 3 && fields[1].endsWith(port) && fields[3].equals("0A")) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
@@ -76,6 +76,24 @@ public class JavaNetTest extends TestBase {
     startTest(getMethodName());
   }
 
+  @Test
+  public void testEchoPooledBuffer() throws Exception {
+    startApp(EchoServer.class.getName());
+    startTest(getMethodName());
+  }
+
+  @Test
+  public void testEchoCompositeBuffer() throws Exception {
+    startApp(EchoServer.class.getName());
+    startTest(getMethodName());
+  }
+
+  @Test
+  public void testEchoCompositeSlice() throws Exception {
+    startApp(EchoServer.class.getName());
+    startTest(getMethodName());
+  }
+
   @Test
   public void testEchoStringDefaultEncoding() throws Exception {
     startApp(EchoServer.class.getName());
@@ -315,6 +333,17 @@ public class JavaNetTest extends TestBase {
         numInstances / 2);
   }
 
+  @Test
+  public void testSharedServersReusePort() throws Exception {
+    int numInstances = Runtime.getRuntime().availableProcessors();
+    vertx.sharedData().getMap("params").put("reuseport", true);
+    try {
+      sharedServers(getMethodName(), true, numInstances, 0, 0);
+    } finally {
+      vertx.sharedData().getMap("params").remove("reuseport");
+    }
+  }
+
   void sharedServers(String testName, boolean multipleInstances, int numInstances, int initialServers, int initialToStop) throws Exception {
 
     // Start an echo server on a different port to make sure shared servers work ok when there are other servers
@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.tests.core.parsetools;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.json.DecodeException;
+import org.vertx.java.core.json.JsonArray;
+import org.vertx.java.core.json.JsonObject;
+import org.vertx.java.core.parsetools.JsonEvent;
+import org.vertx.java.core.parsetools.JsonEventType;
+import org.vertx.java.core.parsetools.JsonParser;
+import org.vertx.java.core.streams.Pump;
+import org.vertx.java.core.streams.ReadStream;
+import org.vertx.java.testframework.TestUtils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class JavaJsonParserTest extends TestCase {
+
+  @Test
+  public void testTokens() {
+    String json = "{\"a\": 1, \"b\" : [true, false, null, \"x\"], \"c\": {}, \"d\": [[]], \"e\": -2.5e3}";
+    List<String> expected = Arrays.asList(
+        "START_OBJECT(null)", "VALUE(a: 1)", "START_ARRAY(b: null)", "VALUE(true)", "VALUE(false)", "VALUE(null)",
+        "VALUE(x)", "END_ARRAY(null)", "START_OBJECT(c: null)", "END_OBJECT(null)", "START_ARRAY(d: null)",
+        "START_ARRAY(null)", "END_ARRAY(null)", "END_ARRAY(null)", "VALUE(e: -2500.0)", "END_OBJECT(null)");
+    assertEquals(expected, parseAllSplits(json, false, false));
+  }
+
+  @Test
+  public void testObjectValueMode() {
+    String json = "[{\"a\": 1, \"b\": {\"c\": [1, null, {\"d\": \"e\"}]}}, 2, {}]";
+    List<JsonEvent> events = parse(new Buffer(json), 7, JsonParser.newParser().objectValueMode());
+    assertEquals(5, events.size());
+    assertEquals(JsonEventType.START_ARRAY, events.get(0).type());
+    assertEquals(new JsonObject("{\"a\": 1, \"b\": {\"c\": [1, null, {\"d\": \"e\"}]}}"), events.get(1).objectValue());
+    assertEquals(2, events.get(2).numberValue());
+    assertTrue(events.get(3).isObject());
+    assertEquals(0, events.get(3).objectValue().size());
+    assertEquals(JsonEventType.END_ARRAY, events.get(4).type());
+
+    assertEquals(Arrays.asList("START_ARRAY(null)", "VALUE({\"x\":{\"y\":[1]}})", "END_ARRAY(null)"),
+        parseAllSplits("[{\"x\": {\"y\": [1]}}]", true, false));
+  }
+
+  @Test
+  public void testArrayValueMode() {
+    List<JsonEvent> events = parse(new Buffer("{\"a\": [1, [2, {\"b\": 3}], null], \"c\": []}"), 3,
+        JsonParser.newParser().arrayValueMode());
+    assertEquals(4, events.size());
+    assertEquals(JsonEventType.START_OBJECT, events.get(0).type());
+    assertEquals("a", events.get(1).fieldName());
+    // JsonArray.equals doesn't allow nulls
+    assertEquals(new JsonArray("[1, [2, {\"b\": 3}], null]").encode(), events.get(1).arrayValue().encode());
+    assertEquals("c", events.get(2).fieldName());
+    assertEquals(0, events.get(2).arrayValue().size());
+    assertEquals(JsonEventType.END_OBJECT, events.get(3).type());
+  }
+
+  @Test
+  public void testSwitchModes() {
+    final List<JsonEvent> events = new ArrayList<>();
+    final JsonParser parser = JsonParser.newParser();
+    parser.dataHandler(new Handler<JsonEvent>() {
+      public void handle(JsonEvent event) {
+        events.add(event);
+        if ("items".equals(event.fieldName()) && event.type() == JsonEventType.START_ARRAY) {
+          parser.objectValueMode();
+        } else if (event.type() == JsonEventType.END_ARRAY) {
+          parser.tokenMode();
+        }
+      }
+    });
+    parser.write(new Buffer("{\"items\": [{\"a\": 1}, {\"a\": 2}], \"next\": {\"b\": 1}}"));
+    parser.end();
+    assertEquals(9, events.size());
+    assertEquals(1, events.get(2).objectValue().getInteger("a").intValue());
+    assertEquals(2, events.get(3).objectValue().getInteger("a").intValue());
+    assertEquals(JsonEventType.START_OBJECT, events.get(5).type());
+    assertEquals("next", events.get(5).fieldName());
+    assertEquals("b", events.get(6).fieldName());
+  }
+
+  @Test
+  public void testMultipleValues() {
+    List<JsonEvent> events = parse(new Buffer("{\"a\": 1}\n{\"a\": 2} [3] 4 \"five\" true"), 2,
+        JsonParser.newParser().objectValueMode().arrayValueMode());
+    assertEquals(6, events.size());
+    assertEquals(1, events.get(0).objectValue().getInteger("a").intValue());
+    assertEquals(2, events.get(1).objectValue().getInteger("a").intValue());
+    assertEquals(new JsonArray("[3]"), events.get(2).arrayValue());
+    assertEquals(4, events.get(3).numberValue());
+    assertEquals("five", events.get(4).stringValue());
+    assertEquals(Boolean.TRUE, events.get(5).booleanValue());
+  }
+
+  @Test
+  public void testNumbers() {
+    String json = "[0, -1, 2147483647, 2147483648, -9223372036854775808, 9223372036854775808, 1.5, 1e2, -0.25E-2]";
+    List<JsonEvent> events = parse(new Buffer(json), 1, JsonParser.newParser());
+    assertEquals(0, events.get(1).value());
+    assertEquals(-1, events.get(2).value());
+    assertEquals(Integer.MAX_VALUE, events.get(3).value());
+    assertEquals(2147483648L, events.get(4).value());
+    assertEquals(Long.MIN_VALUE, events.get(5).value());
+    assertEquals(new BigInteger("9223372036854775808"), events.get(6).value());
+    assertEquals(1.5d, events.get(7).value());
+    assertEquals(100d, events.get(8).value());
+    assertEquals(-0.0025d, events.get(9).value());
+    // Numbers are the same as when decoded as a whole
+    assertEquals(new JsonArray(json), parse(new Buffer(json), 3, JsonParser.newParser().arrayValueMode()).get(0).value());
+  }
+
+  @Test
+  public void testStrings() {
+    for (int i = 0; i < 10; i++) {
+      JsonObject obj = new JsonObject().putString(TestUtils.randomUnicodeString(10), TestUtils.randomUnicodeString(100))
+          .putString("escapes", "\"\\/\b\f\n\r\t\u0000\u001F\u00e9\u20ac\ud83d\ude00");
+      Buffer buff = new Buffer(obj.encode(), "UTF-8");
+      for (int chunk = 1; chunk <= 3; chunk++) {
+        List<JsonEvent> events = parse(buff, chunk, JsonParser.newParser().objectValueMode());
+        assertEquals(1, events.size());
+        assertEquals(obj, events.get(0).objectValue());
+      }
+    }
+    List<JsonEvent> events = parse(new Buffer("\"\\u0041\\u00e9\\u20AC\\ud83d\\ude00\""), 1, JsonParser.newParser());
+    assertEquals("A\u00e9\u20ac\ud83d\ude00", events.get(0).stringValue());
+  }
+
+  @Test
+  public void testComments() {
+    List<String> events = parseAllSplits("// start\n[1, /* two */ 2 /**/, /* ** / */ 3] // end", false, false);
+    assertEquals(Arrays.asList("START_ARRAY(null)", "VALUE(1)", "VALUE(2)", "VALUE(3)", "END_ARRAY(null)"), events);
+  }
+
+  @Test
+  public void testInvalid() {
+    String[] invalid = {"{\"a\" 1}", "{\"a\": 1,}", "[1,]", "[1 2]", "{1: 2}", "[}", "{]", "]", ":", "[tru]",
+        "[01]", "[1.]", "[-]", "[1e]", "\"\\x\"", "\"\\u12G4\"", "\"a\nb\"", "[\"a\":1]", "{\"a\":1:2}", "/x", "@",
+        "[1,,2]", "{,}", "[nul1]"};
+    for (String json : invalid) {
+      assertInvalid(new Buffer(json));
+    }
+    // Truncated input
+    String[] truncated = {"{", "[1, 2", "{\"a\": ", "\"abc", "\"\\u00", "/* comment", "[1, 2]]"};
+    for (String json : truncated) {
+      assertInvalid(new Buffer(json));
+    }
+    // Invalid UTF-8
+    assertInvalid(new Buffer(new byte[]{'"', (byte) 0xC3, 'a', '"'}));
+    assertInvalid(new Buffer(new byte[]{'"', (byte) 0xFF, '"'}));
+    assertInvalid(new Buffer(new byte[]{'"', (byte) 0xE2, (byte) 0x82, '"'}));
+  }
+
+  @Test
+  public void testInvalidNoExceptionHandler() {
+    JsonParser parser = JsonParser.newParser();
+    parser.write(new Buffer("[1, 2"));
+    try {
+      parser.write(new Buffer(" }"));
+      fail("Should throw exception");
+    } catch (DecodeException e) {
+      // OK
+    }
+    // Further input is ignored
+    parser.write(new Buffer("]"));
+  }
+
+  @Test
+  public void testPauseResume() {
+    final List<JsonEvent> events = new ArrayList<>();
+    final JsonParser parser = JsonParser.newParser();
+    parser.setWriteQueueMaxSize(20);
+    parser.dataHandler(new Handler<JsonEvent>() {
+      public void handle(JsonEvent event) {
+        events.add(event);
+        parser.pause();
+      }
+    });
+    final int[] ends = new int[1];
+    parser.endHandler(new Handler<Void>() {
+      public void handle(Void v) {
+        ends[0]++;
+      }
+    });
+    final int[] drains = new int[1];
+    Handler<Void> drainHandler = new Handler<Void>() {
+      public void handle(Void v) {
+        drains[0]++;
+      }
+    };
+
+    parser.write(new Buffer("[1, 2, 3, "));
+    assertEquals(1, events.size());
+    assertFalse(parser.writeQueueFull());
+    parser.write(new Buffer("4, 5, 6, 7, 8, 9]"));
+    parser.end();
+    assertEquals(1, events.size());
+    assertTrue(parser.writeQueueFull());
+    parser.drainHandler(drainHandler);
+    assertEquals(0, drains[0]);
+
+    // Both value events are produced by the same byte, the second must wait for the next resume
+    for (int i = 2; i <= 10; i++) {
+      parser.resume();
+      assertEquals(i, events.size());
+      assertEquals(0, ends[0]);
+    }
+    assertEquals(1, drains[0]);
+    assertEquals(JsonEventType.VALUE, events.get(9).type());
+    parser.resume();
+    assertEquals(11, events.size());
+    assertEquals(JsonEventType.END_ARRAY, events.get(10).type());
+    assertEquals(0, ends[0]);
+    parser.resume();
+    assertEquals(1, ends[0]);
+    assertFalse(parser.writeQueueFull());
+  }
+
+  @Test
+  public void testPump() {
+    int count = 1000;
+    JsonArray arr = new JsonArray();
+    for (int i = 0; i < count; i++) {
+      arr.addObject(new JsonObject().putNumber("id", i).putString("name", TestUtils.randomUnicodeString(20)));
+    }
+    final Buffer input = new Buffer(arr.encode(), "UTF-8");
+    final FakeReadStream source = new FakeReadStream();
+    final JsonParser parser = JsonParser.newParser().objectValueMode();
+    parser.setWriteQueueMaxSize(1000);
+    final List<JsonObject> received = new ArrayList<>();
+    parser.dataHandler(new Handler<JsonEvent>() {
+      public void handle(JsonEvent event) {
+        if (event.isObject()) {
+          received.add(event.objectValue());
+        }
+      }
+    });
+    Pump.createPump(source, parser).start();
+
+    // The consumer only takes one object at a time, so the pump must hold back the source
+    parser.pause();
+    int pos = 0;
+    int pauses = 0;
+    while (pos < input.length() || source.paused) {
+      if (source.paused) {
+        pauses++;
+        parser.resume();
+        parser.pause();
+      } else {
+        int end = Math.min(input.length(), pos + 100);
+        source.send(input.getBuffer(pos, end));
+        pos = end;
+      }
+    }
+    parser.resume();
+    parser.end();
+    assertTrue(pauses > 0);
+    assertEquals(count, received.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(arr.get(i), received.get(i));
+    }
+  }
+
+  private void assertInvalid(Buffer buff) {
+    for (int chunk = 1; chunk <= buff.length(); chunk++) {
+      final List<Throwable> errors = new ArrayList<>();
+      JsonParser parser = JsonParser.newParser();
+      parser.exceptionHandler(new Handler<Throwable>() {
+        public void handle(Throwable t) {
+          errors.add(t);
+        }
+      });
+      for (int i = 0; i < buff.length(); i += chunk) {
+        parser.write(buff.getBuffer(i, Math.min(buff.length(), i + chunk)));
+      }
+      parser.end();
+      assertEquals(buff.toString(), 1, errors.size());
+      assertTrue(errors.get(0) instanceof DecodeException);
+    }
+  }
+
+  /*
+  Parse the json split into two chunks at every possible position, and check it always gives the same events
+   */
+  private List<String> parseAllSplits(String json, boolean objectValueMode, boolean arrayValueMode) {
+    Buffer buff = new Buffer(json);
+    List<String> first = null;
+    for (int i = 0; i <= buff.length(); i++) {
+      JsonParser parser = JsonParser.newParser();
+      if (objectValueMode) {
+        parser.objectValueMode();
+      }
+      if (arrayValueMode) {
+        parser.arrayValueMode();
+      }
+      final List<String> events = new ArrayList<>();
+      parser.dataHandler(new Handler<JsonEvent>() {
+        public void handle(JsonEvent event) {
+          events.add(event.toString());
+        }
+      });
+      parser.write(buff.getBuffer(0, i));
+      parser.write(buff.getBuffer(i, buff.length()));
+      parser.end();
+      if (first == null) {
+        first = events;
+      } else {
+        assertEquals(first, events);
+      }
+    }
+    return first;
+  }
+
+  private List<JsonEvent> parse(Buffer buff, int chunkSize, JsonParser parser) {
+    final List<JsonEvent> events = new ArrayList<>();
+    final boolean[] ended = new boolean[1];
+    parser.dataHandler(new Handler<JsonEvent>() {
+      public void handle(JsonEvent event) {
+        events.add(event);
+      }
+    });
+    parser.endHandler(new Handler<Void>() {
+      public void handle(Void v) {
+        ended[0] = true;
+      }
+    });
+    for (int i = 0; i < buff.length(); i += chunkSize) {
+      parser.write(buff.getBuffer(i, Math.min(buff.length(), i + chunkSize)));
+    }
+    parser.end();
+    assertTrue(ended[0]);
+    return events;
+  }
+
+  private static class FakeReadStream implements ReadStream<FakeReadStream> {
+
+    private Handler<Buffer> dataHandler;
+    private boolean paused;
+
+    void send(Buffer buff) {
+      assertFalse(paused);
+      dataHandler.handle(buff);
+    }
+
+    public FakeReadStream dataHandler(Handler<Buffer> handler) {
+      this.dataHandler = handler;
+      return this;
+    }
+
+    public FakeReadStream pause() {
+      paused = true;
+      return this;
+    }
+
+    public FakeReadStream resume() {
+      paused = false;
+      return this;
+    }
+
+    public FakeReadStream exceptionHandler(Handler<Throwable> handler) {
+      return this;
+    }
+
+    public FakeReadStream endHandler(Handler<Void> endHandler) {
+      return this;
+    }
+  }
+}
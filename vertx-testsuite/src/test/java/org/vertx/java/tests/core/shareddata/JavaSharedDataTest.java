@@ -20,15 +20,43 @@ import junit.framework.TestCase;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.Context;
+import org.vertx.java.core.Handler;
 import org.vertx.java.core.Vertx;
 import org.vertx.java.core.VertxFactory;
 import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.file.FileSystemException;
+import org.vertx.java.core.impl.VertxInternal;
+import org.vertx.java.core.shareddata.ClusterMap;
+import org.vertx.java.core.shareddata.ConcurrentSharedMap;
+import org.vertx.java.core.shareddata.Counter;
+import org.vertx.java.core.shareddata.LongSharedMap;
+import org.vertx.java.core.shareddata.LongSharedSet;
+import org.vertx.java.core.shareddata.OffHeapSharedMap;
+import org.vertx.java.core.shareddata.Shareable;
+import org.vertx.java.core.shareddata.SharedCache;
 import org.vertx.java.core.shareddata.SharedData;
+import org.vertx.java.core.shareddata.SharedQueue;
+import org.vertx.java.fakecluster.FakeClusterManager;
 import org.vertx.java.testframework.TestUtils;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ReadOnlyBufferException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -107,11 +135,28 @@ public class JavaSharedDataTest extends TestCase {
     map.put(key, buff);
     Buffer got1 = (Buffer)map.get(key);
     assertTrue(got1 != buff); // Make sure it's copied
+    assertTrue(got1.isReadOnly());
     assertEquals(buff, map.get(key));
     Buffer got2 = (Buffer)map.get(key);
-    assertTrue(got1 != got2); // Should be copied each time
-    assertTrue(got2 != buff);
+    assertTrue(got1.isImmutable()); // But only once, when it's put
+    assertTrue(got1 != got2); // Each reader gets its own view of the copy
+    got1.getByteBuf().readerIndex(50);
+    assertEquals(buff, got2);
     assertEquals(buff, map.get(key));
+    buff.setByte(0, (byte) (buff.getByte(0) + 1));
+    assertFalse(buff.equals(map.get(key))); // Later writes aren't seen
+    try {
+      got1.appendByte((byte) 0);
+      fail("Should throw exception");
+    } catch (ReadOnlyBufferException e) {
+      //OK
+    }
+
+    // A read-only view is copied too, as its owner can still write to it
+    Buffer owner = TestUtils.generateRandomBuffer(100);
+    map.put(key, owner.asReadOnly());
+    owner.setByte(0, (byte) (owner.getByte(0) + 1));
+    assertFalse(owner.equals(map.get(key)));
 
 
     byte[] bytes = TestUtils.generateRandomByteArray(100);
@@ -225,6 +270,663 @@ public class JavaSharedDataTest extends TestCase {
     assert (set4 != set3);
   }
 
+  @Test
+  public void testCache() throws Exception {
+    SharedCache<String, String> cache = sharedData.getCache("foo", 10, 0);
+    SharedCache<String, String> cache2 = sharedData.getCache("foo", 20, 0);
+    assertTrue(cache == cache2);
+    assertEquals(10, cache2.maxEntries());
+    assertTrue(sharedData.removeCache("foo"));
+    SharedCache<String, String> cache3 = sharedData.getCache("foo", 10, 0);
+    assertFalse(cache == cache3);
+  }
+
+  @Test
+  public void testCacheEviction() throws Exception {
+    // Fewer entries than segments so each segment holds one entry
+    SharedCache<String, String> cache = sharedData.getCache("foo", 4, 0);
+    for (int i = 0; i < 100; i++) {
+      cache.put("key" + i, "value" + i);
+      assertTrue(cache.size() <= 4);
+    }
+    assertEquals(4, cache.size());
+    assertEquals(96, cache.evictionCount());
+    assertEquals("value99", cache.get("key99"));
+    assertNull(cache.get("key0"));
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+  }
+
+  @Test
+  public void testCacheLRU() throws Exception {
+    // One segment so eviction is exactly least recently used
+    SharedCache<String, String> cache = sharedData.getCache("foo", 1, 0);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    assertNull(cache.get("a"));
+    assertEquals("2", cache.get("b"));
+  }
+
+  @Test
+  public void testCacheExpiry() throws Exception {
+    SharedCache<String, String> cache = sharedData.getCache("foo", 100, 50);
+    cache.put("a", "1");
+    assertEquals("1", cache.get("a"));
+    assertEquals("1", cache.putIfAbsent("a", "2"));
+    Thread.sleep(100);
+    assertFalse(cache.containsKey("a"));
+    assertNull(cache.get("a"));
+    assertEquals(1, cache.expiredCount());
+    assertNull(cache.putIfAbsent("a", "2"));
+    assertEquals("2", cache.get("a"));
+    // Entries which have expired are not counted, even before they are looked up
+    cache.put("b", "3");
+    assertEquals(2, cache.size());
+    Thread.sleep(100);
+    assertEquals(0, cache.size());
+    assertTrue(cache.isEmpty());
+  }
+
+  @Test
+  public void testCacheCopiesReturnedValues() throws Exception {
+    SharedCache<String, byte[]> cache = sharedData.getCache("foo", 100, 0);
+    cache.put("a", new byte[] {1, 2, 3});
+    byte[] existing = cache.putIfAbsent("a", new byte[] {4});
+    assertEquals(1, existing[0]);
+    existing[0] = 9;
+    byte[] previous = cache.put("a", cache.get("a"));
+    previous[0] = 9;
+    assertEquals(1, cache.get("a")[0]);
+  }
+
+  @Test
+  public void testCacheTypes() throws Exception {
+    Map map = sharedData.getCache("foo", 100, 0);
+    String key = "key";
+
+    Buffer buff = TestUtils.generateRandomBuffer(100);
+    map.put(key, buff);
+    Buffer got1 = (Buffer)map.get(key);
+    assertTrue(got1 != buff); // Make sure it's copied
+    assertEquals(buff, got1);
+    assertTrue(got1.isReadOnly());
+
+    try {
+      map.put(key, new SomeOtherClass());
+      fail("Should throw exception");
+    } catch (IllegalArgumentException e) {
+      //OK
+    }
+  }
+
+  @Test
+  public void testOffHeapMap() throws Exception {
+    OffHeapSharedMap<String> map = sharedData.getOffHeapMap("foo", 1000);
+    OffHeapSharedMap<String> map2 = sharedData.getOffHeapMap("foo", 2000);
+    assertTrue(map == map2);
+    assertEquals(1000, map2.maxBytes());
+
+    Buffer buff = TestUtils.generateRandomBuffer(100);
+    assertNull(map.put("key", buff));
+    assertEquals(100, map.memoryUsed());
+    Buffer got = map.get("key");
+    assertTrue(got != buff);
+    assertEquals(buff, got);
+    assertTrue(got.getByteBuf().isDirect());
+    try {
+      got.setByte(0, (byte) 0);
+      fail("Should throw exception");
+    } catch (ReadOnlyBufferException e) {
+      //OK
+    }
+    try {
+      got.appendByte((byte) 0);
+      fail("Should throw exception");
+    } catch (ReadOnlyBufferException e) {
+      //OK
+    }
+
+    // The view stays valid after the entry is replaced
+    Buffer buff2 = TestUtils.generateRandomBuffer(50);
+    assertEquals(buff, map.put("key", buff2));
+    assertEquals(buff, got);
+    assertEquals(buff2, map.get("key"));
+    assertEquals(50, map.memoryUsed());
+    assertEquals(buff2, map.putIfAbsent("key", buff));
+    assertTrue(map.remove("key", buff2));
+    assertEquals(0, map.memoryUsed());
+    assertTrue(map.isEmpty());
+
+    assertTrue(sharedData.removeOffHeapMap("foo"));
+    OffHeapSharedMap<String> map3 = sharedData.getOffHeapMap("foo", 1000);
+    assertFalse(map == map3);
+  }
+
+  @Test
+  public void testOffHeapMapEviction() throws Exception {
+    OffHeapSharedMap<String> map = sharedData.getOffHeapMap("foo", 1000);
+    for (int i = 0; i < 100; i++) {
+      map.put("key" + i, TestUtils.generateRandomBuffer(100));
+      assertTrue(map.memoryUsed() <= 1000);
+    }
+    assertEquals(10, map.size());
+    assertEquals(90, map.evictionCount());
+    assertEquals(1000, map.memoryUsed());
+    assertTrue(map.memoryReserved() >= map.memoryUsed());
+    map.clear();
+    assertEquals(0, map.memoryUsed());
+    try {
+      map.put("key", TestUtils.generateRandomBuffer(1001));
+      fail("Should throw exception");
+    } catch (IllegalArgumentException e) {
+      //OK
+    }
+  }
+
+  @Test
+  public void testOffHeapMapChurn() throws Exception {
+    OffHeapSharedMap<String> map = sharedData.getOffHeapMap("foo", 64 * 1024);
+    Map<String, Buffer> expected = new HashMap<>();
+    Buffer first = TestUtils.generateRandomBuffer(100);
+    map.put("first", first);
+    Buffer view = map.get("first");
+    Random random = new Random(0);
+    for (int i = 0; i < 20000; i++) {
+      String key = "key" + random.nextInt(200);
+      if (random.nextInt(3) == 0) {
+        map.remove(key);
+        expected.remove(key);
+      } else {
+        Buffer buff = TestUtils.generateRandomBuffer(1 + random.nextInt(2000));
+        map.put(key, buff);
+        expected.put(key, buff);
+      }
+      // The holes left by removed values are compacted away
+      assertTrue(map.memoryReserved() <= map.maxBytes());
+      assertTrue(map.memoryUsed() <= map.memoryReserved());
+    }
+    assertEquals(first, view);
+    for (String key : map.keySet()) {
+      if (!key.equals("first")) {
+        assertEquals(expected.get(key), map.get(key));
+      }
+    }
+    map.clear();
+    assertEquals(0, map.memoryUsed());
+  }
+
+  @Test
+  public void testCounter() throws Exception {
+    final Counter counter = sharedData.getCounter("foo");
+    assertTrue(counter == sharedData.getCounter("foo"));
+    assertEquals(0, counter.get());
+    assertEquals(1, counter.incrementAndGet());
+    assertEquals(11, counter.addAndGet(10));
+    assertEquals(11, counter.getAndAdd(-1));
+    assertEquals(9, counter.decrementAndGet());
+    assertFalse(counter.compareAndSet(10, 20));
+    assertTrue(counter.compareAndSet(9, 20));
+    assertEquals(20, counter.get());
+    counter.set(0);
+
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        public void run() {
+          for (int j = 0; j < 10000; j++) {
+            counter.incrementAndGet();
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40000, counter.get());
+
+    assertTrue(sharedData.removeCounter("foo"));
+    assertFalse(counter == sharedData.getCounter("foo"));
+  }
+
+  @Test
+  public void testLongMap() throws Exception {
+    LongSharedMap<String> map = sharedData.getLongMap("foo");
+    LongSharedMap<String> map2 = sharedData.getLongMap("foo");
+    assertTrue(map == map2);
+
+    // Compare with a HashMap, including the zero key and enough keys to force resizing and removal shifting
+    Map<Long, String> expected = new HashMap<>();
+    Random random = new Random();
+    for (int i = 0; i < 10000; i++) {
+      long key = random.nextInt(2000) - 1000;
+      String value = "value" + i;
+      switch (random.nextInt(3)) {
+        case 0:
+          assertEquals(expected.put(key, value), map.put(key, value));
+          break;
+        case 1:
+          assertEquals(expected.remove(key), map.remove(key));
+          break;
+        default:
+          assertEquals(expected.get(key), map.get(key));
+          assertEquals(expected.containsKey(key), map.containsKey(key));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+    long[] keys = map.keys();
+    assertEquals(expected.size(), keys.length);
+    for (long key : keys) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+
+    assertNull(map.putIfAbsent(Long.MAX_VALUE, "a"));
+    assertEquals("a", map.putIfAbsent(Long.MAX_VALUE, "b"));
+
+    byte[] bytes = TestUtils.generateRandomByteArray(10);
+    LongSharedMap<byte[]> bytesMap = sharedData.getLongMap("bar");
+    bytesMap.put(1, bytes);
+    assertTrue(bytesMap.get(1) != bytes);
+    assertTrue(TestUtils.byteArraysEqual(bytes, bytesMap.get(1)));
+    LongSharedMap<Object> objMap = sharedData.getLongMap("quux");
+    try {
+      objMap.put(1, new SomeOtherClass());
+      fail("Should throw exception");
+    } catch (IllegalArgumentException e) {
+      //OK
+    }
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertTrue(sharedData.removeLongMap("foo"));
+    LongSharedMap<String> map3 = sharedData.getLongMap("foo");
+    assertFalse(map == map3);
+  }
+
+  @Test
+  public void testLongSet() throws Exception {
+    LongSharedSet set = sharedData.getLongSet("foo");
+    assertTrue(set == sharedData.getLongSet("foo"));
+    assertTrue(set.add(0));
+    assertFalse(set.add(0));
+    for (long i = 1; i <= 1000; i++) {
+      assertTrue(set.add(i * 31));
+    }
+    assertEquals(1001, set.size());
+    for (long i = 1; i <= 1000; i += 2) {
+      assertTrue(set.remove(i * 31));
+    }
+    assertFalse(set.remove(31));
+    assertEquals(501, set.size());
+    for (long i = 1; i <= 1000; i++) {
+      assertEquals(i % 2 == 0, set.contains(i * 31));
+    }
+    assertTrue(set.contains(0));
+    long[] values = set.toArray();
+    Arrays.sort(values);
+    assertEquals(501, values.length);
+    assertEquals(0, values[0]);
+    assertEquals(62, values[1]);
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertTrue(sharedData.removeLongSet("foo"));
+    assertFalse(set == sharedData.getLongSet("foo"));
+  }
+
+  @Test
+  public void testSnapshotRestore() throws Exception {
+    File file = File.createTempFile("snapshot", ".dat");
+    file.deleteOnExit();
+
+    Map<Object, Object> map = sharedData.getMap("foo");
+    map.put("string", "bar");
+    map.put(1, 2);
+    map.put(3L, Long.MAX_VALUE);
+    map.put(true, false);
+    map.put(1.5d, 2.5d);
+    map.put(1.5f, 2.5f);
+    map.put((short) 7, (short) 8);
+    map.put((byte) 9, (byte) 10);
+    map.put('a', 'b');
+    byte[] bytes = TestUtils.generateRandomByteArray(100);
+    map.put("bytes", bytes);
+    Buffer buff = TestUtils.generateRandomBuffer(1000);
+    map.put("buffer", buff);
+    sharedData.snapshotMap("foo", file.getPath());
+
+    Vertx vertx2 = VertxFactory.newVertx();
+    try {
+      ConcurrentSharedMap<Object, Object> restored = vertx2.sharedData().getMap("foo");
+      restored.put("string", "live");
+      assertTrue(restored == vertx2.sharedData().restoreMap("foo", file.getPath()));
+      assertEquals(map.size(), restored.size());
+      // Entries put before the snapshot was loaded are kept
+      assertEquals("live", restored.get("string"));
+      assertEquals(2, restored.get(1));
+      assertEquals(Long.MAX_VALUE, restored.get(3L));
+      assertEquals(false, restored.get(true));
+      assertEquals(2.5d, restored.get(1.5d));
+      assertEquals(2.5f, restored.get(1.5f));
+      assertEquals((short) 8, restored.get((short) 7));
+      assertEquals((byte) 10, restored.get((byte) 9));
+      assertEquals('b', restored.get('a'));
+      assertTrue(TestUtils.byteArraysEqual(bytes, (byte[]) restored.get("bytes")));
+      Buffer got = (Buffer) restored.get("buffer");
+      assertEquals(buff, got);
+      assertTrue(got.isReadOnly());
+      assertTrue(got.getByteBuf().isDirect());
+    } finally {
+      vertx2.stop();
+    }
+  }
+
+  @Test
+  public void testSnapshotInvalid() throws Exception {
+    File file = File.createTempFile("snapshot", ".dat");
+    file.deleteOnExit();
+
+    Map<Object, Object> map = sharedData.getMap("foo");
+    map.put("key", new SomeShareable());
+    try {
+      sharedData.snapshotMap("foo", file.getPath());
+      fail("Should throw exception");
+    } catch (IllegalArgumentException e) {
+      //OK
+    }
+
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(TestUtils.generateRandomByteArray(100));
+    }
+    try {
+      sharedData.restoreMap("bar", file.getPath());
+      fail("Should throw exception");
+    } catch (FileSystemException e) {
+      //OK
+    }
+  }
+
+  @Test
+  public void testQueue() throws Exception {
+    SharedQueue<Integer> queue = sharedData.getQueue("foo", 3);
+    SharedQueue<Integer> queue2 = sharedData.getQueue("foo", 10);
+    assertTrue(queue == queue2);
+    assertEquals(3, queue.capacity());
+    assertTrue(queue.isEmpty());
+    assertNull(queue.poll());
+
+    // Go round the ring a few times
+    for (int i = 0; i < 10; i++) {
+      assertTrue(queue.offer(i));
+      assertTrue(queue.offer(i + 100));
+      assertEquals(2, queue.size());
+      assertEquals(i, (int) queue.poll());
+      assertEquals(i + 100, (int) queue.poll());
+    }
+    assertTrue(queue.offer(1));
+    assertTrue(queue.offer(2));
+    assertTrue(queue.offer(3));
+    assertFalse(queue.offer(4));
+    assertEquals(3, queue.size());
+    List<Integer> drained = new ArrayList<>();
+    assertEquals(2, queue.drainTo(drained, 2));
+    assertEquals(Arrays.asList(1, 2), drained);
+    assertEquals(1, queue.drainTo(drained, 10));
+    assertEquals(Arrays.asList(1, 2, 3), drained);
+    assertTrue(queue.isEmpty());
+
+    SharedQueue<Object> queue3 = sharedData.getQueue("bar", 10);
+    try {
+      queue3.offer(new SomeOtherClass());
+      fail("Should throw exception");
+    } catch (IllegalArgumentException e) {
+      //OK
+    }
+    byte[] bytes = TestUtils.generateRandomByteArray(10);
+    queue3.offer(bytes);
+    byte[] polled = (byte[]) queue3.poll();
+    assertFalse(polled == bytes);
+    assertTrue(TestUtils.byteArraysEqual(bytes, polled));
+
+    assertTrue(sharedData.removeQueue("foo"));
+    SharedQueue<Integer> queue4 = sharedData.getQueue("foo", 3);
+    assertFalse(queue == queue4);
+  }
+
+  @Test
+  public void testQueueConcurrent() throws Exception {
+    final SharedQueue<Long> queue = sharedData.getQueue("foo", 16);
+    final int threads = 4;
+    final int perThread = 10000;
+    final AtomicLong sum = new AtomicLong();
+    final CountDownLatch latch = new CountDownLatch(threads * 2);
+    for (int i = 0; i < threads; i++) {
+      new Thread() {
+        public void run() {
+          for (long j = 1; j <= perThread; j++) {
+            while (!queue.offer(j)) {
+              Thread.yield();
+            }
+          }
+          latch.countDown();
+        }
+      }.start();
+      new Thread() {
+        public void run() {
+          for (int j = 0; j < perThread; j++) {
+            Long l;
+            while ((l = queue.poll()) == null) {
+              Thread.yield();
+            }
+            sum.addAndGet(l);
+          }
+          latch.countDown();
+        }
+      }.start();
+    }
+    assertTrue(latch.await(30, TimeUnit.SECONDS));
+    assertEquals((long) threads * perThread * (perThread + 1) / 2, sum.get());
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testQueueHandler() throws Exception {
+    final SharedQueue<Integer> queue = sharedData.getQueue("foo", 100);
+    final int count = 50;
+    final List<Integer> received = new ArrayList<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<String> failure = new AtomicReference<>();
+    final CountDownLatch registered = new CountDownLatch(1);
+    vertx.runOnContext(new Handler<Void>() {
+      public void handle(Void v) {
+        final Context context = vertx.currentContext();
+        queue.handler(context, new Handler<SharedQueue<Integer>>() {
+          public void handle(SharedQueue<Integer> q) {
+            if (vertx.currentContext() != context) {
+              failure.set("Called on wrong context");
+            }
+            // Drain in small batches
+            q.drainTo(received, 7);
+            if (received.size() == count) {
+              latch.countDown();
+            }
+          }
+        });
+        registered.countDown();
+      }
+    });
+    assertTrue(registered.await(10, TimeUnit.SECONDS));
+    for (int i = 0; i < count; i++) {
+      assertTrue(queue.offer(i));
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertNull(failure.get());
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, (int) received.get(i));
+    }
+  }
+
+  @Test
+  public void testQueueHandlerLeavesItems() throws Exception {
+    final SharedQueue<Integer> queue = sharedData.getQueue("foo", 100);
+    final AtomicInteger calls = new AtomicInteger();
+    final CountDownLatch registered = new CountDownLatch(1);
+    vertx.runOnContext(new Handler<Void>() {
+      public void handle(Void v) {
+        queue.handler(vertx.currentContext(), new Handler<SharedQueue<Integer>>() {
+          public void handle(SharedQueue<Integer> q) {
+            // Leave the items in the queue
+            calls.incrementAndGet();
+          }
+        });
+        registered.countDown();
+      }
+    });
+    assertTrue(registered.await(10, TimeUnit.SECONDS));
+    for (int i = 1; i <= 2; i++) {
+      assertTrue(queue.offer(i));
+      waitUntil(calls, i);
+      // Not called again while nothing is added
+      Thread.sleep(100);
+      assertEquals(i, calls.get());
+    }
+    assertEquals(2, queue.size());
+  }
+
+  private void waitUntil(AtomicInteger count, int expected) throws Exception {
+    long end = System.currentTimeMillis() + 10000;
+    while (count.get() < expected && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, count.get());
+  }
+
+  @Test
+  public void testClusterMapNotClustered() throws Exception {
+    try {
+      sharedData.getClusterMap("foo", 10);
+      fail("Should throw exception");
+    } catch (IllegalStateException e) {
+      //OK
+    }
+  }
+
+  @Test
+  public void testClusterMap() throws Exception {
+    FakeClusterManager.reset();
+    try {
+      VertxInternal vertxInternal = (VertxInternal) vertx;
+      SharedData node1 = new SharedData(vertxInternal, new FakeClusterManager(vertxInternal));
+      SharedData node2 = new SharedData(vertxInternal, new FakeClusterManager(vertxInternal));
+      ClusterMap<String, String> map1 = node1.getClusterMap("foo", 2);
+      final ClusterMap<String, String> map2 = node2.getClusterMap("foo", 2);
+      ClusterMap<String, String> map3 = node1.getClusterMap("foo", 2);
+      assertTrue(map1 == map3);
+      assertEquals(2, map2.nearCacheSize());
+
+      put(map1, "a", "x");
+      assertEquals("x", get(map2, "a"));
+      assertEquals("x", get(map2, "a"));
+      assertEquals(1, map2.hitCount());
+      assertEquals(1, map2.missCount());
+      assertEquals(0.5d, map2.hitRatio());
+
+      // A hit is still completed on the caller's context after get has returned
+      final CountDownLatch hitLatch = new CountDownLatch(1);
+      final AtomicReference<String> hit = new AtomicReference<>();
+      vertx.runOnContext(new Handler<Void>() {
+        public void handle(Void v) {
+          final Context context = vertx.currentContext();
+          final AtomicBoolean returned = new AtomicBoolean();
+          map2.get("a", new Handler<AsyncResult<String>>() {
+            public void handle(AsyncResult<String> res) {
+              if (returned.get() && vertx.currentContext() == context) {
+                hit.set(res.result());
+              }
+              hitLatch.countDown();
+            }
+          });
+          returned.set(true);
+        }
+      });
+      assertTrue(hitLatch.await(10, TimeUnit.SECONDS));
+      assertEquals("x", hit.get());
+      assertEquals(2, map2.hitCount());
+
+      // A write on another node invalidates the near cache
+      put(map1, "a", "y");
+      assertEquals(1, map2.invalidationCount());
+      assertEquals("y", get(map2, "a"));
+      assertEquals(2, map2.missCount());
+      assertEquals("y", get(map2, "a"));
+      assertEquals(3, map2.hitCount());
+      remove(map1, "a");
+      assertEquals(2, map2.invalidationCount());
+      assertNull(get(map2, "a"));
+
+      // The near cache is bounded
+      put(map1, "b", "1");
+      put(map1, "c", "2");
+      put(map1, "d", "3");
+      get(map2, "b");
+      get(map2, "c");
+      get(map2, "d");
+      long misses = map2.missCount();
+      assertEquals("1", get(map2, "b"));
+      assertEquals(misses + 1, map2.missCount());
+
+      assertTrue(node2.removeClusterMap("foo"));
+      assertFalse(node2.removeClusterMap("foo"));
+      // The entries stay in the cluster
+      ClusterMap<String, String> map4 = node2.getClusterMap("foo");
+      assertFalse(map4 == map2);
+      assertEquals(0, map4.nearCacheSize());
+      assertEquals("3", get(map4, "d"));
+    } finally {
+      FakeClusterManager.reset();
+    }
+  }
+
+  private <T> T await(final AtomicReference<AsyncResult<T>> ref, CountDownLatch latch) throws Exception {
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    AsyncResult<T> res = ref.get();
+    assertTrue(res.succeeded());
+    return res.result();
+  }
+
+  private <T> Handler<AsyncResult<T>> resultHandler(final AtomicReference<AsyncResult<T>> ref,
+                                                    final CountDownLatch latch) {
+    return new Handler<AsyncResult<T>>() {
+      public void handle(AsyncResult<T> res) {
+        ref.set(res);
+        latch.countDown();
+      }
+    };
+  }
+
+  private String get(ClusterMap<String, String> map, String k) throws Exception {
+    AtomicReference<AsyncResult<String>> ref = new AtomicReference<>();
+    CountDownLatch latch = new CountDownLatch(1);
+    map.get(k, resultHandler(ref, latch));
+    return await(ref, latch);
+  }
+
+  private void put(ClusterMap<String, String> map, String k, String v) throws Exception {
+    AtomicReference<AsyncResult<Void>> ref = new AtomicReference<>();
+    CountDownLatch latch = new CountDownLatch(1);
+    map.put(k, v, resultHandler(ref, latch));
+    await(ref, latch);
+  }
+
+  private void remove(ClusterMap<String, String> map, String k) throws Exception {
+    AtomicReference<AsyncResult<Void>> ref = new AtomicReference<>();
+    CountDownLatch latch = new CountDownLatch(1);
+    map.remove(k, resultHandler(ref, latch));
+    await(ref, latch);
+  }
+
+  class SomeShareable implements Shareable {
+  }
+
   class SomeOtherClass {
   }
 
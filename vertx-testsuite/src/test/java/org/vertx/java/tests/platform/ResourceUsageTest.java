@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package org.vertx.java.tests.platform;
+
+import junit.framework.TestCase;
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.eventbus.Message;
+import org.vertx.java.core.json.JsonObject;
+import org.vertx.java.platform.PlatformLocator;
+import org.vertx.java.platform.PlatformManager;
+import vertx.tests.ResourceUsageServerVerticle;
+import vertx.tests.ResourceUsageVerticle;
+
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ResourceUsageTest extends TestCase {
+
+  private PlatformManager platformManager;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    platformManager = PlatformLocator.factory.createPlatformManager();
+  }
+
+  protected void tearDown() throws Exception {
+    platformManager.stop();
+    super.tearDown();
+  }
+
+  public void testListResourceUsage() throws Exception {
+    final AtomicReference<String> deploymentID = new AtomicReference<>();
+    final CountDownLatch deployLatch = new CountDownLatch(1);
+    platformManager.deployVerticle(ResourceUsageVerticle.class.getName(), null, new URL[0], 1, null,
+        new Handler<AsyncResult<String>>() {
+      public void handle(AsyncResult<String> res) {
+        if (res.succeeded()) {
+          deploymentID.set(res.result());
+        }
+        deployLatch.countDown();
+      }
+    });
+    assertTrue(deployLatch.await(10, TimeUnit.SECONDS));
+    assertNotNull(deploymentID.get());
+
+    int numMessages = 10;
+    final CountDownLatch replyLatch = new CountDownLatch(numMessages);
+    for (int i = 0; i < numMessages; i++) {
+      platformManager.vertx().eventBus().send("resource-usage", "foo", new Handler<Message<String>>() {
+        public void handle(Message<String> reply) {
+          replyLatch.countDown();
+        }
+      });
+    }
+    assertTrue(replyLatch.await(10, TimeUnit.SECONDS));
+
+    JsonObject usage = platformManager.listResourceUsage().get(deploymentID.get());
+    assertNotNull(usage);
+    assertEquals(numMessages, usage.getLong("eventBusMessages").longValue());
+    assertEquals(1, usage.getInteger("activeTimers").intValue());
+    assertEquals(0, usage.getInteger("openSockets").intValue());
+    assertTrue(usage.getLong("tasks") >= numMessages);
+    assertTrue(usage.getLong("cpuTime") >= 0);
+
+    final CountDownLatch undeployLatch = new CountDownLatch(1);
+    platformManager.undeploy(deploymentID.get(), new Handler<AsyncResult<Void>>() {
+      public void handle(AsyncResult<Void> res) {
+        undeployLatch.countDown();
+      }
+    });
+    assertTrue(undeployLatch.await(10, TimeUnit.SECONDS));
+    assertNull(platformManager.listResourceUsage().get(deploymentID.get()));
+  }
+
+  public void testServerUsage() throws Exception {
+    String deploymentID = deploy(ResourceUsageServerVerticle.class.getName());
+    JsonObject before = platformManager.listResourceUsage().get(deploymentID);
+
+    // Sockets are counted while they are open
+    try (Socket socket = new Socket("localhost", ResourceUsageServerVerticle.NET_PORT)) {
+      socket.getOutputStream().write("foo".getBytes("UTF-8"));
+      byte[] echoed = new byte[3];
+      int read = 0;
+      while (read < echoed.length) {
+        read += socket.getInputStream().read(echoed, read, echoed.length - read);
+      }
+      assertEquals("foo", new String(echoed, "UTF-8"));
+      waitForOpenSockets(deploymentID, 1);
+    }
+    waitForOpenSockets(deploymentID, 0);
+    // Connecting, reading and closing all run handlers of the deployment. They're counted once they're finished,
+    // which may be after the client sees their effect.
+    long tasks = waitForUsage(deploymentID, "tasks", before.getLong("tasks") + 3);
+    long cpuTime = platformManager.listResourceUsage().get(deploymentID).getLong("cpuTime");
+
+    // The request handler is called straight from the event loop, and is still charged for its CPU time
+    HttpURLConnection conn = (HttpURLConnection) new URL("http://localhost:" + ResourceUsageServerVerticle.HTTP_PORT +
+        "/").openConnection();
+    assertEquals(200, conn.getResponseCode());
+    conn.getInputStream().close();
+    conn.disconnect();
+    waitForUsage(deploymentID, "tasks", tasks + 1);
+    if (ManagementFactory.getThreadMXBean().isThreadCpuTimeEnabled()) {
+      waitForUsage(deploymentID, "cpuTime", cpuTime + ResourceUsageServerVerticle.BUSY_NANOS);
+    }
+    undeploy(deploymentID);
+  }
+
+  private String deploy(String main) throws Exception {
+    final AtomicReference<String> deploymentID = new AtomicReference<>();
+    final CountDownLatch deployLatch = new CountDownLatch(1);
+    platformManager.deployVerticle(main, null, new URL[0], 1, null, new Handler<AsyncResult<String>>() {
+      public void handle(AsyncResult<String> res) {
+        if (res.succeeded()) {
+          deploymentID.set(res.result());
+        }
+        deployLatch.countDown();
+      }
+    });
+    assertTrue(deployLatch.await(10, TimeUnit.SECONDS));
+    assertNotNull(deploymentID.get());
+    return deploymentID.get();
+  }
+
+  private void undeploy(String deploymentID) throws Exception {
+    final CountDownLatch undeployLatch = new CountDownLatch(1);
+    platformManager.undeploy(deploymentID, new Handler<AsyncResult<Void>>() {
+      public void handle(AsyncResult<Void> res) {
+        undeployLatch.countDown();
+      }
+    });
+    assertTrue(undeployLatch.await(10, TimeUnit.SECONDS));
+  }
+
+  private long waitForUsage(String deploymentID, String name, long atLeast) throws Exception {
+    long end = System.currentTimeMillis() + 10000;
+    long value;
+    while ((value = platformManager.listResourceUsage().get(deploymentID).getLong(name)) < atLeast &&
+        System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertTrue(name + " is " + value + ", expected at least " + atLeast, value >= atLeast);
+    return value;
+  }
+
+  private void waitForOpenSockets(String deploymentID, int expected) throws Exception {
+    long end = System.currentTimeMillis() + 10000;
+    int open;
+    while ((open = platformManager.listResourceUsage().get(deploymentID).getInteger("openSockets")) != expected &&
+        System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, open);
+  }
+}
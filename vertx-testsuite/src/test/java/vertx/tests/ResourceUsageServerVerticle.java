@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package vertx.tests;
+
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.Future;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.http.HttpServer;
+import org.vertx.java.core.http.HttpServerRequest;
+import org.vertx.java.core.net.NetServer;
+import org.vertx.java.core.net.NetSocket;
+import org.vertx.java.platform.Verticle;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+public class ResourceUsageServerVerticle extends Verticle {
+
+  public static final int NET_PORT = 1234;
+  public static final int HTTP_PORT = 8080;
+  public static final long BUSY_NANOS = 50 * 1000 * 1000;
+
+  @Override
+  public void start(final Future<Void> startedResult) {
+    final Handler<Object> listened = new Handler<Object>() {
+      int count;
+      public void handle(Object ar) {
+        if (++count == 2) {
+          startedResult.setResult(null);
+        }
+      }
+    };
+    vertx.createNetServer().connectHandler(new Handler<NetSocket>() {
+      public void handle(final NetSocket socket) {
+        socket.dataHandler(new Handler<Buffer>() {
+          public void handle(Buffer data) {
+            socket.write(data);
+          }
+        });
+      }
+    }).listen(NET_PORT, new Handler<AsyncResult<NetServer>>() {
+      public void handle(AsyncResult<NetServer> ar) {
+        listened.handle(ar);
+      }
+    });
+    vertx.createHttpServer().requestHandler(new Handler<HttpServerRequest>() {
+      public void handle(HttpServerRequest req) {
+        busy();
+        req.response().end("done");
+      }
+    }).listen(HTTP_PORT, new Handler<AsyncResult<HttpServer>>() {
+      public void handle(AsyncResult<HttpServer> ar) {
+        listened.handle(ar);
+      }
+    });
+  }
+
+  // Use some CPU time, so the request handler has something to be charged for
+  private static void busy() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    if (!threadMXBean.isCurrentThreadCpuTimeSupported()) {
+      return;
+    }
+    long end = threadMXBean.getCurrentThreadCpuTime() + BUSY_NANOS;
+    while (threadMXBean.getCurrentThreadCpuTime() < end) {
+      // Spin
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2011-2013 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package vertx.tests;
+
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.Future;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.eventbus.Message;
+import org.vertx.java.platform.Verticle;
+
+public class ResourceUsageVerticle extends Verticle {
+
+  @Override
+  public void start(final Future<Void> startedResult) {
+    vertx.setTimer(100000, new Handler<Long>() {
+      public void handle(Long id) {
+      }
+    });
+    vertx.eventBus().registerHandler("resource-usage", new Handler<Message<String>>() {
+      public void handle(Message<String> message) {
+        message.reply(message.body());
+      }
+    }, new Handler<AsyncResult<Void>>() {
+      public void handle(AsyncResult<Void> ar) {
+        startedResult.setResult(null);
+      }
+    });
+  }
+}
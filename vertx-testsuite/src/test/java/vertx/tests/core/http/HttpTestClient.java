@@ -1765,6 +1765,62 @@ public class HttpTestClient extends TestClientBase {
     }, handler);
   }
 
+  public void testResponseReleasesPooledBuffers() {
+    AsyncResultHandler<HttpServer> handler = new AsyncResultHandler<HttpServer>() {
+      @Override
+      public void handle(AsyncResult<HttpServer> ar) {
+        tu.azzert(ar.succeeded());
+        HttpClientRequest req = getRequest(true, "GET", "some-uri", new Handler<HttpClientResponse>() {
+          public void handle(HttpClientResponse resp) {
+            tu.checkThread();
+            resp.bodyHandler(new Handler<Buffer>() {
+              public void handle(Buffer buff) {
+                tu.azzert("foo".equals(buff.toString()));
+                tu.testComplete();
+              }
+            });
+          }
+        });
+        req.end();
+      }
+    };
+
+    startServer(new Handler<HttpServerRequest>() {
+      public void handle(HttpServerRequest req) {
+        tu.checkThread();
+        HttpServerResponse resp = req.response();
+        resp.setChunked(true);
+        resp.write("foo");
+        // An empty buffer at the end isn't written, but is still released
+        Buffer empty = Buffer.pooled(10);
+        resp.end(empty);
+        checkReleased(empty);
+
+        // As are buffers which can't be written because the response has ended
+        Buffer late = Buffer.pooled(10).appendString("bar");
+        try {
+          resp.write(late);
+          tu.azzert(false, "Should throw exception");
+        } catch (IllegalStateException e) {
+          //OK
+        }
+        checkReleased(late);
+        late = Buffer.pooled(10).appendString("bar");
+        try {
+          resp.end(late);
+          tu.azzert(false, "Should throw exception");
+        } catch (IllegalStateException e) {
+          //OK
+        }
+        checkReleased(late);
+      }
+    }, handler);
+  }
+
+  private void checkReleased(Buffer buff) {
+    tu.azzert(buff.getByteBuf().refCnt() == 0, "Buffer should have been released");
+  }
+
   public void testResponseBodyBufferAtEnd() {
     final Buffer body = TestUtils.generateRandomBuffer(1000);
 
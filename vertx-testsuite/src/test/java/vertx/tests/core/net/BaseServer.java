@@ -45,6 +45,10 @@ public abstract class BaseServer extends Verticle {
     tu = new TestUtils(vertx);
     server = vertx.createNetServer();
     server.connectHandler(getConnectHandler());
+    Boolean reusePort = vertx.sharedData().<String, Boolean>getMap("params").get("reuseport");
+    if (reusePort != null) {
+      server.setReusePort(reusePort);
+    }
     Integer port = vertx.sharedData().<String, Integer>getMap("params").get("listenport");
     int p = port == null ? 1234: port;
 
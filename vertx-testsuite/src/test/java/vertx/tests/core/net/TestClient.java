@@ -16,6 +16,7 @@
 
 package vertx.tests.core.net;
 
+import io.netty.util.IllegalReferenceCountException;
 import org.vertx.java.core.AsyncResult;
 import org.vertx.java.core.AsyncResultHandler;
 import org.vertx.java.core.Handler;
@@ -30,6 +31,8 @@ import org.vertx.java.testframework.TestUtils;
 import vertx.tests.core.http.TLSTestParams;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -225,6 +228,11 @@ public class TestClient extends TestClientBase {
     tu.azzert(server.setReuseAddress(false) == server);
     tu.azzert(!server.isReuseAddress());
 
+    tu.azzert(server.setReusePort(true) == server);
+    tu.azzert(server.isReusePort());
+    tu.azzert(server.setReusePort(false) == server);
+    tu.azzert(!server.isReusePort());
+
     tu.azzert(server.setSoLinger(10) == server);
     tu.azzert(server.getSoLinger() == 10);
 
@@ -363,6 +371,100 @@ public class TestClient extends TestClientBase {
     });
   }
 
+  public void testEchoPooledBuffer() {
+    client.connect(1234, new AsyncResultHandler<NetSocket>() {
+      public void handle(AsyncResult<NetSocket> res) {
+        tu.checkThread();
+        final List<Buffer> sent = new ArrayList<>();
+        final Buffer expected = new Buffer();
+        final Buffer received = new Buffer();
+        res.result().dataHandler(new Handler<Buffer>() {
+          public void handle(Buffer buffer) {
+            tu.checkThread();
+            received.appendBuffer(buffer);
+            if (received.length() == expected.length()) {
+              tu.azzert(TestUtils.buffersEqual(expected, received));
+              // Writing the buffers handed them over to the socket, which has released them
+              for (Buffer buff : sent) {
+                try {
+                  buff.getByte(0);
+                  tu.azzert(false, "Buffer should have been released");
+                } catch (IllegalReferenceCountException e) {
+                  // OK
+                }
+              }
+              tu.testComplete();
+            }
+          }
+        });
+        for (int i = 0; i < 10; i++) {
+          Buffer buff = Buffer.pooled(100);
+          tu.azzert(buff.isPooled());
+          buff.appendBuffer(TestUtils.generateRandomBuffer(100));
+          expected.appendBuffer(buff);
+          sent.add(buff);
+          res.result().write(buff);
+        }
+      }
+    });
+  }
+
+  public void testEchoCompositeBuffer() {
+    client.connect(1234, new AsyncResultHandler<NetSocket>() {
+      public void handle(AsyncResult<NetSocket> res) {
+        tu.checkThread();
+        final Buffer sent = Buffer.composite();
+        for (int i = 0; i < 10; i++) {
+          sent.appendBuffer(TestUtils.generateRandomBuffer(100));
+        }
+        // The socket releases the composite once it has been written
+        final Buffer expected = sent.copy();
+        final Buffer received = new Buffer();
+        res.result().dataHandler(new Handler<Buffer>() {
+          public void handle(Buffer buffer) {
+            tu.checkThread();
+            received.appendBuffer(buffer);
+            if (received.length() == expected.length()) {
+              tu.azzert(TestUtils.buffersEqual(expected, received));
+              tu.testComplete();
+            }
+          }
+        });
+        res.result().write(sent);
+      }
+    });
+  }
+
+  public void testEchoCompositeSlice() {
+    client.connect(1234, new AsyncResultHandler<NetSocket>() {
+      public void handle(AsyncResult<NetSocket> res) {
+        tu.checkThread();
+        final Buffer comp = Buffer.composite();
+        for (int i = 0; i < 10; i++) {
+          comp.appendBuffer(TestUtils.generateRandomBuffer(100));
+        }
+        final Buffer all = comp.copy();
+        // The socket releases the slice once it has been written, but not the composite
+        Buffer slice = comp.slice(150, 450);
+        final Buffer expected = slice.copy();
+        final Buffer received = new Buffer();
+        res.result().dataHandler(new Handler<Buffer>() {
+          public void handle(Buffer buffer) {
+            tu.checkThread();
+            received.appendBuffer(buffer);
+            if (received.length() == expected.length()) {
+              tu.azzert(TestUtils.buffersEqual(expected, received));
+              tu.azzert(TestUtils.buffersEqual(all, comp));
+              tu.azzert(comp.release());
+              tu.testComplete();
+            }
+          }
+        });
+        res.result().write(slice);
+      }
+    });
+  }
+
   public void testConnectDefaultHost() {
     connect(1234, null);
   }
@@ -812,6 +914,10 @@ public class TestClient extends TestClientBase {
     testSharedServersMultipleInstances1();
   }
 
+  public void testSharedServersReusePort() {
+    testSharedServersMultipleInstances1();
+  }
+
   public void testSharedServersMultipleInstances1StartAllStopSome() {
     testSharedServersMultipleInstances1();
   }